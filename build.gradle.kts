@@ -26,6 +26,14 @@ repositories {
     mavenCentral()
     maven(url = "https://oss.sonatype.org/content/repositories/snapshots")
 }
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+val jmhImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+val jmhAnnotationProcessor: Configuration by configurations.getting
 dependencies {
     implementation("org.eclipse.keypop:keypop-reader-java-api:2.0.1")
     implementation("org.eclipse.keypop:keypop-card-java-api:2.0.1")
@@ -42,6 +50,8 @@ dependencies {
     testImplementation("org.junit.vintage:junit-vintage-engine")
     testImplementation("org.assertj:assertj-core:3.25.3")
     testImplementation("org.mockito:mockito-core:5.11.0")
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 val javaSourceLevel: String by project
@@ -73,6 +83,20 @@ tasks {
         }
         finalizedBy("jacocoTestReport")
     }
+    register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks of the transaction managers (filter with -PjmhIncludes=<regex>)."
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        val resultFile = file("${project.buildDir}/reports/jmh/results.json")
+        args = listOfNotNull(
+            project.findProperty("jmhIncludes")?.toString(),
+            "-rf", "json",
+            "-rff", resultFile.absolutePath)
+        doFirst {
+            resultFile.parentFile.mkdirs()
+        }
+    }
     jacocoTestReport {
         dependsOn("test")
         reports {
@@ -0,0 +1,120 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Factory of crypto SPI stubs returning canned values.
+ *
+ * <p>Stubs are dynamic proxies: a method listed in the provided answers returns the associated
+ * value, any other method returns {@code true}, an empty byte array, zero or null according to
+ * its return type. No cryptographic computation is performed so that the benchmarks only measure
+ * the library overhead.
+ *
+ * @since 3.1.7
+ */
+final class CryptoStubs {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private CryptoStubs() {}
+
+  /**
+   * Creates a stub implementing all the provided interfaces.
+   *
+   * @param answers The canned return values by method name.
+   * @param interfaces The interfaces to implement.
+   * @return A new stub.
+   * @since 3.1.7
+   */
+  static Object newStub(Map<String, Object> answers, Class<?>... interfaces) {
+    return Proxy.newProxyInstance(
+        CryptoStubs.class.getClassLoader(), interfaces, new AnswerHandler(answers));
+  }
+
+  /**
+   * Returns a builder of answers.
+   *
+   * @return A new builder.
+   * @since 3.1.7
+   */
+  static Answers answers() {
+    return new Answers();
+  }
+
+  /**
+   * Fluent builder of canned return values.
+   *
+   * @since 3.1.7
+   */
+  static final class Answers {
+
+    private final Map<String, Object> values = new HashMap<>();
+
+    private Answers() {}
+
+    Answers on(String methodName, Object value) {
+      values.put(methodName, value);
+      return this;
+    }
+
+    Object stub(Class<?>... interfaces) {
+      return newStub(values, interfaces);
+    }
+  }
+
+  private static final class AnswerHandler implements InvocationHandler {
+
+    private final Map<String, Object> answers;
+
+    private AnswerHandler(Map<String, Object> answers) {
+      this.answers = new HashMap<>(answers);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (method.getDeclaringClass() == Object.class) {
+        switch (method.getName()) {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          default:
+            return "CryptoStub" + answers.keySet();
+        }
+      }
+      if (answers.containsKey(method.getName())) {
+        return answers.get(method.getName());
+      }
+      Class<?> returnType = method.getReturnType();
+      if (returnType == boolean.class) {
+        return true;
+      } else if (returnType == byte[].class) {
+        return EMPTY;
+      } else if (returnType == byte.class) {
+        return (byte) 0;
+      } else if (returnType == short.class) {
+        return (short) 0;
+      } else if (returnType == int.class) {
+        return 0;
+      } else if (returnType == long.class) {
+        return 0L;
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keypop.card.ApduResponseApi;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.CardSelectionResponseApi;
+import org.eclipse.keypop.card.ChannelControl;
+import org.eclipse.keypop.card.ProxyReaderApi;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+
+/**
+ * Contactless reader replaying a fixed sequence of R-APDUs, whatever the C-APDUs received.
+ *
+ * <p>The script is consumed one response per C-APDU and must be rewound before each simulated
+ * card tap, so that the cost measured is only the one of the library.
+ *
+ * @since 3.1.7
+ */
+final class ScriptedCardReader implements CardReader, ProxyReaderApi {
+
+  private final List<ApduResponseApi> script;
+  private int index;
+
+  /**
+   * Constructor.
+   *
+   * @param hexApduResponses The R-APDUs (data out + SW) to replay, in hexadecimal.
+   * @since 3.1.7
+   */
+  ScriptedCardReader(String... hexApduResponses) {
+    script = new ArrayList<>(hexApduResponses.length);
+    for (String hexApduResponse : hexApduResponses) {
+      script.add(new ApduResponseAdapter(HexUtil.toByteArray(hexApduResponse)));
+    }
+  }
+
+  /**
+   * Restarts the script from its first response.
+   *
+   * @since 3.1.7
+   */
+  void rewind() {
+    index = 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public CardResponseApi transmitCardRequest(
+      CardRequestSpi cardRequest, ChannelControl channelControl) {
+    int nbApdus = cardRequest.getApduRequests().size();
+    if (index + nbApdus > script.size()) {
+      throw new IllegalStateException(
+          "Script exhausted: " + nbApdus + " R-APDU(s) requested at position " + index);
+    }
+    List<ApduResponseApi> apduResponses = new ArrayList<>(script.subList(index, index + nbApdus));
+    index += nbApdus;
+    return new CardResponseAdapter(apduResponses, channelControl == ChannelControl.KEEP_OPEN);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public void releaseChannel() {
+    // NOP
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public String getName() {
+    return "SCRIPTED_READER";
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public boolean isContactless() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public boolean isCardPresent() {
+    return true;
+  }
+
+  /**
+   * Implementation of {@link ApduResponseApi}.
+   *
+   * @since 3.1.7
+   */
+  static final class ApduResponseAdapter implements ApduResponseApi {
+
+    private final byte[] apdu;
+    private final int statusWord;
+
+    ApduResponseAdapter(byte[] apdu) {
+      this.apdu = apdu;
+      statusWord = ((apdu[apdu.length - 2] & 0xFF) << 8) + (apdu[apdu.length - 1] & 0xFF);
+    }
+
+    @Override
+    public byte[] getApdu() {
+      return apdu;
+    }
+
+    @Override
+    public byte[] getDataOut() {
+      return Arrays.copyOfRange(apdu, 0, apdu.length - 2);
+    }
+
+    @Override
+    public int getStatusWord() {
+      return statusWord;
+    }
+  }
+
+  /**
+   * Implementation of {@link CardResponseApi}.
+   *
+   * @since 3.1.7
+   */
+  static final class CardResponseAdapter implements CardResponseApi {
+
+    private final List<ApduResponseApi> apduResponses;
+    private final boolean isLogicalChannelOpen;
+
+    CardResponseAdapter(List<ApduResponseApi> apduResponses, boolean isLogicalChannelOpen) {
+      this.apduResponses = apduResponses;
+      this.isLogicalChannelOpen = isLogicalChannelOpen;
+    }
+
+    @Override
+    public List<ApduResponseApi> getApduResponses() {
+      return apduResponses;
+    }
+
+    @Override
+    public boolean isLogicalChannelOpen() {
+      return isLogicalChannelOpen;
+    }
+  }
+
+  /**
+   * Implementation of {@link CardSelectionResponseApi} built from a select application response.
+   *
+   * @since 3.1.7
+   */
+  static final class CardSelectionResponseAdapter implements CardSelectionResponseApi {
+
+    private final ApduResponseApi selectApplicationResponse;
+
+    CardSelectionResponseAdapter(String hexSelectApplicationResponse) {
+      selectApplicationResponse =
+          new ApduResponseAdapter(HexUtil.toByteArray(hexSelectApplicationResponse));
+    }
+
+    @Override
+    public String getPowerOnData() {
+      return null;
+    }
+
+    @Override
+    public ApduResponseApi getSelectApplicationResponse() {
+      return selectApplicationResponse;
+    }
+
+    @Override
+    public boolean hasMatched() {
+      return true;
+    }
+
+    @Override
+    public CardResponseApi getCardResponse() {
+      return null;
+    }
+  }
+}
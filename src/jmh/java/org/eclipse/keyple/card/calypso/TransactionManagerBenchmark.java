@@ -0,0 +1,291 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
+import org.eclipse.keypop.calypso.card.WriteAccessLevel;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.AsymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.card.transaction.ChannelControl;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.card.transaction.spi.AsymmetricCryptoCardTransactionManagerFactory;
+import org.eclipse.keypop.calypso.card.transaction.spi.CardCertificateParser;
+import org.eclipse.keypop.calypso.card.transaction.spi.CardTransactionCryptoExtension;
+import org.eclipse.keypop.calypso.card.transaction.spi.PcaCertificate;
+import org.eclipse.keypop.calypso.card.transaction.spi.SymmetricCryptoCardTransactionManagerFactory;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CaCertificateContentSpi;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CardCertificateParserSpi;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CardCertificateSpi;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CardPublicKeySpi;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.PcaCertificateSpi;
+import org.eclipse.keypop.calypso.crypto.asymmetric.transaction.spi.AsymmetricCryptoCardTransactionManagerFactorySpi;
+import org.eclipse.keypop.calypso.crypto.asymmetric.transaction.spi.AsymmetricCryptoCardTransactionManagerSpi;
+import org.eclipse.keypop.calypso.crypto.symmetric.spi.SymmetricCryptoCardTransactionManagerFactorySpi;
+import org.eclipse.keypop.calypso.crypto.symmetric.spi.SymmetricCryptoCardTransactionManagerSpi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the library overhead of a complete card tap, from the card image creation to the
+ * processing of the prepared commands, for each kind of transaction manager.
+ *
+ * <p>The card is simulated by a {@link ScriptedCardReader} and the crypto services by {@link
+ * CryptoStubs}, so the figures exclude any card or SAM latency. Run with {@code ./gradlew jmh}.
+ *
+ * @since 3.1.7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionManagerBenchmark {
+
+  private static final String CARD_SERIAL_NUMBER = "0000000011223344";
+  private static final String SELECT_APPLICATION_RESPONSE_PREFIX =
+      "6F238409315449432E49434131A516BF0C13C708" + CARD_SERIAL_NUMBER + "53070A3C";
+  private static final String SELECT_APPLICATION_RESPONSE_SUFFIX = "051410019000";
+  private static final String SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3 =
+      SELECT_APPLICATION_RESPONSE_PREFIX + "20" + SELECT_APPLICATION_RESPONSE_SUFFIX;
+  private static final String SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3_EXTENDED =
+      SELECT_APPLICATION_RESPONSE_PREFIX + "28" + SELECT_APPLICATION_RESPONSE_SUFFIX;
+  private static final String SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3_PKI =
+      SELECT_APPLICATION_RESPONSE_PREFIX + "30" + SELECT_APPLICATION_RESPONSE_SUFFIX;
+
+  private static final byte SFI_ENVIRONMENT = 0x07;
+  private static final byte SFI_CONTRACTS = 0x08;
+  private static final byte SFI_EVENTS = 0x09;
+  private static final String SW_9000 = "9000";
+  private static final String RECORD_29B =
+      "0102030405060708090A0B0C0D0E0F101112131415161718191A1B1C1D";
+  private static final byte[] NEW_RECORD_29B =
+      HexUtil.toByteArray("A1A2A3A4A5A6A7A8A9AAABACADAEAFB0B1B2B3B4B5B6B7B8B9BABBBCBD");
+
+  private static final String KIF_KVC = "3079";
+  private static final String TERMINAL_CHALLENGE = "C1C2C3C4";
+  private static final String TERMINAL_CHALLENGE_EXTENDED = "C1C2C3C4C5C6C7C8";
+  private static final String TERMINAL_SESSION_MAC = "12345678";
+  private static final String TERMINAL_SESSION_MAC_EXTENDED = "1122334455667788";
+  private static final String CARD_SESSION_MAC = "9ABCDEF0";
+  private static final String CARD_SESSION_MAC_EXTENDED = "8877665544332211";
+
+  private static final String PUBLIC_KEY_REFERENCE =
+      "00112233445566778899AABBCCDDEEFF00112233445566778899AABBCC";
+  private static final byte CARD_CERTIFICATE_TYPE = (byte) 0x91;
+  private static final int CARD_CERTIFICATE_FIRST_PART_SIZE = 200;
+
+  private final CalypsoCardApiFactory calypsoCardApiFactory =
+      CalypsoExtensionService.getInstance().getCalypsoCardApiFactory();
+
+  private ScriptedCardReader freeReader;
+  private ScriptedCardReader regularReader;
+  private ScriptedCardReader extendedReader;
+  private ScriptedCardReader pkiReader;
+  private SymmetricCryptoSecuritySetting regularSecuritySetting;
+  private SymmetricCryptoSecuritySetting extendedSecuritySetting;
+  private AsymmetricCryptoSecuritySetting pkiSecuritySetting;
+
+  /** Builds the scripted readers and the stubbed security settings once per trial. */
+  @Setup
+  public void setUp() {
+
+    freeReader =
+        new ScriptedCardReader(
+            RECORD_29B + SW_9000, // Read Record SFI 07h #1
+            "010111" + "020122" + SW_9000); // Read Records SFI 09h #1..#2
+
+    regularReader =
+        new ScriptedCardReader(
+            "0304909800" + KIF_KVC + "1D" + RECORD_29B + SW_9000, // Open + Read SFI 07h #1
+            SW_9000, // Update Record SFI 08h #1
+            CARD_SESSION_MAC + SW_9000); // Close
+
+    extendedReader =
+        new ScriptedCardReader(
+            "C8C7C6C5C4C3C2C102" + KIF_KVC + "1D" + RECORD_29B + SW_9000, // Open + Read
+            SW_9000, // Update Record SFI 08h #1
+            CARD_SESSION_MAC_EXTENDED + SW_9000); // Close
+
+    StringBuilder cardCertificate = new StringBuilder(HexUtil.toHex(CARD_CERTIFICATE_TYPE));
+    while (cardCertificate.length() < 2 * CalypsoCardConstant.CARD_CERTIFICATE_SIZE) {
+      cardCertificate.append("5A");
+    }
+    String cardCertificateHex = cardCertificate.toString();
+    StringBuilder cardSignature = new StringBuilder();
+    while (cardSignature.length() < 128) {
+      cardSignature.append("A5");
+    }
+    pkiReader =
+        new ScriptedCardReader(
+            HexUtil.toHex(CalypsoCardConstant.TAG_CARD_CERTIFICATE_HEADER)
+                + cardCertificateHex.substring(0, 2 * CARD_CERTIFICATE_FIRST_PART_SIZE)
+                + SW_9000, // Get Data card certificate, first part
+            cardCertificateHex.substring(2 * CARD_CERTIFICATE_FIRST_PART_SIZE)
+                + SW_9000, // Get Data card certificate, second part
+            "00"
+                + CARD_SERIAL_NUMBER
+                + "00"
+                + "0304909800000000"
+                + "00"
+                + "0000"
+                + "1D"
+                + RECORD_29B
+                + SW_9000, // Open + Read SFI 07h #1
+            SW_9000, // Update Record SFI 08h #1
+            cardSignature + SW_9000); // Close
+
+    regularSecuritySetting =
+        calypsoCardApiFactory.createSymmetricCryptoSecuritySetting(
+            newSymmetricCryptoFactory(TERMINAL_CHALLENGE, TERMINAL_SESSION_MAC));
+    extendedSecuritySetting =
+        calypsoCardApiFactory.createSymmetricCryptoSecuritySetting(
+            newSymmetricCryptoFactory(TERMINAL_CHALLENGE_EXTENDED, TERMINAL_SESSION_MAC_EXTENDED));
+    pkiSecuritySetting = newAsymmetricCryptoSecuritySetting();
+  }
+
+  /** Reads two files outside any secure session. */
+  @Benchmark
+  public CalypsoCard freeTransaction() throws Exception {
+    freeReader.rewind();
+    CalypsoCardAdapter card = newCard(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3);
+    calypsoCardApiFactory
+        .createFreeTransactionManager(freeReader, card)
+        .prepareReadRecord(SFI_ENVIRONMENT, 1)
+        .prepareReadRecords(SFI_EVENTS, 1, 2, 1)
+        .processCommands(ChannelControl.CLOSE_AFTER);
+    return card;
+  }
+
+  /** Reads and updates a record in a secure session in regular mode. */
+  @Benchmark
+  public CalypsoCard secureRegularModeTransaction() throws Exception {
+    regularReader.rewind();
+    CalypsoCardAdapter card = newCard(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3);
+    calypsoCardApiFactory
+        .createSecureRegularModeTransactionManager(regularReader, card, regularSecuritySetting)
+        .prepareOpenSecureSession(WriteAccessLevel.DEBIT)
+        .prepareReadRecord(SFI_ENVIRONMENT, 1)
+        .prepareUpdateRecord(SFI_CONTRACTS, 1, NEW_RECORD_29B)
+        .prepareCloseSecureSession()
+        .processCommands(ChannelControl.CLOSE_AFTER);
+    return card;
+  }
+
+  /** Reads and updates a record in a secure session in extended mode. */
+  @Benchmark
+  public CalypsoCard secureExtendedModeTransaction() throws Exception {
+    extendedReader.rewind();
+    CalypsoCardAdapter card = newCard(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3_EXTENDED);
+    calypsoCardApiFactory
+        .createSecureExtendedModeTransactionManager(extendedReader, card, extendedSecuritySetting)
+        .prepareOpenSecureSession(WriteAccessLevel.DEBIT)
+        .prepareReadRecord(SFI_ENVIRONMENT, 1)
+        .prepareUpdateRecord(SFI_CONTRACTS, 1, NEW_RECORD_29B)
+        .prepareCloseSecureSession()
+        .processCommands(ChannelControl.CLOSE_AFTER);
+    return card;
+  }
+
+  /**
+   * Reads the card certificate, then reads and updates a record in a secure session in PKI mode.
+   * The CA certificate is already known by the security setting.
+   */
+  @Benchmark
+  public CalypsoCard securePkiModeTransaction() throws Exception {
+    pkiReader.rewind();
+    CalypsoCardAdapter card = newCard(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3_PKI);
+    calypsoCardApiFactory
+        .createSecurePkiModeTransactionManager(pkiReader, card, pkiSecuritySetting)
+        .prepareOpenSecureSession()
+        .prepareReadRecord(SFI_ENVIRONMENT, 1)
+        .prepareUpdateRecord(SFI_CONTRACTS, 1, NEW_RECORD_29B)
+        .prepareCloseSecureSession()
+        .processCommands(ChannelControl.CLOSE_AFTER);
+    return card;
+  }
+
+  private static CalypsoCardAdapter newCard(String selectApplicationResponse)
+      throws CardCommandException {
+    return new CalypsoCardAdapter(
+        new ScriptedCardReader.CardSelectionResponseAdapter(selectApplicationResponse));
+  }
+
+  private static SymmetricCryptoCardTransactionManagerFactory newSymmetricCryptoFactory(
+      String terminalChallenge, String terminalSessionMac) {
+    Object cryptoManager =
+        CryptoStubs.answers()
+            .on("initTerminalSecureSessionContext", HexUtil.toByteArray(terminalChallenge))
+            .on("finalizeTerminalSessionMac", HexUtil.toByteArray(terminalSessionMac))
+            .stub(
+                SymmetricCryptoCardTransactionManagerSpi.class,
+                CardTransactionCryptoExtension.class);
+    return (SymmetricCryptoCardTransactionManagerFactory)
+        CryptoStubs.answers()
+            .on("isExtendedModeSupported", true)
+            .on("getMaxCardApduLengthSupported", 250)
+            .on("createCardTransactionManager", cryptoManager)
+            .stub(
+                SymmetricCryptoCardTransactionManagerFactory.class,
+                SymmetricCryptoCardTransactionManagerFactorySpi.class);
+  }
+
+  private AsymmetricCryptoSecuritySetting newAsymmetricCryptoSecuritySetting() {
+    byte[] publicKeyReference = HexUtil.toByteArray(PUBLIC_KEY_REFERENCE);
+    Object cryptoManager =
+        CryptoStubs.answers()
+            .stub(
+                AsymmetricCryptoCardTransactionManagerSpi.class,
+                CardTransactionCryptoExtension.class);
+    AsymmetricCryptoCardTransactionManagerFactory cryptoFactory =
+        (AsymmetricCryptoCardTransactionManagerFactory)
+            CryptoStubs.answers()
+                .on("createCardTransactionManager", cryptoManager)
+                .stub(
+                    AsymmetricCryptoCardTransactionManagerFactory.class,
+                    AsymmetricCryptoCardTransactionManagerFactorySpi.class);
+    Object pcaCertificateContent =
+        CryptoStubs.answers()
+            .on("getPublicKeyReference", publicKeyReference)
+            .stub(CaCertificateContentSpi.class);
+    Object pcaCertificate =
+        CryptoStubs.answers()
+            .on("checkCertificateAndGetContent", pcaCertificateContent)
+            .stub(PcaCertificate.class, PcaCertificateSpi.class);
+    Object cardPublicKey = CryptoStubs.answers().stub(CardPublicKeySpi.class);
+    Object cardCertificate =
+        CryptoStubs.answers()
+            .on("getCardSerialNumber", HexUtil.toByteArray(CARD_SERIAL_NUMBER))
+            .on("getIssuerPublicKeyReference", publicKeyReference)
+            .on("checkCertificateAndGetPublicKey", cardPublicKey)
+            .stub(CardCertificateSpi.class);
+    Object cardCertificateParser =
+        CryptoStubs.answers()
+            .on("getCertificateType", CARD_CERTIFICATE_TYPE)
+            .on("parseCertificate", cardCertificate)
+            .stub(CardCertificateParser.class, CardCertificateParserSpi.class);
+    return calypsoCardApiFactory
+        .createAsymmetricCryptoSecuritySetting(cryptoFactory)
+        .addPcaCertificate((PcaCertificate) pcaCertificate)
+        .addCardCertificateParser((CardCertificateParser) cardCertificateParser);
+  }
+}
@@ -11,8 +11,25 @@
  ************************************************************************************** */
 package org.eclipse.keyple.card.calypso;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import org.eclipse.keyple.core.util.Assert;
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.transaction.AsymmetricCryptoSecuritySetting;
@@ -26,14 +43,22 @@
 import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.CertificateValidationException;
 import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.*;
 import org.eclipse.keypop.calypso.crypto.asymmetric.transaction.spi.AsymmetricCryptoCardTransactionManagerFactorySpi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Adapter of {@link AsymmetricCryptoSecuritySetting}.
  *
+ * <p>The certificate and parser stores are thread-safe and can be shared by concurrent
+ * transactions, reads are performed without locking.
+ *
  * @since 3.1.0
  */
 final class AsymmetricCryptoSecuritySettingAdapter implements AsymmetricCryptoSecuritySetting {
 
+  private static final Logger logger =
+      LoggerFactory.getLogger(AsymmetricCryptoSecuritySettingAdapter.class);
+
   private static final String MSG_THE_PROVIDED_PCA_CERTIFICATE_MUST_IMPLEMENT_PCA_CERTIFICATE_SPI =
       "The provided 'pcaCertificate' must implement 'PcaCertificateSpi'";
   private static final String MSG_THE_PROVIDED_CA_CERTIFICATE_MUST_IMPLEMENT_CA_CERTIFICATE_SPI =
@@ -57,9 +82,23 @@ final class AsymmetricCryptoSecuritySettingAdapter implements AsymmetricCryptoSe
 
   private final AsymmetricCryptoCardTransactionManagerFactorySpi
       cryptoCardTransactionManagerFactorySpi;
-  private final Map<String, CaCertificateContentSpi> caCertificates = new HashMap<>();
-  private final Map<Byte, CaCertificateParserSpi> caCertificateParsers = new HashMap<>();
-  private final Map<Byte, CardCertificateParserSpi> cardCertificateParsers = new HashMap<>();
+  private final ConcurrentMap<PublicKeyReference, CaCertificateContentSpi> caCertificates =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Byte, CaCertificateParserSpi> caCertificateParsers =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Byte, CardCertificateParserSpi> cardCertificateParsers =
+      new ConcurrentHashMap<>();
+  // Raw CA certificates read from the cards and verified, and imported but not yet verified
+  private final ConcurrentMap<PublicKeyReference, byte[]> cardCaCertificates =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<PublicKeyReference, byte[]> pendingCaCertificates =
+      new ConcurrentHashMap<>();
+  // References of the imported CA certificates being verified by the current thread, to detect
+  // cycles in their issuer chain (concurrent verifications of the same certificate are harmless)
+  private final ThreadLocal<Set<PublicKeyReference>> pendingCaCertificateVerifications =
+      ThreadLocal.withInitial(HashSet::new);
+  private volatile CardPublicKeyCache cardPublicKeyCache;
+  private volatile TerminalChallengePool terminalChallengePool;
 
   /**
    * Constructor.
@@ -107,13 +146,7 @@ public AsymmetricCryptoSecuritySetting addPcaCertificate(PcaCertificate pcaCerti
     }
 
     // Save the certificate content into the store
-    String pcaKeyRef = HexUtil.toHex(certificateContent.getPublicKeyReference());
-    if (caCertificates.containsKey(pcaKeyRef)) {
-      throw new IllegalStateException(
-          MSG_A_CERTIFICATE_IS_ALREADY_REGISTERED_FOR_THE_PROVIDED_PUBLIC_KEY_REFERENCE
-              + pcaKeyRef);
-    }
-    caCertificates.put(pcaKeyRef, certificateContent);
+    putCertificateContent(certificateContent);
     return this;
   }
 
@@ -130,18 +163,268 @@ public AsymmetricCryptoSecuritySetting addCaCertificate(CaCertificate caCertific
       throw new IllegalArgumentException(
           MSG_THE_PROVIDED_CA_CERTIFICATE_MUST_IMPLEMENT_CA_CERTIFICATE_SPI);
     }
-    CaCertificateSpi caCertificateSpi = (CaCertificateSpi) caCertificate;
 
-    // Get the issuer public key reference
-    String issuerKeyRef = HexUtil.toHex(caCertificateSpi.getIssuerPublicKeyReference());
+    // Save the certificate content into the store
+    putCertificateContent(checkCaCertificateAndGetContent((CaCertificateSpi) caCertificate));
+    return this;
+  }
+
+  /**
+   * Checks the provided CA certificate and registers its content if no certificate is already
+   * registered for the same public key reference.
+   *
+   * <p>Unlike {@link #addCaCertificate(CaCertificate)}, concurrent registrations of the same
+   * certificate are not considered as an error.
+   *
+   * <p>The raw certificate is kept to be included in the snapshots of the CA certificates.
+   *
+   * @param caCertificateSpi The CA certificate.
+   * @param caCertificateBytes The raw CA certificate read from the card.
+   * @throws IllegalStateException If the issuer certificate is not registered.
+   * @throws InvalidCertificateException If the certificate is invalid.
+   * @throws CryptoException If an error occurs during the check of the certificate.
+   * @since 3.1.7
+   */
+  void addCaCertificateIfAbsent(CaCertificateSpi caCertificateSpi, byte[] caCertificateBytes) {
+    CaCertificateContentSpi caCertificateContent =
+        checkCaCertificateAndGetContent(caCertificateSpi);
+    PublicKeyReference publicKeyReference =
+        new PublicKeyReference(caCertificateContent.getPublicKeyReference().clone());
+    caCertificates.putIfAbsent(publicKeyReference, caCertificateContent);
+    cardCaCertificates.putIfAbsent(publicKeyReference, caCertificateBytes.clone());
+  }
+
+  /**
+   * Checks and registers a set of CA certificates.
+   *
+   * <p>The certificates are processed in successive rounds: a round verifies in parallel, on the
+   * provided executor, all the remaining certificates whose issuer is either registered or verified
+   * during a previous round. The certificates can thus be provided in any order.
+   *
+   * <p>The certificates are registered only if all of them are valid and none of their public key
+   * references has been registered concurrently, otherwise none of them is.
+   *
+   * @param certificates The CA certificates.
+   * @param executor The executor performing the verifications.
+   * @return The failures indexed by certificate, empty if all the certificates have been
+   *     registered.
+   * @throws IllegalArgumentException If a certificate does not implement {@link CaCertificateSpi}.
+   * @since 3.1.7
+   */
+  Map<CaCertificate, RuntimeException> addCaCertificates(
+      Collection<? extends CaCertificate> certificates, Executor executor) {
+
+    for (CaCertificate caCertificate : certificates) {
+      if (!(caCertificate instanceof CaCertificateSpi)) {
+        throw new IllegalArgumentException(
+            MSG_THE_PROVIDED_CA_CERTIFICATE_MUST_IMPLEMENT_CA_CERTIFICATE_SPI);
+      }
+    }
+
+    Map<PublicKeyReference, CaCertificateContentSpi> verifiedContents = new LinkedHashMap<>();
+    Map<PublicKeyReference, CaCertificate> verifiedCertificates = new HashMap<>();
+    Map<CaCertificate, RuntimeException> failures = new LinkedHashMap<>();
+    List<CaCertificate> remaining = new ArrayList<>(certificates);
+    while (!remaining.isEmpty()) {
+
+      // Start the verification of the certificates whose issuer is known
+      List<CaCertificate> round = new ArrayList<>();
+      List<CompletableFuture<CaCertificateContentSpi>> verifications = new ArrayList<>();
+      Iterator<CaCertificate> iterator = remaining.iterator();
+      while (iterator.hasNext()) {
+        CaCertificate caCertificate = iterator.next();
+        CaCertificateSpi caCertificateSpi = (CaCertificateSpi) caCertificate;
+        byte[] issuerPublicKeyReference = caCertificateSpi.getIssuerPublicKeyReference();
+        CaCertificateContentSpi issuerCertificateContent =
+            verifiedContents.get(new PublicKeyReference(issuerPublicKeyReference));
+        if (issuerCertificateContent == null) {
+          issuerCertificateContent = getCaCertificate(issuerPublicKeyReference);
+        }
+        if (issuerCertificateContent != null) {
+          CaCertificateContentSpi issuer = issuerCertificateContent;
+          round.add(caCertificate);
+          verifications.add(
+              CompletableFuture.supplyAsync(
+                  () -> checkCaCertificateAndGetContent(caCertificateSpi, issuer), executor));
+          iterator.remove();
+        }
+      }
+      if (round.isEmpty()) {
+        break;
+      }
+
+      // Collect the results of the round
+      for (int i = 0; i < round.size(); i++) {
+        CaCertificateContentSpi caCertificateContent;
+        try {
+          caCertificateContent = verifications.get(i).join();
+        } catch (CompletionException e) {
+          if (!(e.getCause() instanceof RuntimeException)) {
+            throw e;
+          }
+          failures.put(round.get(i), (RuntimeException) e.getCause());
+          continue;
+        }
+        byte[] publicKeyReference = caCertificateContent.getPublicKeyReference();
+        PublicKeyReference key = new PublicKeyReference(publicKeyReference.clone());
+        if (caCertificates.containsKey(key) || verifiedContents.containsKey(key)) {
+          failures.put(
+              round.get(i),
+              new IllegalStateException(
+                  MSG_A_CERTIFICATE_IS_ALREADY_REGISTERED_FOR_THE_PROVIDED_PUBLIC_KEY_REFERENCE
+                      + HexUtil.toHex(publicKeyReference)));
+        } else {
+          verifiedContents.put(key, caCertificateContent);
+          verifiedCertificates.put(key, round.get(i));
+        }
+      }
+    }
+
+    // The certificates whose issuer is still unknown
+    for (CaCertificate caCertificate : remaining) {
+      byte[] issuerPublicKeyReference =
+          ((CaCertificateSpi) caCertificate).getIssuerPublicKeyReference();
+      failures.put(
+          caCertificate,
+          new IllegalStateException(
+              MSG_THE_ISSUER_CERTIFICATE_IS_NOT_REGISTERED
+                  + HexUtil.toHex(issuerPublicKeyReference)));
+    }
+
+    if (failures.isEmpty()) {
+      registerCaCertificates(verifiedContents, verifiedCertificates, failures);
+    }
+    return failures;
+  }
+
+  /**
+   * Registers the verified CA certificates, or none of them if a certificate has been registered in
+   * the meantime for one of their public key references.
+   *
+   * <p>The certificates already registered by this call are then removed. They may have been used
+   * by a concurrent transaction in the meantime.
+   *
+   * @param verifiedContents The contents of the verified certificates.
+   * @param verifiedCertificates The verified certificates.
+   * @param failures The failures, completed with the rejected certificates.
+   */
+  private void registerCaCertificates(
+      Map<PublicKeyReference, CaCertificateContentSpi> verifiedContents,
+      Map<PublicKeyReference, CaCertificate> verifiedCertificates,
+      Map<CaCertificate, RuntimeException> failures) {
+    List<PublicKeyReference> registeredKeys = new ArrayList<>(verifiedContents.size());
+    for (Map.Entry<PublicKeyReference, CaCertificateContentSpi> entry :
+        verifiedContents.entrySet()) {
+      if (caCertificates.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+        registeredKeys.add(entry.getKey());
+      } else {
+        failures.put(
+            verifiedCertificates.get(entry.getKey()),
+            new IllegalStateException(
+                MSG_A_CERTIFICATE_IS_ALREADY_REGISTERED_FOR_THE_PROVIDED_PUBLIC_KEY_REFERENCE
+                    + HexUtil.toHex(entry.getValue().getPublicKeyReference())));
+      }
+    }
+    if (!failures.isEmpty()) {
+      for (PublicKeyReference key : registeredKeys) {
+        caCertificates.remove(key, verifiedContents.get(key));
+      }
+    }
+  }
+
+  /**
+   * Writes a snapshot of the CA certificates read from the cards, including the imported ones not
+   * yet used.
+   *
+   * <p>The snapshot is limited to the certificates kept in their raw card format. The PCA and CA
+   * certificates registered with {@link #addPcaCertificate(PcaCertificate)}, {@link
+   * #addCaCertificate(CaCertificate)} or {@link #addCaCertificates(Collection, Executor)} are not
+   * part of it, since only their verified content is kept.
+   *
+   * @param outputStream The destination stream, not closed by this method.
+   * @throws IOException If an I/O error occurs.
+   * @since 3.1.7
+   */
+  void exportCaCertificates(OutputStream outputStream) throws IOException {
+    List<Map.Entry<byte[], byte[]>> certificates = new ArrayList<>();
+    addSnapshotEntries(cardCaCertificates, null, certificates);
+    addSnapshotEntries(pendingCaCertificates, cardCaCertificates, certificates);
+    CaCertificateSnapshot.write(certificates, outputStream);
+  }
+
+  /**
+   * Adds the entries of the provided raw certificate store to a snapshot.
+   *
+   * @param store The raw certificate store.
+   * @param excludedStore The store whose entries are already in the snapshot, or null.
+   * @param certificates The snapshot entries.
+   */
+  private static void addSnapshotEntries(
+      Map<PublicKeyReference, byte[]> store,
+      Map<PublicKeyReference, byte[]> excludedStore,
+      List<Map.Entry<byte[], byte[]>> certificates) {
+    for (Map.Entry<PublicKeyReference, byte[]> entry : store.entrySet()) {
+      if (excludedStore == null || !excludedStore.containsKey(entry.getKey())) {
+        certificates.add(
+            new AbstractMap.SimpleImmutableEntry<>(entry.getKey().value, entry.getValue()));
+      }
+    }
+  }
+
+  /**
+   * Imports a snapshot of CA certificates.
+   *
+   * <p>The imported certificates are not verified at this stage. Each of them is parsed and
+   * verified against its issuer the first time its public key reference is looked up.
+   *
+   * @param snapshot The snapshot, from its position to its limit.
+   * @throws IllegalArgumentException If the snapshot is malformed or corrupted.
+   * @since 3.1.7
+   */
+  void importCaCertificates(ByteBuffer snapshot) {
+    CaCertificateSnapshot.read(
+        snapshot,
+        (publicKeyReference, caCertificateBytes) -> {
+          PublicKeyReference key = new PublicKeyReference(publicKeyReference);
+          if (!caCertificates.containsKey(key)) {
+            pendingCaCertificates.put(key, caCertificateBytes);
+          }
+        });
+  }
+
+  /**
+   * Checks the provided CA certificate using the content of its issuer certificate.
+   *
+   * @param caCertificateSpi The CA certificate.
+   * @return A non-null reference.
+   * @throws IllegalStateException If the issuer certificate is not registered.
+   * @throws InvalidCertificateException If the certificate is invalid.
+   * @throws CryptoException If an error occurs during the check of the certificate.
+   */
+  private CaCertificateContentSpi checkCaCertificateAndGetContent(
+      CaCertificateSpi caCertificateSpi) {
 
     // Search the issuer certificate
-    CaCertificateContentSpi issuerCertificateContent = caCertificates.get(issuerKeyRef);
+    byte[] issuerPublicKeyReference = caCertificateSpi.getIssuerPublicKeyReference();
+    CaCertificateContentSpi issuerCertificateContent = getCaCertificate(issuerPublicKeyReference);
     if (issuerCertificateContent == null) {
-      throw new IllegalStateException(MSG_THE_ISSUER_CERTIFICATE_IS_NOT_REGISTERED + issuerKeyRef);
+      throw new IllegalStateException(
+          MSG_THE_ISSUER_CERTIFICATE_IS_NOT_REGISTERED + HexUtil.toHex(issuerPublicKeyReference));
     }
+    return checkCaCertificateAndGetContent(caCertificateSpi, issuerCertificateContent);
+  }
 
-    // Check the CA certificate using the issuer's certificate content
+  /**
+   * Checks the provided CA certificate using the provided issuer certificate content.
+   *
+   * @param caCertificateSpi The CA certificate.
+   * @param issuerCertificateContent The issuer certificate content.
+   * @return A non-null reference.
+   * @throws InvalidCertificateException If the certificate is invalid.
+   * @throws CryptoException If an error occurs during the check of the certificate.
+   */
+  private static CaCertificateContentSpi checkCaCertificateAndGetContent(
+      CaCertificateSpi caCertificateSpi, CaCertificateContentSpi issuerCertificateContent) {
     CaCertificateContentSpi caCertificateContent;
     try {
       caCertificateContent =
@@ -153,14 +436,25 @@ public AsymmetricCryptoSecuritySetting addCaCertificate(CaCertificate caCertific
           MSG_AN_ERROR_OCCURS_DURING_THE_CHECK_OF_THE_CERTIFICATE + e.getMessage(), e);
     }
 
-    // Save the certificate content into the store
-    String caKeyRef = HexUtil.toHex(caCertificateContent.getPublicKeyReference());
-    if (caCertificates.containsKey(caKeyRef)) {
+    return caCertificateContent;
+  }
+
+  /**
+   * Registers the provided certificate content.
+   *
+   * @param certificateContent The certificate content.
+   * @throws IllegalStateException If a certificate is already registered for the same public key
+   *     reference.
+   */
+  private void putCertificateContent(CaCertificateContentSpi certificateContent) {
+    byte[] publicKeyReference = certificateContent.getPublicKeyReference();
+    if (caCertificates.putIfAbsent(
+            new PublicKeyReference(publicKeyReference.clone()), certificateContent)
+        != null) {
       throw new IllegalStateException(
-          MSG_A_CERTIFICATE_IS_ALREADY_REGISTERED_FOR_THE_PROVIDED_PUBLIC_KEY_REFERENCE + caKeyRef);
+          MSG_A_CERTIFICATE_IS_ALREADY_REGISTERED_FOR_THE_PROVIDED_PUBLIC_KEY_REFERENCE
+              + HexUtil.toHex(publicKeyReference));
     }
-    caCertificates.put(caKeyRef, caCertificateContent);
-    return this;
   }
 
   /**
@@ -181,12 +475,11 @@ public AsymmetricCryptoSecuritySetting addCaCertificateParser(
     // Save the parser into the store
     CaCertificateParserSpi caCertificateParserSpi = (CaCertificateParserSpi) caCertificateParser;
     byte certificateType = caCertificateParserSpi.getCertificateType();
-    if (caCertificateParsers.containsKey(certificateType)) {
+    if (caCertificateParsers.putIfAbsent(certificateType, caCertificateParserSpi) != null) {
       throw new IllegalStateException(
           MSG_A_PARSER_IS_ALREADY_REGISTERED_FOR_THE_CERTIFICATE_TYPE
               + HexUtil.toHex(certificateType));
     }
-    this.caCertificateParsers.put(certificateType, caCertificateParserSpi);
     return this;
   }
 
@@ -209,15 +502,50 @@ public AsymmetricCryptoSecuritySetting addCardCertificateParser(
     CardCertificateParserSpi cardCertificateParserSpi =
         (CardCertificateParserSpi) cardCertificateParser;
     byte certificateType = cardCertificateParserSpi.getCertificateType();
-    if (cardCertificateParsers.containsKey(certificateType)) {
+    if (cardCertificateParsers.putIfAbsent(certificateType, cardCertificateParserSpi) != null) {
       throw new IllegalStateException(
           MSG_A_PARSER_IS_ALREADY_REGISTERED_FOR_THE_CERTIFICATE_TYPE
               + HexUtil.toHex(certificateType));
     }
-    this.cardCertificateParsers.put(certificateType, cardCertificateParserSpi);
     return this;
   }
 
+  /**
+   * Sets the cache of the card public keys extracted from verified card certificates.
+   *
+   * @param cardPublicKeyCache The cache or "null" to disable it.
+   * @since 3.1.7
+   */
+  void setCardPublicKeyCache(CardPublicKeyCache cardPublicKeyCache) {
+    this.cardPublicKeyCache = cardPublicKeyCache;
+  }
+
+  /**
+   * @return The cache of the card public keys or "null" if not enabled.
+   * @since 3.1.7
+   */
+  CardPublicKeyCache getCardPublicKeyCache() {
+    return cardPublicKeyCache;
+  }
+
+  /**
+   * Sets the pool of terminal challenges used to open the secure sessions.
+   *
+   * @param terminalChallengePool The pool or "null" to disable it.
+   * @since 3.1.7
+   */
+  void setTerminalChallengePool(TerminalChallengePool terminalChallengePool) {
+    this.terminalChallengePool = terminalChallengePool;
+  }
+
+  /**
+   * @return The pool of terminal challenges or "null" if not enabled.
+   * @since 3.1.7
+   */
+  TerminalChallengePool getTerminalChallengePool() {
+    return terminalChallengePool;
+  }
+
   /**
    * Retrieves the CA certificate from the provided public key reference.
    *
@@ -226,7 +554,78 @@ public AsymmetricCryptoSecuritySetting addCardCertificateParser(
    * @since 3.1.0
    */
   CaCertificateContentSpi getCaCertificate(byte[] publicKeyReference) {
-    return caCertificates.get(HexUtil.toHex(publicKeyReference));
+    PublicKeyReference key = new PublicKeyReference(publicKeyReference);
+    CaCertificateContentSpi caCertificateContent = caCertificates.get(key);
+    if (caCertificateContent == null && !pendingCaCertificates.isEmpty()) {
+      byte[] caCertificateBytes = pendingCaCertificates.get(key);
+      if (caCertificateBytes != null) {
+        try {
+          caCertificateContent = verifyPendingCaCertificate(key, caCertificateBytes);
+        } finally {
+          // Removed only once the verified certificate is published, so that a concurrent lookup
+          // finds it either pending or registered (it may then be verified twice, harmlessly).
+          pendingCaCertificates.remove(key, caCertificateBytes);
+        }
+      }
+    }
+    return caCertificateContent;
+  }
+
+  /**
+   * Parses and verifies an imported CA certificate, and registers it if valid.
+   *
+   * <p>The issuer of the certificate is looked up first, which may verify it in turn if it is also
+   * an imported one.
+   *
+   * @param key The public key reference expected for the certificate.
+   * @param caCertificateBytes The raw CA certificate.
+   * @return Null if the certificate could not be verified.
+   * @throws IllegalStateException If the certificate is part of a cycle of imported certificates
+   *     issuing each other.
+   */
+  private CaCertificateContentSpi verifyPendingCaCertificate(
+      PublicKeyReference key, byte[] caCertificateBytes) {
+    CaCertificateSpi caCertificateSpi;
+    try {
+      CaCertificateParserSpi caCertificateParser =
+          caCertificateParsers.get(caCertificateBytes[0]);
+      if (caCertificateParser == null) {
+        throw new IllegalStateException(
+            "No certificate parser registered for type " + HexUtil.toHex(caCertificateBytes[0]));
+      }
+      caCertificateSpi = caCertificateParser.parseCertificate(caCertificateBytes);
+    } catch (RuntimeException | CertificateValidationException e) {
+      logImportedCaCertificateIgnored(key, e);
+      return null; // NOSONAR
+    }
+    Set<PublicKeyReference> verifications = pendingCaCertificateVerifications.get();
+    if (!verifications.add(key)) {
+      throw new IllegalStateException(
+          "Cycle in the issuer chain of the imported CA certificate " + HexUtil.toHex(key.value));
+    }
+    try {
+      // Resolved out of the error handling below so that a cycle is reported to the caller
+      getCaCertificate(caCertificateSpi.getIssuerPublicKeyReference());
+      try {
+        addCaCertificateIfAbsent(caCertificateSpi, caCertificateBytes);
+      } catch (RuntimeException e) {
+        logImportedCaCertificateIgnored(key, e);
+        return null; // NOSONAR
+      }
+    } finally {
+      verifications.remove(key);
+    }
+    return caCertificates.get(key);
+  }
+
+  /**
+   * Logs that an imported CA certificate could not be verified.
+   *
+   * @param key The public key reference of the certificate.
+   * @param e The cause.
+   */
+  private static void logImportedCaCertificateIgnored(PublicKeyReference key, Exception e) {
+    logger.warn("Imported CA certificate {} ignored: {}", HexUtil.toHex(key.value), e.getMessage());
   }
 
   /**
@@ -250,4 +649,32 @@ CaCertificateParserSpi getCaCertificateParser(byte certificateType) {
   CardCertificateParserSpi getCardCertificateParser(byte certificateType) {
     return cardCertificateParsers.get(certificateType);
   }
+
+  /** Key of the certificate store, compared by content. */
+  private static final class PublicKeyReference {
+
+    private final byte[] value;
+    private final int hashCode;
+
+    private PublicKeyReference(byte[] value) {
+      this.value = value;
+      this.hashCode = Arrays.hashCode(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PublicKeyReference)) {
+        return false;
+      }
+      return Arrays.equals(value, ((PublicKeyReference) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
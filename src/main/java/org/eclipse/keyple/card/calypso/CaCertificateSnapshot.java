@@ -0,0 +1,147 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Binary codec of the snapshots of the CA certificates read from the cards.
+ *
+ * <p>A snapshot contains, for each CA certificate, its public key reference and its raw content.
+ * Its layout is:
+ *
+ * <ul>
+ *   <li>magic number (4 bytes) and format version (1 byte),
+ *   <li>number of certificates (4 bytes),
+ *   <li>for each certificate: length (1 byte) and value of the public key reference, length (2
+ *       bytes) and value of the raw certificate,
+ *   <li>SHA-256 digest of all the previous bytes (32 bytes).
+ * </ul>
+ *
+ * <p>The digest only protects against the corruption of the snapshot. The certificates are always
+ * verified against their issuer before being used.
+ *
+ * @since 3.1.7
+ */
+final class CaCertificateSnapshot {
+
+  private static final int MAGIC = 0x43414353; // "CACS"
+  private static final byte VERSION = 1;
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final int DIGEST_LENGTH = 32;
+  private static final String MSG_INVALID_SNAPSHOT = "Invalid CA certificate snapshot: ";
+
+  private CaCertificateSnapshot() {}
+
+  /**
+   * Writes a snapshot of the provided certificates.
+   *
+   * @param certificates The pairs of public key reference and raw certificate.
+   * @param outputStream The destination stream, not closed by this method.
+   * @throws IOException If an I/O error occurs.
+   * @since 3.1.7
+   */
+  static void write(Collection<Map.Entry<byte[], byte[]>> certificates, OutputStream outputStream)
+      throws IOException {
+    MessageDigest digest = newDigest();
+    DataOutputStream out = new DataOutputStream(new DigestOutputStream(outputStream, digest));
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeInt(certificates.size());
+    for (Map.Entry<byte[], byte[]> entry : certificates) {
+      out.writeByte(entry.getKey().length);
+      out.write(entry.getKey());
+      out.writeShort(entry.getValue().length);
+      out.write(entry.getValue());
+    }
+    out.flush();
+    outputStream.write(digest.digest());
+    outputStream.flush();
+  }
+
+  /**
+   * Reads a snapshot and provides each certificate to the provided consumer, once the integrity of
+   * the whole snapshot has been checked.
+   *
+   * @param snapshot The snapshot, from its position to its limit.
+   * @param consumer The consumer of the public key references and raw certificates.
+   * @throws IllegalArgumentException If the snapshot is malformed or corrupted.
+   * @since 3.1.7
+   */
+  static void read(ByteBuffer snapshot, BiConsumer<byte[], byte[]> consumer) {
+    ByteBuffer buffer = snapshot.duplicate();
+    if (buffer.remaining() < 9 + DIGEST_LENGTH) {
+      throw new IllegalArgumentException(MSG_INVALID_SNAPSHOT + "too short");
+    }
+
+    // Check the digest before parsing anything
+    ByteBuffer content = buffer.duplicate();
+    // Buffer methods are called through Buffer to run on Java 8 when compiled with a later JDK
+    ((Buffer) content).limit(buffer.limit() - DIGEST_LENGTH);
+    MessageDigest digest = newDigest();
+    digest.update(content);
+    byte[] expectedDigest = new byte[DIGEST_LENGTH];
+    ((Buffer) content).limit(buffer.limit());
+    content.get(expectedDigest);
+    if (!MessageDigest.isEqual(digest.digest(), expectedDigest)) {
+      throw new IllegalArgumentException(MSG_INVALID_SNAPSHOT + "digest mismatch");
+    }
+
+    ((Buffer) buffer).limit(buffer.limit() - DIGEST_LENGTH);
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException(MSG_INVALID_SNAPSHOT + "bad magic number");
+    }
+    byte version = buffer.get();
+    if (version != VERSION) {
+      throw new IllegalArgumentException(MSG_INVALID_SNAPSHOT + "unsupported version " + version);
+    }
+    try {
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+        byte[] publicKeyReference = new byte[buffer.get() & 0xFF];
+        buffer.get(publicKeyReference);
+        byte[] certificate = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(certificate);
+        consumer.accept(publicKeyReference, certificate);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(MSG_INVALID_SNAPSHOT + "truncated", e);
+    }
+    if (buffer.hasRemaining()) {
+      throw new IllegalArgumentException(
+          MSG_INVALID_SNAPSHOT + buffer.remaining() + " unexpected trailing bytes");
+    }
+  }
+
+  /**
+   * @return A new SHA-256 message digest.
+   */
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      // Not expected, SHA-256 is required on every Java platform
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+}
@@ -13,12 +13,13 @@
 
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.eclipse.keyple.core.util.HexUtil;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keypop.calypso.card.WriteAccessLevel;
 import org.eclipse.keypop.calypso.card.card.*;
 import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CardPublicKeySpi;
@@ -33,7 +34,7 @@
  *
  * @since 2.0.0
  */
-final class CalypsoCardAdapter implements CalypsoCard, SmartCardSpi {
+final class CalypsoCardAdapter implements CalypsoCard, SmartCardSpi, JsonRenderer.Renderable {
 
   private static final Logger logger = LoggerFactory.getLogger(CalypsoCardAdapter.class);
 
@@ -48,6 +49,8 @@ final class CalypsoCardAdapter implements CalypsoCard, SmartCardSpi {
   private static final int SI_SOFTWARE_VERSION = 5;
   private static final int SI_SOFTWARE_REVISION = 6;
   private static final int DEFAULT_PAYLOAD_CAPACITY = 250;
+  private static final int SFI_INDEX_SIZE = 31; // SFI 01h to 1Eh
+  private static final int DETACHED_CURRENT_EF = -2;
 
   // Application type bitmasks features
   private static final byte APP_TYPE_WITH_CALYPSO_PIN = 0x01;
@@ -82,9 +85,18 @@ final class CalypsoCardAdapter implements CalypsoCard, SmartCardSpi {
   private boolean isModificationCounterInBytes = true;
   private DirectoryHeader directoryHeader;
   private final Set<ElementaryFile> files = Collections.newSetFromMap(new ConcurrentHashMap<>());
-  private final Set<ElementaryFile> filesBackup =
-      Collections.newSetFromMap(new ConcurrentHashMap<>());
+  // Always empty, kept so that the JSON form of the card image remains readable by older versions
+  private final Set<ElementaryFile> filesBackup = Collections.emptySet();
   private ElementaryFileAdapter currentEf;
+  // Lookup indexes of "files", not serialized and rebuilt on demand
+  private transient ElementaryFileAdapter[] filesBySfi; // NOSONAR
+  private transient Map<Short, ElementaryFileAdapter> filesByLid; // NOSONAR
+  // Undo journal since the last backup, not serialized: files modified with their header before
+  // the first modification (null if absent), and files created
+  private transient Map<ElementaryFileAdapter, FileHeaderAdapter> modifiedFiles; // NOSONAR
+  private transient Set<ElementaryFileAdapter> createdFiles; // NOSONAR
+  // SFIs of the files updated since the last call to pollUpdatedSfis(), bit n standing for SFI n
+  private transient long updatedSfis; // NOSONAR
   private Boolean isDfRatified;
   private Integer transactionCounter;
   private Integer pinAttemptCounter;
@@ -139,6 +151,9 @@ final class CalypsoCardAdapter implements CalypsoCard, SmartCardSpi {
     patchesRev12.add(new PatchRev12("03080304000200", "FFFFFFFFFFFFFF").setLegacyCase1());
   }
 
+  /** Constructor used to decode a card image. */
+  private CalypsoCardAdapter() {}
+
   /**
    * Constructor.
    *
@@ -819,13 +834,11 @@ public ElementaryFile getFileBySfi(byte sfi) {
     if (sfi == 0) {
       return null;
     }
-    for (ElementaryFile ef : files) {
-      if (ef.getSfi() == sfi) {
-        return ef;
-      }
+    ElementaryFile ef = findFileBySfi(sfi);
+    if (ef == null) {
+      logger.warn("EF not found (sfi {}h)", HexUtil.toHex(sfi));
     }
-    logger.warn("EF not found (sfi {}h)", HexUtil.toHex(sfi));
-    return null;
+    return ef;
   }
 
   /**
@@ -835,13 +848,11 @@ public ElementaryFile getFileBySfi(byte sfi) {
    */
   @Override
   public ElementaryFile getFileByLid(short lid) {
-    for (ElementaryFile ef : files) {
-      if (ef.getHeader() != null && ef.getHeader().getLid() == lid) {
-        return ef;
-      }
+    ElementaryFile ef = getFilesByLid().get(lid);
+    if (ef == null) {
+      logger.warn("EF not found (lid {}h)", HexUtil.toHex(lid));
     }
-    logger.warn("EF not found (lid {}h)", HexUtil.toHex(lid));
-    return null;
+    return ef;
   }
 
   /**
@@ -858,39 +869,142 @@ public Set<ElementaryFile> getFiles() {
    * Returns a reference to the currently selected EF.<br>
    * If the file having the provided non-zero SFI or LID does not exist, then a new EF is created.
    * <br>
-   * If the SFI and LID are both equal to 0, then the previously selected EF is returned.
+   * If the SFI and LID are both equal to 0, then the previously selected EF is returned.<br>
+   * The returned EF is about to be modified, it is therefore recorded in the undo journal if a
+   * backup is active.
    *
    * @param sfi The SFI (0 if not specified in the current command).
    * @param lid The LID (0 if not specified in the current command).
    * @return a not null reference.
    */
   private ElementaryFileAdapter getOrCreateFile(byte sfi, short lid) {
-    if (sfi == 0 && lid == 0 && currentEf != null) {
-      return currentEf;
-    }
+    ElementaryFileAdapter ef;
     if (sfi != 0) {
-      // Search by SFI
-      for (ElementaryFile ef : files) {
-        if (ef.getSfi() == sfi) {
-          currentEf = (ElementaryFileAdapter) ef;
-          return currentEf;
-        }
-      }
+      ef = findFileBySfi(sfi);
     } else if (lid != 0) {
-      // Search by LID
-      for (ElementaryFile ef : files) {
-        if (ef.getHeader() != null && ef.getHeader().getLid() == lid) {
-          currentEf = (ElementaryFileAdapter) ef;
-          return currentEf;
+      ef = getFilesByLid().get(lid);
+    } else {
+      ef = currentEf;
+    }
+    if (ef == null) {
+      // Create a new EF with the provided SFI
+      ef = new ElementaryFileAdapter(sfi);
+      if (files.add(ef)) {
+        indexFile(ef);
+        if (createdFiles != null) {
+          createdFiles.add(ef);
         }
       }
+    } else {
+      journalFile(ef);
     }
-    // Create a new EF with the provided SFI
-    currentEf = new ElementaryFileAdapter(sfi);
-    files.add(currentEf);
+    updatedSfis |= 1L << ef.getSfi();
+    currentEf = ef;
     return currentEf;
   }
 
+  /**
+   * Returns the SFIs of the files updated since the previous call, and forgets them.
+   *
+   * @return A bit mask in which bit n is set if the file having the SFI n has been updated.
+   * @since 3.1.7
+   */
+  long pollUpdatedSfis() {
+    long sfis = updatedSfis;
+    updatedSfis = 0;
+    return sfis;
+  }
+
+  /**
+   * Saves the header of the provided EF and starts the journal of its records if a backup is
+   * active and if the EF has not been journaled yet.
+   *
+   * @param ef The EF about to be modified.
+   */
+  private void journalFile(ElementaryFileAdapter ef) {
+    if (modifiedFiles == null || modifiedFiles.containsKey(ef) || createdFiles.contains(ef)) {
+      return;
+    }
+    if (ef != findFileBySfi(ef.getSfi())) {
+      return; // Not part of the card image
+    }
+    modifiedFiles.put(ef, ef.getHeader() != null ? new FileHeaderAdapter(ef.getHeader()) : null);
+    ef.getData().startJournal();
+  }
+
+  /**
+   * Searches the EF having the provided SFI in the files of the card image.
+   *
+   * @param sfi The SFI.
+   * @return Null if the EF is not found.
+   */
+  private ElementaryFileAdapter findFileBySfi(byte sfi) {
+    if (sfi > 0 && sfi < SFI_INDEX_SIZE) {
+      return getFilesBySfi()[sfi];
+    }
+    for (ElementaryFile ef : files) {
+      if (ef.getSfi() == sfi) {
+        return (ElementaryFileAdapter) ef;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the SFI index of the files, rebuilding it if needed (e.g. after a JSON
+   * deserialization).
+   *
+   * @return A not null array.
+   */
+  private ElementaryFileAdapter[] getFilesBySfi() {
+    if (filesBySfi == null) {
+      indexFiles();
+    }
+    return filesBySfi;
+  }
+
+  /**
+   * Returns the LID index of the files, rebuilding it if needed (e.g. after a JSON
+   * deserialization).
+   *
+   * @return A not null map.
+   */
+  private Map<Short, ElementaryFileAdapter> getFilesByLid() {
+    if (filesByLid == null) {
+      indexFiles();
+    }
+    return filesByLid;
+  }
+
+  /** (Re)builds the SFI and LID indexes from the current files of the card image. */
+  private void indexFiles() {
+    filesBySfi = new ElementaryFileAdapter[SFI_INDEX_SIZE];
+    filesByLid = new HashMap<>();
+    for (ElementaryFile ef : files) {
+      indexFile((ElementaryFileAdapter) ef);
+    }
+  }
+
+  /**
+   * Adds the provided EF to the SFI and LID indexes.
+   *
+   * @param ef The EF, which must belong to the files of the card image.
+   */
+  private void indexFile(ElementaryFileAdapter ef) {
+    if (filesBySfi == null) {
+      // The full rebuild includes the provided EF
+      indexFiles();
+      return;
+    }
+    byte sfi = ef.getSfi();
+    if (sfi > 0 && sfi < SFI_INDEX_SIZE) {
+      filesBySfi[sfi] = ef;
+    }
+    if (ef.getHeader() != null) {
+      filesByLid.putIfAbsent(ef.getHeader().getLid(), ef);
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -938,6 +1052,9 @@ void setFileHeader(byte sfi, FileHeaderAdapter header) {
     ElementaryFileAdapter ef = getOrCreateFile(sfi, header.getLid());
     if (ef.getHeader() == null) {
       ef.setHeader(header);
+      if (ef == findFileBySfi(ef.getSfi())) {
+        indexFile(ef);
+      }
     } else {
       ef.getHeader().updateMissingInfoFrom(header);
     }
@@ -958,6 +1075,21 @@ void setContent(byte sfi, int numRecord, byte[] content) {
     ef.getData().setContent(numRecord, content);
   }
 
+  /**
+   * Set or replace the entire content of the specified record #numRecord of the current selected
+   * file by a read-only view of the provided buffer, without copying it.<br>
+   * If EF does not exist, then it is created.
+   *
+   * @param sfi the SFI.
+   * @param numRecord the record number (should be {@code >=} 1).
+   * @param content the content, from its position to its limit (should be not empty).
+   * @since 3.1.7
+   */
+  void setContentView(byte sfi, int numRecord, ByteBuffer content) {
+    ElementaryFileAdapter ef = getOrCreateFile(sfi, (short) 0);
+    ef.getData().setContentView(numRecord, content);
+  }
+
   /**
    * Sets a counter value in record #1 of the current selected file.<br>
    * If EF does not exist, then it is created.
@@ -1030,37 +1162,55 @@ void addCyclicContent(byte sfi, byte[] content) {
    * @since 2.0.0
    */
   void backupFiles() {
-    copyFiles(files, filesBackup);
+    discardFilesBackup();
+    modifiedFiles = new IdentityHashMap<>();
+    createdFiles = Collections.newSetFromMap(new IdentityHashMap<>());
     svBalanceBackup = svBalance;
     svLastTNumBackup = svLastTNum;
   }
 
+  /**
+   * Discards the backup of the Elementary Files, keeping their current content.<br>
+   * This method should be used when the card secure session has been successfully closed, so that
+   * the following modifications are no longer journaled.
+   *
+   * @since 3.1.7
+   */
+  void discardFilesBackup() {
+    if (modifiedFiles != null) {
+      for (ElementaryFileAdapter ef : modifiedFiles.keySet()) {
+        ef.getData().discardJournal();
+      }
+      modifiedFiles = null;
+      createdFiles = null;
+    }
+  }
+
   /**
    * Restore the last backup of Elementary Files.<br>
    * This method should be used when SW of the card close secure session command is unsuccessful or
    * if secure session is aborted.
    *
+   * <p>Only the files modified or created since the backup are affected. The backup remains
+   * active, so the method may be called again.
+   *
    * @since 2.0.0
    */
   void restoreFiles() {
-    copyFiles(filesBackup, files);
+    if (modifiedFiles != null) {
+      for (Map.Entry<ElementaryFileAdapter, FileHeaderAdapter> entry : modifiedFiles.entrySet()) {
+        entry.getKey().setHeader(entry.getValue());
+        entry.getKey().getData().rollbackJournal();
+      }
+      files.removeAll(createdFiles);
+      modifiedFiles.clear();
+      createdFiles.clear();
+      indexFiles();
+    }
     svBalance = svBalanceBackup;
     svLastTNum = svLastTNumBackup;
   }
 
-  /**
-   * Copy a set of ElementaryFile to another one by cloning each element.
-   *
-   * @param src the source (should be not null).
-   * @param dest the destination (should be not null).
-   */
-  private static void copyFiles(Set<ElementaryFile> src, Set<ElementaryFile> dest) {
-    dest.clear();
-    for (ElementaryFile file : src) {
-      dest.add(new ElementaryFileAdapter(file));
-    }
-  }
-
   /**
    * {@inheritDoc}
    *
@@ -1306,7 +1456,251 @@ CalypsoCardAdapter setPreOpenDataOut(byte[] preOpenDataOut) {
    */
   @Override
   public String toString() {
-    return JsonUtil.toJson(this);
+    return JsonRenderer.render(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public void writeJson(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    if (selectApplicationResponse != null) {
+      writer.name("selectApplicationResponse").beginObject();
+      JsonRenderer.writeHex(writer, "apdu", selectApplicationResponse.getApdu());
+      writer.name("statusWord").value(HexUtil.toHex(selectApplicationResponse.getStatusWord()));
+      writer.endObject();
+    }
+    if (powerOnData != null) {
+      writer.name("powerOnData").value(powerOnData);
+    }
+    writer.name("isExtendedModeSupported").value(isExtendedModeSupported);
+    writer.name("isRatificationOnDeselectSupported").value(isRatificationOnDeselectSupported);
+    writer.name("isSvFeatureAvailable").value(isSvFeatureAvailable);
+    writer.name("isPinFeatureAvailable").value(isPinFeatureAvailable);
+    writer.name("isPkiModeSupported").value(isPkiModeSupported);
+    writer.name("isDfInvalidated").value(isDfInvalidated);
+    if (calypsoCardClass != null) {
+      writer.name("calypsoCardClass").value(calypsoCardClass.name());
+    }
+    JsonRenderer.writeHex(writer, "calypsoSerialNumber", calypsoSerialNumber);
+    JsonRenderer.writeHex(writer, "startupInfo", startupInfo);
+    writer.name("productType").value(productType.name());
+    JsonRenderer.writeHex(writer, "dfName", dfName);
+    writer.name("modificationsCounterMax").value(modificationsCounterMax);
+    writer.name("isModificationCounterInBytes").value(isModificationCounterInBytes);
+    if (directoryHeader != null) {
+      JsonRenderer.writeObject(writer, "directoryHeader", (DirectoryHeaderAdapter) directoryHeader);
+    }
+    writer.name("files").beginArray();
+    for (ElementaryFile ef : files) {
+      ((ElementaryFileAdapter) ef).writeJson(writer);
+    }
+    writer.endArray();
+    JsonRenderer.writeObject(writer, "currentEf", currentEf);
+    if (isDfRatified != null) {
+      writer.name("isDfRatified").value(isDfRatified);
+    }
+    if (transactionCounter != null) {
+      writer.name("transactionCounter").value(transactionCounter);
+    }
+    if (pinAttemptCounter != null) {
+      writer.name("pinAttemptCounter").value(pinAttemptCounter);
+    }
+    if (svBalance != null) {
+      writer.name("svBalance").value(svBalance);
+    }
+    writer.name("svLastTNum").value(svLastTNum);
+    if (svBalanceBackup != null) {
+      writer.name("svBalanceBackup").value(svBalanceBackup);
+    }
+    writer.name("svLastTNumBackup").value(svLastTNumBackup);
+    writer.name("isHce").value(isHce);
+    JsonRenderer.writeHex(writer, "challenge", challenge);
+    JsonRenderer.writeHex(writer, "traceabilityInformation", traceabilityInformation);
+    JsonRenderer.writeHex(writer, "cardPublicKey", cardPublicKey);
+    JsonRenderer.writeHex(
+        writer, "cardCertificate", cardCertificate != null ? cardCertificate.array() : null);
+    JsonRenderer.writeHex(
+        writer, "caCertificate", caCertificate != null ? caCertificate.array() : null);
+    JsonRenderer.writeHex(writer, "svKvc", svKvc);
+    JsonRenderer.writeHex(writer, "svGetHeader", svGetHeader);
+    JsonRenderer.writeHex(writer, "svGetData", svGetData);
+    JsonRenderer.writeHex(writer, "svOperationSignature", svOperationSignature);
+    JsonRenderer.writeHex(writer, "applicationSubType", applicationSubType);
+    JsonRenderer.writeHex(writer, "applicationType", applicationType);
+    JsonRenderer.writeHex(writer, "sessionModification", sessionModification);
+    writer.name("payloadCapacity").value(payloadCapacity);
+    writer.name("isCounterValuePostponed").value(isCounterValuePostponed);
+    writer.name("isLegacyCase1").value(isLegacyCase1);
+    if (preOpenWriteAccessLevel != null) {
+      writer.name("preOpenWriteAccessLevel").value(preOpenWriteAccessLevel.name());
+    }
+    JsonRenderer.writeHex(writer, "preOpenDataOut", preOpenDataOut);
+    writer.endObject();
+  }
+
+  /**
+   * Writes the card image in the binary format of {@link CardImageCodec}, in the same field order
+   * as its JSON representation.
+   *
+   * @param out The destination.
+   * @since 3.1.7
+   */
+  void writeBinary(CardImageCodec.Output out) {
+    out.putBytes(selectApplicationResponse != null ? selectApplicationResponse.getApdu() : null);
+    out.putString(powerOnData);
+    int flags = 0;
+    boolean[] flagValues = {
+      isExtendedModeSupported,
+      isRatificationOnDeselectSupported,
+      isSvFeatureAvailable,
+      isPinFeatureAvailable,
+      isPkiModeSupported,
+      isDfInvalidated,
+      isModificationCounterInBytes,
+      isHce,
+      isCounterValuePostponed,
+      isLegacyCase1
+    };
+    for (int i = 0; i < flagValues.length; i++) {
+      if (flagValues[i]) {
+        flags |= 1 << i;
+      }
+    }
+    out.putShort((short) flags);
+    out.putEnum(calypsoCardClass);
+    out.putBytes(calypsoSerialNumber);
+    out.putBytes(startupInfo);
+    out.putEnum(productType);
+    out.putBytes(dfName);
+    out.putInt(modificationsCounterMax);
+    out.putByte((byte) (directoryHeader != null ? 1 : 0));
+    if (directoryHeader != null) {
+      ((DirectoryHeaderAdapter) directoryHeader).writeBinary(out);
+    }
+    List<ElementaryFile> efs = new ArrayList<>(files);
+    out.putShort((short) efs.size());
+    for (ElementaryFile ef : efs) {
+      ((ElementaryFileAdapter) ef).writeBinary(out);
+    }
+    int currentEfIndex = efs.indexOf(currentEf);
+    if (currentEf != null && currentEfIndex < 0) {
+      // Not part of the files of the card image
+      out.putShort((short) DETACHED_CURRENT_EF);
+      currentEf.writeBinary(out);
+    } else {
+      out.putShort((short) currentEfIndex);
+    }
+    out.putByte((byte) (isDfRatified == null ? -1 : isDfRatified ? 1 : 0));
+    out.putOptionalInt(transactionCounter);
+    out.putOptionalInt(pinAttemptCounter);
+    out.putOptionalInt(svBalance);
+    out.putInt(svLastTNum);
+    out.putOptionalInt(svBalanceBackup);
+    out.putInt(svLastTNumBackup);
+    out.putBytes(challenge);
+    out.putBytes(traceabilityInformation);
+    out.putBytes(cardPublicKey);
+    out.putBytes(cardCertificate != null ? cardCertificate.array() : null);
+    out.putBytes(caCertificate != null ? caCertificate.array() : null);
+    out.putByte(svKvc);
+    out.putBytes(svGetHeader);
+    out.putBytes(svGetData);
+    out.putBytes(svOperationSignature);
+    out.putByte(applicationSubType);
+    out.putByte(applicationType);
+    out.putByte(sessionModification);
+    out.putInt(payloadCapacity);
+    out.putEnum(preOpenWriteAccessLevel);
+    out.putBytes(preOpenDataOut);
+  }
+
+  /**
+   * Reads a card image written by {@link #writeBinary(CardImageCodec.Output)}.
+   *
+   * @param in The source buffer.
+   * @return A new instance.
+   * @throws IllegalArgumentException If the card image is malformed.
+   * @since 3.1.7
+   */
+  static CalypsoCardAdapter readBinary(ByteBuffer in) {
+    CalypsoCardAdapter card = new CalypsoCardAdapter();
+    byte[] selectApplicationResponseApdu = CardImageCodec.getBytes(in);
+    if (selectApplicationResponseApdu != null) {
+      if (selectApplicationResponseApdu.length < 2) {
+        throw new IllegalArgumentException("Invalid card image: bad select application response");
+      }
+      card.selectApplicationResponse =
+          new CardImageCodec.DecodedApduResponse(selectApplicationResponseApdu);
+    }
+    card.powerOnData = CardImageCodec.getString(in);
+    int flags = in.getShort();
+    card.isExtendedModeSupported = (flags & 0x0001) != 0;
+    card.isRatificationOnDeselectSupported = (flags & 0x0002) != 0;
+    card.isSvFeatureAvailable = (flags & 0x0004) != 0;
+    card.isPinFeatureAvailable = (flags & 0x0008) != 0;
+    card.isPkiModeSupported = (flags & 0x0010) != 0;
+    card.isDfInvalidated = (flags & 0x0020) != 0;
+    card.isModificationCounterInBytes = (flags & 0x0040) != 0;
+    card.isHce = (flags & 0x0080) != 0;
+    card.isCounterValuePostponed = (flags & 0x0100) != 0;
+    card.isLegacyCase1 = (flags & 0x0200) != 0;
+    card.calypsoCardClass = CardImageCodec.getEnum(in, CalypsoCardClass.class);
+    card.calypsoSerialNumber = CardImageCodec.getBytes(in);
+    card.startupInfo = CardImageCodec.getBytes(in);
+    ProductType decodedProductType = CardImageCodec.getEnum(in, ProductType.class);
+    if (decodedProductType == null) {
+      throw new IllegalArgumentException("Invalid card image: null product type");
+    }
+    card.productType = decodedProductType;
+    card.dfName = CardImageCodec.getBytes(in);
+    card.modificationsCounterMax = in.getInt();
+    if (in.get() != 0) {
+      card.directoryHeader = DirectoryHeaderAdapter.readBinary(in);
+    }
+    List<ElementaryFileAdapter> efs = new ArrayList<>();
+    for (int i = in.getShort() & 0xFFFF; i > 0; i--) {
+      ElementaryFileAdapter ef = ElementaryFileAdapter.readBinary(in);
+      efs.add(ef);
+      card.files.add(ef);
+    }
+    int currentEfIndex = in.getShort();
+    if (currentEfIndex == DETACHED_CURRENT_EF) {
+      card.currentEf = ElementaryFileAdapter.readBinary(in);
+    } else if (currentEfIndex >= 0 && currentEfIndex < efs.size()) {
+      card.currentEf = efs.get(currentEfIndex);
+    } else if (currentEfIndex != -1) {
+      throw new IllegalArgumentException("Invalid card image: bad current EF index");
+    }
+    byte dfRatified = in.get();
+    card.isDfRatified = dfRatified < 0 ? null : dfRatified != 0;
+    card.transactionCounter = CardImageCodec.getOptionalInt(in);
+    card.pinAttemptCounter = CardImageCodec.getOptionalInt(in);
+    card.svBalance = CardImageCodec.getOptionalInt(in);
+    card.svLastTNum = in.getInt();
+    card.svBalanceBackup = CardImageCodec.getOptionalInt(in);
+    card.svLastTNumBackup = in.getInt();
+    card.challenge = CardImageCodec.getBytes(in);
+    card.traceabilityInformation = CardImageCodec.getBytes(in);
+    card.cardPublicKey = CardImageCodec.getBytes(in);
+    byte[] certificate = CardImageCodec.getBytes(in);
+    card.cardCertificate = certificate != null ? ByteBuffer.wrap(certificate) : null;
+    certificate = CardImageCodec.getBytes(in);
+    card.caCertificate = certificate != null ? ByteBuffer.wrap(certificate) : null;
+    card.svKvc = in.get();
+    card.svGetHeader = CardImageCodec.getBytes(in);
+    card.svGetData = CardImageCodec.getBytes(in);
+    card.svOperationSignature = CardImageCodec.getBytes(in);
+    card.applicationSubType = in.get();
+    card.applicationType = in.get();
+    card.sessionModification = in.get();
+    card.payloadCapacity = in.getInt();
+    card.preOpenWriteAccessLevel = CardImageCodec.getEnum(in, WriteAccessLevel.class);
+    card.preOpenDataOut = CardImageCodec.getBytes(in);
+    return card;
   }
 
   /** POJO containing card specificities to be applied according to startup info. */
@@ -104,6 +104,7 @@ final class CalypsoCardConstant {
   static final int CARD_KEY_PAIR_SIZE = 96;
   static final int CARD_CERTIFICATE_SIZE = 316;
   static final int CA_CERTIFICATE_SIZE = 384;
+  static final int PKI_TERMINAL_CHALLENGE_SIZE = 8;
 
   // TLV TAGS
   static final int TAG_FCP_FOR_CURRENT_FILE = 0x62;
@@ -16,6 +16,7 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiFunction;
 import org.eclipse.keyple.core.util.Assert;
 import org.eclipse.keypop.calypso.card.GetDataTag;
 import org.eclipse.keypop.calypso.card.SelectFileControl;
@@ -42,6 +43,8 @@
   private static final int SW_CARD_INVALIDATED = 0x6283;
   private static final String MSG_CARD_COMMAND_ERROR = "A card command error occurred ";
 
+  private final List<BiFunction<TransactionContextDto, CommandContextDto, Command>>
+      commandFactories;
   private final List<Command> commands;
   private final TransactionContextDto transactionContext;
   private final CommandContextDto commandContext;
@@ -55,6 +58,7 @@
    * @throws IllegalArgumentException If cardSelector is null.
    */
   CalypsoCardSelectionExtensionAdapter() {
+    commandFactories = new ArrayList<>();
     commands = new ArrayList<>();
     transactionContext = new TransactionContextDto();
     commandContext = new CommandContextDto(false, false);
@@ -85,15 +89,16 @@ public CalypsoCardSelectionExtension prepareReadRecord(byte sfi, int recordNumbe
             CalypsoCardConstant.NB_REC_MIN,
             CalypsoCardConstant.NB_REC_MAX,
             "recordNumber");
-    commands.add(
-        new CommandReadRecords(
-            transactionContext,
-            commandContext,
-            sfi,
-            recordNumber,
-            CommandReadRecords.ReadMode.ONE_RECORD,
-            0,
-            0));
+    addCommand(
+        (context, cmdContext) ->
+            new CommandReadRecords(
+                context,
+                cmdContext,
+                sfi,
+                recordNumber,
+                CommandReadRecords.ReadMode.ONE_RECORD,
+                0,
+                0));
     return this;
   }
 
@@ -111,7 +116,8 @@ public CalypsoCardSelectionExtension prepareReadBinary(byte sfi, int offset, int
         .greaterOrEqual(nbBytesToRead, 1, "nbBytesToRead");
     if (sfi > 0 && offset > 255) { // FFh
       // Tips to select the file: add a "Read Binary" command (read one byte at offset 0).
-      commands.add(new CommandReadBinary(transactionContext, commandContext, sfi, 0, 1));
+      addCommand(
+          (context, cmdContext) -> new CommandReadBinary(context, cmdContext, sfi, 0, 1));
     }
     int currentLength;
     int currentOffset = offset;
@@ -119,9 +125,11 @@ public CalypsoCardSelectionExtension prepareReadBinary(byte sfi, int offset, int
     do {
       currentLength =
           Math.min(nbBytesRemainingToRead, CalypsoCardConstant.DEFAULT_PAYLOAD_CAPACITY);
-      commands.add(
-          new CommandReadBinary(
-              transactionContext, commandContext, sfi, currentOffset, currentLength));
+      int readOffset = currentOffset;
+      int readLength = currentLength;
+      addCommand(
+          (context, cmdContext) ->
+              new CommandReadBinary(context, cmdContext, sfi, readOffset, readLength));
       currentOffset += currentLength;
       nbBytesRemainingToRead -= currentLength;
     } while (nbBytesRemainingToRead > 0);
@@ -142,15 +150,16 @@ public CalypsoCardSelectionExtension prepareReadCounter(byte sfi, int nbCounters
             0,
             CalypsoCardConstant.DEFAULT_PAYLOAD_CAPACITY / 3,
             "nbCountersToRead");
-    commands.add(
-        new CommandReadRecords(
-            transactionContext,
-            commandContext,
-            sfi,
-            1,
-            CommandReadRecords.ReadMode.ONE_RECORD,
-            nbCountersToRead * 3,
-            0));
+    addCommand(
+        (context, cmdContext) ->
+            new CommandReadRecords(
+                context,
+                cmdContext,
+                sfi,
+                1,
+                CommandReadRecords.ReadMode.ONE_RECORD,
+                nbCountersToRead * 3,
+                0));
     return this;
   }
 
@@ -166,8 +175,9 @@ public CalypsoCardSelectionExtension preparePreOpenSecureSession(
       throw new IllegalStateException("'Pre-Open Secure Session' command already prepared");
     }
     Assert.getInstance().notNull(writeAccessLevel, "writeAccessLevel");
-    commands.add(
-        new CommandOpenSecureSession(transactionContext, commandContext, writeAccessLevel));
+    addCommand(
+        (context, cmdContext) ->
+            new CommandOpenSecureSession(context, cmdContext, writeAccessLevel));
     isPreOpenPrepared = true;
     return this;
   }
@@ -182,16 +192,16 @@ public CalypsoCardSelectionExtension prepareGetData(GetDataTag tag) {
     Assert.getInstance().notNull(tag, "tag");
     switch (tag) {
       case FCI_FOR_CURRENT_DF:
-        commands.add(new CommandGetDataFci(transactionContext, commandContext));
+        addCommand(CommandGetDataFci::new);
         break;
       case FCP_FOR_CURRENT_FILE:
-        commands.add(new CommandGetDataFcp(transactionContext, commandContext));
+        addCommand(CommandGetDataFcp::new);
         break;
       case EF_LIST:
-        commands.add(new CommandGetDataEfList(transactionContext, commandContext));
+        addCommand(CommandGetDataEfList::new);
         break;
       case TRACEABILITY_INFORMATION:
-        commands.add(new CommandGetDataTraceabilityInformation(transactionContext, commandContext));
+        addCommand(CommandGetDataTraceabilityInformation::new);
         break;
       default:
         throw new UnsupportedOperationException("Unsupported Get Data tag: " + tag.name());
@@ -206,7 +216,7 @@ public CalypsoCardSelectionExtension prepareGetData(GetDataTag tag) {
    */
   @Override
   public CalypsoCardSelectionExtension prepareSelectFile(short lid) {
-    commands.add(new CommandSelectFile(transactionContext, commandContext, lid));
+    addCommand((context, cmdContext) -> new CommandSelectFile(context, cmdContext, lid));
     return this;
   }
 
@@ -218,7 +228,8 @@ public CalypsoCardSelectionExtension prepareSelectFile(short lid) {
   @Override
   public CalypsoCardSelectionExtension prepareSelectFile(SelectFileControl selectControl) {
     Assert.getInstance().notNull(selectControl, "selectControl");
-    commands.add(new CommandSelectFile(transactionContext, commandContext, selectControl));
+    addCommand(
+        (context, cmdContext) -> new CommandSelectFile(context, cmdContext, selectControl));
     return this;
   }
 
@@ -253,6 +264,54 @@ public CardSelectionRequestSpi getCardSelectionRequest() {
    */
   @Override
   public SmartCardSpi parse(CardSelectionResponseApi cardSelectionResponse) throws ParseException {
+    return parseCardSelectionResponse(cardSelectionResponse, commands);
+  }
+
+  /**
+   * Freezes the current configuration into an immutable and thread-safe card selection extension.
+   *
+   * <p>The card selection request is built once and shared. Subsequent modifications of this
+   * extension are not reflected in the compiled one.
+   *
+   * @return A new instance.
+   * @since 3.1.7
+   */
+  CompiledCalypsoCardSelectionExtensionAdapter compile() {
+    // Dedicated commands, never used to parse a response themselves
+    TransactionContextDto compiledTransactionContext = new TransactionContextDto();
+    CommandContextDto compiledContext = new CommandContextDto(false, false);
+    List<Command> compiledCommands = new ArrayList<>(commandFactories.size());
+    for (BiFunction<TransactionContextDto, CommandContextDto, Command> commandFactory :
+        commandFactories) {
+      compiledCommands.add(commandFactory.apply(compiledTransactionContext, compiledContext));
+    }
+    return new CompiledCalypsoCardSelectionExtensionAdapter(
+        compiledCommands, getCardSelectionRequest());
+  }
+
+  /**
+   * Creates the command using the shared contexts and records its factory for the compilation.
+   *
+   * @param commandFactory The factory of the command.
+   */
+  private void addCommand(
+      BiFunction<TransactionContextDto, CommandContextDto, Command> commandFactory) {
+    commandFactories.add(commandFactory);
+    commands.add(commandFactory.apply(transactionContext, commandContext));
+  }
+
+  /**
+   * Creates the Calypso card image from the card selection response and the provided commands.
+   *
+   * @param cardSelectionResponse The card selection response.
+   * @param commands The commands prepared for the selection.
+   * @return A non-null reference.
+   * @throws ParseException If the response cannot be parsed.
+   * @since 3.1.7
+   */
+  static CalypsoCardAdapter parseCardSelectionResponse(
+      CardSelectionResponseApi cardSelectionResponse, List<? extends Command> commands)
+      throws ParseException {
     CardResponseApi cardResponse = cardSelectionResponse.getCardResponse();
     List<ApduResponseApi> apduResponses =
         cardResponse != null
@@ -13,11 +13,31 @@
 
 import static org.eclipse.keyple.card.calypso.JsonAdapters.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import org.eclipse.keyple.core.common.CommonApiProperties;
 import org.eclipse.keyple.core.common.KeypleCardExtension;
+import org.eclipse.keyple.core.util.Assert;
 import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
 import org.eclipse.keypop.calypso.card.card.*;
+import org.eclipse.keypop.calypso.card.transaction.AsymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.card.transaction.ChannelControl;
+import org.eclipse.keypop.calypso.card.transaction.SecureSymmetricCryptoTransactionManager;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.card.transaction.TransactionManager;
+import org.eclipse.keypop.calypso.card.transaction.spi.CaCertificate;
 import org.eclipse.keypop.card.CardApiProperties;
 import org.eclipse.keypop.reader.ReaderApiProperties;
 
@@ -36,6 +56,7 @@ public final class CalypsoExtensionService implements KeypleCardExtension { // N
     JsonUtil.registerTypeAdapter(DirectoryHeader.class, new DirectoryHeaderJsonAdapter(), false);
     JsonUtil.registerTypeAdapter(ElementaryFile.class, new ElementaryFileJsonAdapter(), false);
     JsonUtil.registerTypeAdapter(FileHeader.class, new FileHeaderJsonAdapter(), false);
+    JsonUtil.registerTypeAdapter(FileDataAdapter.class, new FileDataJsonAdapter(), false);
     JsonUtil.registerTypeAdapter(SvLoadLogRecord.class, new SvLoadLogRecordJsonAdapter(), false);
     JsonUtil.registerTypeAdapter(SvDebitLogRecord.class, new SvDebitLogRecordJsonAdapter(), false);
     JsonUtil.registerTypeAdapter(Command.class, new AbstractCardCommandJsonAdapter(), false);
@@ -61,6 +82,710 @@ public CalypsoCardApiFactory getCalypsoCardApiFactory() {
     return new CalypsoCardApiFactoryAdapter();
   }
 
+  /**
+   * Processes asynchronously all the commands prepared on the provided transaction manager.
+   *
+   * <p>The commands are processed on the provided executor as by {@link
+   * TransactionManager#processCommands(ChannelControl)}, so that the calling thread is not blocked
+   * during the exchanges with the card and the crypto services. If the processing fails, the
+   * transaction is reset and the returned future is completed exceptionally with the same
+   * exception.
+   *
+   * <p>The transaction manager must not be used until the returned future is completed.
+   *
+   * @param transactionManager A transaction manager created by this extension.
+   * @param channelControl Policy for managing the physical channel after executing commands to the
+   *     card.
+   * @param executor The executor running the processing (e.g. a virtual thread per task executor).
+   * @param <T> The type of the transaction manager.
+   * @return A non-null future completed with the provided transaction manager.
+   * @throws IllegalArgumentException If an argument is null or if the transaction manager was not
+   *     created by this extension.
+   * @since 3.1.7
+   */
+  public <T extends TransactionManager<T>> CompletableFuture<T> processCommandsAsync(
+      T transactionManager, ChannelControl channelControl, Executor executor) {
+    Assert.getInstance().notNull(transactionManager, "transactionManager");
+    if (!(transactionManager instanceof TransactionManagerAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided transaction manager was not created by this extension");
+    }
+    @SuppressWarnings("unchecked") // T is the type of the transaction manager itself
+    TransactionManagerAdapter<T> transactionManagerAdapter =
+        (TransactionManagerAdapter<T>) transactionManager;
+    return transactionManagerAdapter.processCommandsAsync(channelControl, executor);
+  }
+
+  /**
+   * Binds the provided transaction manager to a newly selected card, so that a long-lived
+   * transaction manager can be reused for successive cards on the same reader.
+   *
+   * <p>All the state of the previous transaction is cleared, while the internal lists and context
+   * objects are reused. The symmetric crypto service of a secure transaction manager in regular or
+   * extended mode is recreated for the new card, since it is bound to the card serial number; any
+   * crypto extension previously obtained from the transaction manager must be retrieved again.
+   *
+   * @param transactionManager A transaction manager created by this extension.
+   * @param card The newly selected card.
+   * @param <T> The type of the transaction manager.
+   * @return The provided transaction manager.
+   * @throws IllegalArgumentException If an argument is null, if the transaction manager or the
+   *     card was not created by this extension, or if the card has an undefined product type and
+   *     the transaction manager is not a PKI mode one.
+   * @throws IllegalStateException If a secure session is open.
+   * @since 3.1.7
+   */
+  public <T extends TransactionManager<T>> T rebindTransactionManager(
+      T transactionManager, CalypsoCard card) {
+    Assert.getInstance().notNull(transactionManager, "transactionManager").notNull(card, "card");
+    if (!(transactionManager instanceof TransactionManagerAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided transaction manager was not created by this extension");
+    }
+    if (!(card instanceof CalypsoCardAdapter)) {
+      throw new IllegalArgumentException("The provided card was not created by this extension");
+    }
+    // Same preconditions as the factories of the transaction managers
+    if (!(transactionManager instanceof SecurePkiModeTransactionManagerAdapter)
+        && card.getProductType() == CalypsoCard.ProductType.UNKNOWN) {
+      throw new IllegalArgumentException("The provided card has an undefined product type");
+    }
+    ((TransactionManagerAdapter<?>) transactionManager).rebind((CalypsoCardAdapter) card);
+    return transactionManager;
+  }
+
+  /**
+   * Enables the pipelined mode of the terminal session MAC updates for the provided transaction
+   * manager.
+   *
+   * <p>In this mode, the APDUs exchanged in a secure session are passed to the symmetric crypto
+   * service on the provided executor while the next card request is in progress, instead of
+   * sequentially after each card response. The other operations of the crypto service wait for the
+   * completion of the pending updates. This reduces the duration of the transaction when the crypto
+   * service is remote.
+   *
+   * @param transactionManager A transaction manager created by this extension.
+   * @param executor The executor performing the updates. It must not run them on the calling
+   *     thread of the transaction manager.
+   * @throws IllegalArgumentException If an argument is null or if the transaction manager was not
+   *     created by this extension.
+   * @since 3.1.7
+   */
+  public void enableTerminalSessionMacPipelining(
+      SecureSymmetricCryptoTransactionManager<?> transactionManager, Executor executor) {
+    Assert.getInstance()
+        .notNull(transactionManager, "transactionManager")
+        .notNull(executor, "executor");
+    if (!(transactionManager instanceof SecureSymmetricCryptoTransactionManagerAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided transaction manager was not created by this extension");
+    }
+    ((SecureSymmetricCryptoTransactionManagerAdapter<?>) transactionManager)
+        .enableTerminalSessionMacPipelining(executor);
+  }
+
+  /**
+   * Enables a cache of the last known record contents of the cards for the transactions using the
+   * provided security setting.
+   *
+   * <p>The records read or written during a transaction are stored in the cache, indexed by card
+   * serial number, DF name, SFI and record number. In pre-open mode, the cached records are used to
+   * anticipate the responses of the "Read Records" commands that are not already known from the
+   * card image, so that the whole secure session can be performed in a single card request for a
+   * card already seen. If the actual content differs from the anticipated one, then the cached
+   * records of the file are removed and the transaction fails as without cache.
+   *
+   * @param symmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param maxEntries The maximum number of cached records, the least recently used being evicted
+   *     first.
+   * @param timeToLiveMillis The time to live of a cached record in milliseconds.
+   * @throws IllegalArgumentException If the security setting is null or was not created by this
+   *     extension, or if a value is out of range.
+   * @since 3.1.7
+   */
+  public void enableRecordContentCache(
+      SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting,
+      int maxEntries,
+      long timeToLiveMillis) {
+    Assert.getInstance()
+        .notNull(symmetricCryptoSecuritySetting, "symmetricCryptoSecuritySetting")
+        .greaterOrEqual(maxEntries, 1, "maxEntries");
+    if (timeToLiveMillis <= 0) {
+      throw new IllegalArgumentException("timeToLiveMillis must be greater than 0");
+    }
+    if (!(symmetricCryptoSecuritySetting instanceof SymmetricCryptoSecuritySettingAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided security setting was not created by this extension");
+    }
+    ((SymmetricCryptoSecuritySettingAdapter) symmetricCryptoSecuritySetting)
+        .setRecordContentCache(new RecordContentCache(maxEntries, timeToLiveMillis));
+  }
+
+  /**
+   * Enables a cache of the card public keys for the transactions using the provided security
+   * setting.
+   *
+   * <p>The public key extracted from a card certificate after the verification of its chain of
+   * trust is stored in the cache, indexed by a digest of the raw certificate. When a card presents
+   * the same certificate again, the cached public key is used and the parsing and verification of
+   * the certificate are skipped, provided that the card serial number still matches the
+   * certificate.
+   *
+   * <p>Whatever the time to live, a cached public key is only used until the end of the day on
+   * which its certificate was checked, after which the certificate is checked again so that its
+   * validity period is enforced.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param maxEntries The maximum number of cached public keys, the least recently used being
+   *     evicted first.
+   * @param timeToLiveMillis The time to live of a cached public key in milliseconds.
+   * @throws IllegalArgumentException If the security setting is null or was not created by this
+   *     extension, or if a value is out of range.
+   * @since 3.1.7
+   */
+  public void enableCardPublicKeyCache(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting,
+      int maxEntries,
+      long timeToLiveMillis) {
+    AsymmetricCryptoSecuritySettingAdapter adapter = toAdapter(asymmetricCryptoSecuritySetting);
+    Assert.getInstance().greaterOrEqual(maxEntries, 1, "maxEntries");
+    if (timeToLiveMillis <= 0) {
+      throw new IllegalArgumentException("timeToLiveMillis must be greater than 0");
+    }
+    adapter.setCardPublicKeyCache(new CardPublicKeyCache(maxEntries, timeToLiveMillis));
+  }
+
+  /**
+   * Removes from the card public key cache the public key extracted from the provided card
+   * certificate, which will be verified again the next time it is presented.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param cardCertificate The revoked raw card certificate.
+   * @throws IllegalArgumentException If an argument is null or if the security setting was not
+   *     created by this extension.
+   * @throws IllegalStateException If the card public key cache is not enabled.
+   * @since 3.1.7
+   */
+  public void revokeCachedCardCertificate(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting, byte[] cardCertificate) {
+    Assert.getInstance().notNull(cardCertificate, "cardCertificate");
+    getCardPublicKeyCache(asymmetricCryptoSecuritySetting).revoke(cardCertificate);
+  }
+
+  /**
+   * Removes from the card public key cache all the public keys extracted from card certificates
+   * issued with the provided CA public key.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param issuerPublicKeyReference The reference of the revoked CA public key.
+   * @throws IllegalArgumentException If an argument is null or if the security setting was not
+   *     created by this extension.
+   * @throws IllegalStateException If the card public key cache is not enabled.
+   * @since 3.1.7
+   */
+  public void revokeCachedCardCertificatesByIssuer(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting,
+      byte[] issuerPublicKeyReference) {
+    Assert.getInstance().notNull(issuerPublicKeyReference, "issuerPublicKeyReference");
+    getCardPublicKeyCache(asymmetricCryptoSecuritySetting).revokeIssuer(issuerPublicKeyReference);
+  }
+
+  /**
+   * Returns the number of card certificates for which a cached public key was used.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @return A positive or zero value.
+   * @throws IllegalArgumentException If the security setting is null or was not created by this
+   *     extension.
+   * @throws IllegalStateException If the card public key cache is not enabled.
+   * @since 3.1.7
+   */
+  public long getCardPublicKeyCacheHitCount(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting) {
+    return getCardPublicKeyCache(asymmetricCryptoSecuritySetting).getHitCount();
+  }
+
+  /**
+   * Returns the number of card certificates for which no cached public key was available.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @return A positive or zero value.
+   * @throws IllegalArgumentException If the security setting is null or was not created by this
+   *     extension.
+   * @throws IllegalStateException If the card public key cache is not enabled.
+   * @since 3.1.7
+   */
+  public long getCardPublicKeyCacheMissCount(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting) {
+    return getCardPublicKeyCache(asymmetricCryptoSecuritySetting).getMissCount();
+  }
+
+  /**
+   * Returns the card public key cache of the provided security setting.
+   *
+   * @param asymmetricCryptoSecuritySetting The security setting.
+   * @return A non-null reference.
+   * @throws IllegalArgumentException If the security setting is null or was not created by this
+   *     extension.
+   * @throws IllegalStateException If the card public key cache is not enabled.
+   */
+  private static CardPublicKeyCache getCardPublicKeyCache(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting) {
+    CardPublicKeyCache cardPublicKeyCache =
+        toAdapter(asymmetricCryptoSecuritySetting).getCardPublicKeyCache();
+    if (cardPublicKeyCache == null) {
+      throw new IllegalStateException("The card public key cache is not enabled");
+    }
+    return cardPublicKeyCache;
+  }
+
+  /**
+   * Registers a set of CA certificates into the provided security setting, verifying them in
+   * parallel.
+   *
+   * <p>The certificates can be provided in any order: they are verified by successive rounds, each
+   * round verifying in parallel on the provided executor (e.g. {@link
+   * java.util.concurrent.ForkJoinPool#commonPool()}) all the certificates whose issuer is already
+   * known. The certificates are registered only if all of them are valid, otherwise none of them is
+   * registered and the failures are returned. A certificate whose public key reference has been
+   * registered concurrently is reported as a failure too, and the certificates of the set already
+   * registered are then removed.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param caCertificates The CA certificates.
+   * @param executor The executor performing the verifications.
+   * @return An empty map if all the certificates have been registered, otherwise the exception
+   *     raised for each rejected certificate, as {@link
+   *     AsymmetricCryptoSecuritySetting#addCaCertificate(CaCertificate)} would do.
+   * @throws IllegalArgumentException If an argument is null, if the security setting was not
+   *     created by this extension or if a certificate was not created by a compatible crypto
+   *     extension.
+   * @since 3.1.7
+   */
+  public Map<CaCertificate, RuntimeException> addCaCertificates(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting,
+      Collection<? extends CaCertificate> caCertificates,
+      Executor executor) {
+    Assert.getInstance().notNull(caCertificates, "caCertificates").notNull(executor, "executor");
+    return toAdapter(asymmetricCryptoSecuritySetting).addCaCertificates(caCertificates, executor);
+  }
+
+  /**
+   * Enables a pool of terminal challenges for the secure sessions opened with the provided security
+   * setting.
+   *
+   * <p>The terminal challenges are generated in advance on the provided executor, so that the
+   * opening of a secure session does not wait for the entropy source, and handed out without
+   * locking. If the pool is exhausted, then a challenge is generated on the caller thread.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param poolSize The number of challenges generated in advance.
+   * @param entropySource The thread-safe entropy source filling the provided arrays with random
+   *     bytes (e.g. {@code new SecureRandom()::nextBytes}).
+   * @param executor The executor generating the challenges.
+   * @throws IllegalArgumentException If an argument is null, if the security setting was not
+   *     created by this extension or if the pool size is out of range.
+   * @since 3.1.7
+   */
+  public void enableTerminalChallengePool(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting,
+      int poolSize,
+      Consumer<byte[]> entropySource,
+      Executor executor) {
+    AsymmetricCryptoSecuritySettingAdapter adapter = toAdapter(asymmetricCryptoSecuritySetting);
+    Assert.getInstance()
+        .greaterOrEqual(poolSize, 1, "poolSize")
+        .notNull(entropySource, "entropySource")
+        .notNull(executor, "executor");
+    adapter.setTerminalChallengePool(
+        new TerminalChallengePool(
+            CalypsoCardConstant.PKI_TERMINAL_CHALLENGE_SIZE,
+            poolSize,
+            entropySource,
+            executor));
+  }
+
+  /**
+   * Saves into a file a snapshot of the CA certificates read from the cards during the transactions
+   * using the provided security setting.
+   *
+   * <p>The snapshot can be imported at the next startup with {@link
+   * #importCaCertificateSnapshot(AsymmetricCryptoSecuritySetting, Path)}, so that these CA
+   * certificates no longer need to be read from the cards.
+   *
+   * <p>The snapshot is limited to the CA certificates read from the cards, in their card format.
+   * The PCA and CA certificates registered by the application are not part of the snapshot and must
+   * still be added to the security setting at startup.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param file The file to create or replace.
+   * @throws IllegalArgumentException If an argument is null or if the security setting was not
+   *     created by this extension.
+   * @throws UncheckedIOException If the file cannot be written.
+   * @since 3.1.7
+   */
+  public void exportCaCertificateSnapshot(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting, Path file) {
+    Assert.getInstance().notNull(file, "file");
+    AsymmetricCryptoSecuritySettingAdapter adapter = toAdapter(asymmetricCryptoSecuritySetting);
+    try (OutputStream outputStream = Files.newOutputStream(file)) {
+      adapter.exportCaCertificates(outputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads into the provided security setting a snapshot of CA certificates previously saved with
+   * {@link #exportCaCertificateSnapshot(AsymmetricCryptoSecuritySetting, Path)}.
+   *
+   * <p>The file is memory-mapped and its integrity is checked. The certificates are only parsed and
+   * verified against their issuer the first time they are needed by a transaction, so the import
+   * itself is cheap. The required PCA certificate and CA certificate parsers must be registered
+   * before the first transaction.
+   *
+   * @param asymmetricCryptoSecuritySetting A security setting created by this extension.
+   * @param file The snapshot file.
+   * @throws IllegalArgumentException If an argument is null, if the security setting was not
+   *     created by this extension or if the snapshot is corrupted.
+   * @throws UncheckedIOException If the file cannot be read.
+   * @since 3.1.7
+   */
+  public void importCaCertificateSnapshot(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting, Path file) {
+    Assert.getInstance().notNull(file, "file");
+    AsymmetricCryptoSecuritySettingAdapter adapter = toAdapter(asymmetricCryptoSecuritySetting);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      adapter.importCaCertificates(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Configures the recording of the APDUs exchanged by the provided transaction manager, returned
+   * by {@link TransactionManager#getTransactionAuditData()}.
+   *
+   * <p>By default, the last {@value TransactionAuditRecorder#DEFAULT_CAPACITY} APDUs are retained
+   * in a ring buffer. The provided sink receives every exchanged APDU, request and response
+   * alternately, so that a complete audit trail can be kept outside the heap (see {@link
+   * #openTransactionAuditLogFile(Path, int)}).
+   *
+   * @param transactionManager A transaction manager created by this extension.
+   * @param capacity The maximum number of APDUs retained in the transaction audit data (0 to retain
+   *     none).
+   * @param sink The sink receiving the exchanged APDUs on the transaction thread, null if none.
+   * @throws IllegalArgumentException If the transaction manager is null or was not created by this
+   *     extension, or if the capacity is negative.
+   * @since 3.1.7
+   */
+  public void configureTransactionAuditData(
+      TransactionManager<?> transactionManager, int capacity, Consumer<byte[]> sink) {
+    Assert.getInstance()
+        .notNull(transactionManager, "transactionManager")
+        .greaterOrEqual(capacity, 0, "capacity");
+    if (!(transactionManager instanceof TransactionManagerAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided transaction manager was not created by this extension");
+    }
+    ((TransactionManagerAdapter<?>) transactionManager)
+        .configureTransactionAuditData(capacity, sink);
+  }
+
+  /**
+   * Opens an append-only memory-mapped log file of APDUs, usable as the sink of {@link
+   * #configureTransactionAuditData(TransactionManager, int, Consumer)} by any number of transaction
+   * managers.
+   *
+   * <p>Each APDU is written as its length on 4 bytes followed by its bytes, and the log ends at the
+   * first zero length. If the file already exists, then the new APDUs are appended to the existing
+   * ones. The APDUs which no longer fit in the file are dropped, a warning is logged and they are
+   * counted (see {@link #getTransactionAuditLogFileDroppedApdus(Consumer)}).
+   *
+   * <p>The file is memory-mapped: the APDUs reach the file when the operating system writes the
+   * mapped memory back, or when {@link #flushTransactionAuditLogFile(Consumer)} is called.
+   *
+   * @param file The log file, created if needed.
+   * @param size The size of the file in bytes, if larger than its current size.
+   * @return A thread-safe sink.
+   * @throws IllegalArgumentException If the file is null or the size is not positive.
+   * @throws UncheckedIOException If the file cannot be opened.
+   * @since 3.1.7
+   */
+  public Consumer<byte[]> openTransactionAuditLogFile(Path file, int size) {
+    Assert.getInstance().notNull(file, "file").greaterOrEqual(size, 1, "size");
+    try {
+      return new TransactionAuditLogFile(file, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Forces the APDUs written so far in the provided log file to the storage device.
+   *
+   * <p>The APDUs are written to a memory-mapped file, which the operating system writes back
+   * asynchronously: without a flush, they survive a crash of the process but not of the system.
+   *
+   * @param logFile A log file opened by {@link #openTransactionAuditLogFile(Path, int)}.
+   * @throws IllegalArgumentException If the log file is null or was not opened by this extension.
+   * @since 3.1.7
+   */
+  public void flushTransactionAuditLogFile(Consumer<byte[]> logFile) {
+    toTransactionAuditLogFile(logFile).flush();
+  }
+
+  /**
+   * Returns the number of APDUs dropped by the provided log file because it is full.
+   *
+   * @param logFile A log file opened by {@link #openTransactionAuditLogFile(Path, int)}.
+   * @return 0 if no APDU has been dropped.
+   * @throws IllegalArgumentException If the log file is null or was not opened by this extension.
+   * @since 3.1.7
+   */
+  public long getTransactionAuditLogFileDroppedApdus(Consumer<byte[]> logFile) {
+    return toTransactionAuditLogFile(logFile).getDroppedApdus();
+  }
+
+  /**
+   * Compiles the provided card selection extension into an immutable and thread-safe form.
+   *
+   * <p>The card selection request is built once from the commands prepared so far and shared by all
+   * the selections, so the compiled extension can be used concurrently by any number of readers.
+   * The compiled extension no longer accepts any modification, and further modifications of the
+   * provided extension are not reflected in it.
+   *
+   * @param cardSelectionExtension A card selection extension created by this extension.
+   * @return A new compiled card selection extension.
+   * @throws IllegalArgumentException If the card selection extension is null or was not created by
+   *     this extension.
+   * @since 3.1.7
+   */
+  public CalypsoCardSelectionExtension compileCardSelectionExtension(
+      CalypsoCardSelectionExtension cardSelectionExtension) {
+    Assert.getInstance().notNull(cardSelectionExtension, "cardSelectionExtension");
+    if (cardSelectionExtension instanceof CompiledCalypsoCardSelectionExtensionAdapter) {
+      return cardSelectionExtension;
+    }
+    if (!(cardSelectionExtension instanceof CalypsoCardSelectionExtensionAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided card selection extension was not created by this extension");
+    }
+    return ((CalypsoCardSelectionExtensionAdapter) cardSelectionExtension).compile();
+  }
+
+  /**
+   * Encodes the provided card image in a compact binary format, as an alternative to its JSON
+   * representation for the exchanges between the nodes of a distributed system.
+   *
+   * <p>The format is versioned and contains the whole card image: headers, records, counters, SV
+   * data and certificates.
+   *
+   * @param card A card image created by this extension.
+   * @return A buffer ready to be read, containing the encoded card image.
+   * @throws IllegalArgumentException If the card is null or was not created by this extension.
+   * @since 3.1.7
+   */
+  public ByteBuffer encodeCardImage(CalypsoCard card) {
+    Assert.getInstance().notNull(card, "card");
+    if (!(card instanceof CalypsoCardAdapter)) {
+      throw new IllegalArgumentException("The provided card was not created by this extension");
+    }
+    return CardImageCodec.encode((CalypsoCardAdapter) card);
+  }
+
+  /**
+   * Decodes a card image encoded with {@link #encodeCardImage(CalypsoCard)}, starting at the
+   * current position of the provided buffer.
+   *
+   * <p>The decoded card image has the same JSON representation as the encoded one. On return, the
+   * position of the buffer is just after the decoded card image, so that several card images can
+   * be read from the same buffer.
+   *
+   * @param buffer The buffer containing the encoded card image.
+   * @return A new card image.
+   * @throws IllegalArgumentException If the buffer is null or if the encoded card image is
+   *     malformed or has an unsupported version.
+   * @since 3.1.7
+   */
+  public CalypsoCard decodeCardImage(ByteBuffer buffer) {
+    Assert.getInstance().notNull(buffer, "buffer");
+    return CardImageCodec.decode(buffer);
+  }
+
+  /**
+   * Copies the values of the counters of the provided counters file data into the provided array,
+   * without boxing them.
+   *
+   * <p>The value of counter #n is copied at index n - 1, counters which do not fit in the array
+   * being ignored. Unlike {@link FileData#getAllCountersValue()}, no map is created, so the same
+   * array can be reused for each card.
+   *
+   * @param fileData The data of a counters file of a card image created by this extension.
+   * @param values The destination array.
+   * @return The number of counters present in the file data, 0 if record #1 is not set.
+   * @throws IllegalArgumentException If an argument is null or if the file data was not created by
+   *     this extension.
+   * @since 3.1.7
+   */
+  public int getAllCountersValue(FileData fileData, int[] values) {
+    Assert.getInstance().notNull(values, "values");
+    return toAdapter(fileData).getAllCountersValue(values);
+  }
+
+  /**
+   * Returns a snapshot of the values of the counters of the provided counters file data, the value
+   * of counter #n being at index n - 1.
+   *
+   * @param fileData The data of a counters file of a card image created by this extension.
+   * @return An empty array if record #1 is not set.
+   * @throws IllegalArgumentException If the file data is null or was not created by this extension.
+   * @since 3.1.7
+   */
+  public int[] getAllCountersValue(FileData fileData) {
+    FileDataAdapter adapter = toAdapter(fileData);
+    int[] values = new int[adapter.getAllCountersValue(new int[0])];
+    adapter.getAllCountersValue(values);
+    return values;
+  }
+
+  /**
+   * Returns a read-only view of the content of a record of the provided file data, without copying
+   * it.
+   *
+   * <p>Unlike {@link FileData#getContent(int)}, which returns a new copy on each call for such
+   * records, the records received in a multiple records response are not copied into byte arrays:
+   * the view directly references the response.
+   *
+   * @param fileData The file data of a card image created by this extension.
+   * @param numRecord The record number.
+   * @return An empty buffer if the record is not set.
+   * @throws IllegalArgumentException If the file data is null or was not created by this extension.
+   * @since 3.1.7
+   */
+  public ByteBuffer getContentView(FileData fileData, int numRecord) {
+    ByteBuffer view = toAdapter(fileData).getRecordView(numRecord);
+    return view != null ? view : ByteBuffer.allocate(0).asReadOnlyBuffer();
+  }
+
+  /**
+   * Schedules the increase of several counters of a counters file, as {@link
+   * TransactionManager#prepareIncreaseCounters(byte, Map)} does, but with the counters and their
+   * increment values provided as primitive arrays.
+   *
+   * <p>The counters are processed in the order of the arrays.
+   *
+   * @param transactionManager A transaction manager created by this extension.
+   * @param sfi SFI of the EF to select.
+   * @param counterNumbers The numbers of the counters to be incremented.
+   * @param incValues The increment values, in the same order as the counter numbers.
+   * @param <T> The type of the transaction manager.
+   * @return The provided transaction manager.
+   * @throws IllegalArgumentException If the transaction manager was not created by this extension,
+   *     if one of the arguments is null or out of range, if the arrays do not have the same length
+   *     or if a counter number is present more than once.
+   * @since 3.1.7
+   */
+  public <T extends TransactionManager<T>> T prepareIncreaseCounters(
+      T transactionManager, byte sfi, int[] counterNumbers, int[] incValues) {
+    toAdapter(transactionManager)
+        .prepareIncreaseOrDecreaseCounters(false, sfi, counterNumbers, incValues);
+    return transactionManager;
+  }
+
+  /**
+   * Schedules the decrease of several counters of a counters file, as {@link
+   * TransactionManager#prepareDecreaseCounters(byte, Map)} does, but with the counters and their
+   * decrement values provided as primitive arrays.
+   *
+   * <p>The counters are processed in the order of the arrays.
+   *
+   * @param transactionManager A transaction manager created by this extension.
+   * @param sfi SFI of the EF to select.
+   * @param counterNumbers The numbers of the counters to be decremented.
+   * @param decValues The decrement values, in the same order as the counter numbers.
+   * @param <T> The type of the transaction manager.
+   * @return The provided transaction manager.
+   * @throws IllegalArgumentException If the transaction manager was not created by this extension,
+   *     if one of the arguments is null or out of range, if the arrays do not have the same length
+   *     or if a counter number is present more than once.
+   * @since 3.1.7
+   */
+  public <T extends TransactionManager<T>> T prepareDecreaseCounters(
+      T transactionManager, byte sfi, int[] counterNumbers, int[] decValues) {
+    toAdapter(transactionManager)
+        .prepareIncreaseOrDecreaseCounters(true, sfi, counterNumbers, decValues);
+    return transactionManager;
+  }
+
+  /**
+   * Returns the log file corresponding to the provided sink.
+   *
+   * @param logFile The sink.
+   * @return A non-null reference.
+   * @throws IllegalArgumentException If the sink is null or was not opened by this extension.
+   */
+  private static TransactionAuditLogFile toTransactionAuditLogFile(Consumer<byte[]> logFile) {
+    Assert.getInstance().notNull(logFile, "logFile");
+    if (!(logFile instanceof TransactionAuditLogFile)) {
+      throw new IllegalArgumentException(
+          "The provided log file was not opened by this extension");
+    }
+    return (TransactionAuditLogFile) logFile;
+  }
+
+  /**
+   * Returns the adapter of the provided file data.
+   *
+   * @param fileData The file data.
+   * @return A non-null reference.
+   * @throws IllegalArgumentException If the file data is null or was not created by this extension.
+   */
+  private static FileDataAdapter toAdapter(FileData fileData) {
+    Assert.getInstance().notNull(fileData, "fileData");
+    if (!(fileData instanceof FileDataAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided file data was not created by this extension");
+    }
+    return (FileDataAdapter) fileData;
+  }
+
+  /**
+   * Returns the adapter of the provided transaction manager.
+   *
+   * @param transactionManager The transaction manager.
+   * @return A non-null reference.
+   * @throws IllegalArgumentException If the transaction manager is null or was not created by this
+   *     extension.
+   */
+  private static TransactionManagerAdapter<?> toAdapter(TransactionManager<?> transactionManager) {
+    Assert.getInstance().notNull(transactionManager, "transactionManager");
+    if (!(transactionManager instanceof TransactionManagerAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided transaction manager was not created by this extension");
+    }
+    return (TransactionManagerAdapter<?>) transactionManager;
+  }
+
+  /**
+   * Returns the adapter of the provided security setting.
+   *
+   * @param asymmetricCryptoSecuritySetting The security setting.
+   * @return A non-null reference.
+   * @throws IllegalArgumentException If the security setting is null or was not created by this
+   *     extension.
+   */
+  private static AsymmetricCryptoSecuritySettingAdapter toAdapter(
+      AsymmetricCryptoSecuritySetting asymmetricCryptoSecuritySetting) {
+    Assert.getInstance()
+        .notNull(asymmetricCryptoSecuritySetting, "asymmetricCryptoSecuritySetting");
+    if (!(asymmetricCryptoSecuritySetting instanceof AsymmetricCryptoSecuritySettingAdapter)) {
+      throw new IllegalArgumentException(
+          "The provided security setting was not created by this extension");
+    }
+    return (AsymmetricCryptoSecuritySettingAdapter) asymmetricCryptoSecuritySetting;
+  }
+
   /**
    * {@inheritDoc}
    *
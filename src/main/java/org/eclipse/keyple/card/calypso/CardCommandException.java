@@ -14,6 +14,10 @@
 /**
  * Parent abstract class of all Calypso card APDU commands exceptions.
  *
+ * <p>These exceptions do not capture their stack trace, which would always be the same status
+ * check of the response. They are wrapped in the exceptions thrown to the application, which carry
+ * the stack trace.
+ *
  * @since 2.0.0
  */
 abstract class CardCommandException extends Exception {
@@ -26,7 +30,7 @@ abstract class CardCommandException extends Exception {
    * @since 2.0.0
    */
   CardCommandException(String message, CardCommandRef commandRef) {
-    super(message);
+    super(message, null, true, false);
     this.commandRef = commandRef;
   }
 
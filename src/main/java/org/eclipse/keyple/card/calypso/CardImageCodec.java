@@ -0,0 +1,324 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.eclipse.keypop.card.ApduResponseApi;
+
+/**
+ * Compact binary codec of the Calypso card images, used to exchange them between the nodes of a
+ * distributed deployment instead of their JSON form.
+ *
+ * <p>An encoded card image starts with a magic number (4 bytes) and a format version (1 byte),
+ * followed by the fields of the card image in a fixed order. Byte arrays and strings are prefixed
+ * by their length on 2 bytes ({@code FFFFh} for null), enums are written by name, and the optional
+ * values are preceded by a presence byte. The records of the files are written as raw bytes.
+ *
+ * <p>Decoding an encoded card image produces a card image having the same JSON representation as
+ * the original one. Card images can be encoded one after the other in the same buffer.
+ *
+ * @since 3.1.7
+ */
+final class CardImageCodec {
+
+  private static final int MAGIC = 0x4343494D; // "CCIM"
+  private static final byte VERSION = 1;
+  private static final int NULL_LENGTH = 0xFFFF;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final String MSG_INVALID_CARD_IMAGE = "Invalid card image: ";
+
+  private CardImageCodec() {}
+
+  /**
+   * Encodes the provided card image.
+   *
+   * @param card The card image.
+   * @return A buffer ready to be read, containing the encoded card image.
+   * @since 3.1.7
+   */
+  static ByteBuffer encode(CalypsoCardAdapter card) {
+    Output out = new Output(INITIAL_CAPACITY);
+    out.putInt(MAGIC);
+    out.putByte(VERSION);
+    card.writeBinary(out);
+    return out.toByteBuffer();
+  }
+
+  /**
+   * Decodes a card image from the current position of the provided buffer.
+   *
+   * <p>On return, the position of the buffer is just after the decoded card image.
+   *
+   * @param buffer The buffer containing the encoded card image.
+   * @return A new card image.
+   * @throws IllegalArgumentException If the encoded card image is malformed.
+   * @since 3.1.7
+   */
+  static CalypsoCardAdapter decode(ByteBuffer buffer) {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException(MSG_INVALID_CARD_IMAGE + "bad magic number");
+      }
+      byte version = buffer.get();
+      if (version != VERSION) {
+        throw new IllegalArgumentException(
+            MSG_INVALID_CARD_IMAGE + "unsupported version " + version);
+      }
+      return CalypsoCardAdapter.readBinary(buffer);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(MSG_INVALID_CARD_IMAGE + "truncated", e);
+    }
+  }
+
+  /**
+   * Reads a byte array prefixed by its length.
+   *
+   * @param in The source buffer.
+   * @return Null if a null array was written.
+   * @since 3.1.7
+   */
+  static byte[] getBytes(ByteBuffer in) {
+    int length = in.getShort() & 0xFFFF;
+    if (length == NULL_LENGTH) {
+      return null; // NOSONAR
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Reads a string prefixed by its length.
+   *
+   * @param in The source buffer.
+   * @return Null if a null string was written.
+   * @since 3.1.7
+   */
+  static String getString(ByteBuffer in) {
+    byte[] bytes = getBytes(in);
+    return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+  }
+
+  /**
+   * Reads an optional integer.
+   *
+   * @param in The source buffer.
+   * @return Null if a null value was written.
+   * @since 3.1.7
+   */
+  static Integer getOptionalInt(ByteBuffer in) {
+    return in.get() != 0 ? in.getInt() : null;
+  }
+
+  /**
+   * Reads an enum constant written by name.
+   *
+   * @param in The source buffer.
+   * @param enumType The type of the enum.
+   * @param <E> The type of the enum.
+   * @return Null if a null value was written.
+   * @throws IllegalArgumentException If the name is not a constant of the enum.
+   * @since 3.1.7
+   */
+  static <E extends Enum<E>> E getEnum(ByteBuffer in, Class<E> enumType) {
+    String name = getString(in);
+    return name != null ? Enum.valueOf(enumType, name) : null;
+  }
+
+  /**
+   * Growable output buffer of the encoder.
+   *
+   * @since 3.1.7
+   */
+  static final class Output {
+
+    private ByteBuffer buffer;
+
+    /**
+     * Constructor.
+     *
+     * @param initialCapacity The initial capacity in bytes.
+     * @since 3.1.7
+     */
+    Output(int initialCapacity) {
+      buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Writes a byte.
+     *
+     * @param value The value.
+     * @since 3.1.7
+     */
+    void putByte(byte value) {
+      ensureRemaining(1);
+      buffer.put(value);
+    }
+
+    /**
+     * Writes a short on 2 bytes.
+     *
+     * @param value The value.
+     * @since 3.1.7
+     */
+    void putShort(short value) {
+      ensureRemaining(2);
+      buffer.putShort(value);
+    }
+
+    /**
+     * Writes an int on 4 bytes.
+     *
+     * @param value The value.
+     * @since 3.1.7
+     */
+    void putInt(int value) {
+      ensureRemaining(4);
+      buffer.putInt(value);
+    }
+
+    /**
+     * Writes a byte array prefixed by its length.
+     *
+     * @param bytes The array, may be null.
+     * @since 3.1.7
+     */
+    void putBytes(byte[] bytes) {
+      if (bytes == null) {
+        putShort((short) NULL_LENGTH);
+        return;
+      }
+      if (bytes.length >= NULL_LENGTH) {
+        throw new IllegalStateException("Byte array too long: " + bytes.length);
+      }
+      ensureRemaining(2 + bytes.length);
+      buffer.putShort((short) bytes.length);
+      buffer.put(bytes);
+    }
+
+    /**
+     * Writes a string prefixed by its length.
+     *
+     * @param value The string, may be null.
+     * @since 3.1.7
+     */
+    void putString(String value) {
+      putBytes(value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    /**
+     * Writes an optional integer.
+     *
+     * @param value The value, may be null.
+     * @since 3.1.7
+     */
+    void putOptionalInt(Integer value) {
+      if (value == null) {
+        putByte((byte) 0);
+        return;
+      }
+      ensureRemaining(5);
+      buffer.put((byte) 1);
+      buffer.putInt(value);
+    }
+
+    /**
+     * Writes an enum constant by name.
+     *
+     * @param value The constant, may be null.
+     * @since 3.1.7
+     */
+    void putEnum(Enum<?> value) {
+      putString(value != null ? value.name() : null);
+    }
+
+    /**
+     * @return A buffer ready to be read, containing the written bytes.
+     * @since 3.1.7
+     */
+    ByteBuffer toByteBuffer() {
+      ByteBuffer result = buffer.duplicate();
+      // Buffer methods are called through Buffer to run on Java 8 when compiled with a later JDK
+      ((Buffer) result).flip();
+      return result;
+    }
+
+    /**
+     * Grows the buffer if needed.
+     *
+     * @param length The number of bytes about to be written.
+     */
+    private void ensureRemaining(int length) {
+      if (buffer.remaining() < length) {
+        ByteBuffer grownBuffer =
+            ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+        ((Buffer) buffer).flip();
+        grownBuffer.put(buffer);
+        buffer = grownBuffer;
+      }
+    }
+  }
+
+  /**
+   * Decoded response to the select application command.
+   *
+   * @since 3.1.7
+   */
+  static final class DecodedApduResponse implements ApduResponseApi {
+
+    private final byte[] apdu;
+
+    /**
+     * Constructor.
+     *
+     * @param apdu The APDU, including the status word.
+     * @since 3.1.7
+     */
+    DecodedApduResponse(byte[] apdu) {
+      this.apdu = apdu;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 3.1.7
+     */
+    @Override
+    public byte[] getApdu() {
+      return apdu;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 3.1.7
+     */
+    @Override
+    public byte[] getDataOut() {
+      return Arrays.copyOf(apdu, apdu.length - 2);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 3.1.7
+     */
+    @Override
+    public int getStatusWord() {
+      return ((apdu[apdu.length - 2] & 0xFF) << 8) | (apdu[apdu.length - 1] & 0xFF);
+    }
+  }
+}
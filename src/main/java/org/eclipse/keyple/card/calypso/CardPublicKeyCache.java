@@ -0,0 +1,200 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CardPublicKeySpi;
+
+/**
+ * Cache of the card public keys extracted from already verified card certificates, shared between
+ * transactions.
+ *
+ * <p>The public keys are indexed by the SHA-256 digest of the raw card certificate. They are
+ * evicted when their time to live has expired, when the validity period of their certificate may
+ * have ended or when the maximum number of entries is reached, the least recently used first. They
+ * can also be revoked individually or by issuer.
+ *
+ * @since 3.1.7
+ */
+final class CardPublicKeyCache {
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private final int maxEntries;
+  private final long timeToLiveNanos;
+  private final Map<ByteBuffer, CachedPublicKey> publicKeys;
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * Constructor.
+   *
+   * @param maxEntries The maximum number of cached public keys.
+   * @param timeToLiveMillis The time to live of a cached public key in milliseconds.
+   * @since 3.1.7
+   */
+  CardPublicKeyCache(int maxEntries, long timeToLiveMillis) {
+    this.maxEntries = maxEntries;
+    this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    this.publicKeys =
+        new LinkedHashMap<ByteBuffer, CachedPublicKey>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CachedPublicKey> eldest) {
+            return size() > CardPublicKeyCache.this.maxEntries;
+          }
+        };
+  }
+
+  /**
+   * Returns the public key extracted from the provided card certificate, if it has already been
+   * verified for a card having the provided serial number.
+   *
+   * @param cardCertificate The raw card certificate.
+   * @param cardSerialNumber The serial number of the current card.
+   * @return Null if the certificate is unknown, expired, revoked, no longer known to be valid or if
+   *     it was issued for another card.
+   * @since 3.1.7
+   */
+  synchronized CardPublicKeySpi get(byte[] cardCertificate, byte[] cardSerialNumber) {
+    ByteBuffer key = digest(cardCertificate);
+    CachedPublicKey cachedPublicKey = publicKeys.get(key);
+    if (cachedPublicKey == null) {
+      missCount++;
+      return null; // NOSONAR
+    }
+    if (System.nanoTime() - cachedPublicKey.timestamp > timeToLiveNanos
+        || System.currentTimeMillis() >= cachedPublicKey.validityEndMillis) {
+      publicKeys.remove(key);
+      missCount++;
+      return null; // NOSONAR
+    }
+    if (!Arrays.equals(cachedPublicKey.cardSerialNumber, cardSerialNumber)) {
+      missCount++;
+      return null; // NOSONAR
+    }
+    hitCount++;
+    return cachedPublicKey.publicKey;
+  }
+
+  /**
+   * Stores the public key extracted from a verified card certificate.
+   *
+   * @param cardCertificate The raw card certificate.
+   * @param cardSerialNumber The card serial number contained in the certificate.
+   * @param issuerPublicKeyReference The reference of the issuer public key.
+   * @param publicKey The card public key.
+   * @param validityEndMillis The time, in milliseconds since the epoch, from which the certificate
+   *     is no longer known to be valid.
+   * @since 3.1.7
+   */
+  synchronized void put(
+      byte[] cardCertificate,
+      byte[] cardSerialNumber,
+      byte[] issuerPublicKeyReference,
+      CardPublicKeySpi publicKey,
+      long validityEndMillis) {
+    publicKeys.put(
+        digest(cardCertificate),
+        new CachedPublicKey(
+            publicKey,
+            cardSerialNumber,
+            issuerPublicKeyReference,
+            System.nanoTime(),
+            validityEndMillis));
+  }
+
+  /**
+   * Removes the public key extracted from the provided card certificate.
+   *
+   * @param cardCertificate The raw card certificate.
+   * @since 3.1.7
+   */
+  synchronized void revoke(byte[] cardCertificate) {
+    publicKeys.remove(digest(cardCertificate));
+  }
+
+  /**
+   * Removes all the public keys extracted from card certificates issued with the provided key.
+   *
+   * @param issuerPublicKeyReference The reference of the issuer public key.
+   * @since 3.1.7
+   */
+  synchronized void revokeIssuer(byte[] issuerPublicKeyReference) {
+    Iterator<CachedPublicKey> iterator = publicKeys.values().iterator();
+    while (iterator.hasNext()) {
+      if (Arrays.equals(iterator.next().issuerPublicKeyReference, issuerPublicKeyReference)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * @return The number of lookups that returned a public key.
+   * @since 3.1.7
+   */
+  synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return The number of lookups that did not return a public key.
+   * @since 3.1.7
+   */
+  synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Computes the key of a certificate.
+   *
+   * @param cardCertificate The raw card certificate.
+   * @return A non-null reference.
+   */
+  private static ByteBuffer digest(byte[] cardCertificate) {
+    try {
+      return ByteBuffer.wrap(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(cardCertificate));
+    } catch (NoSuchAlgorithmException e) {
+      // Not expected, SHA-256 is required on every Java platform
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  /** Cached public key with the data needed for its validation and revocation. */
+  private static final class CachedPublicKey {
+
+    private final CardPublicKeySpi publicKey;
+    private final byte[] cardSerialNumber;
+    private final byte[] issuerPublicKeyReference;
+    private final long timestamp;
+    private final long validityEndMillis;
+
+    private CachedPublicKey(
+        CardPublicKeySpi publicKey,
+        byte[] cardSerialNumber,
+        byte[] issuerPublicKeyReference,
+        long timestamp,
+        long validityEndMillis) {
+      this.publicKey = publicKey;
+      this.cardSerialNumber = cardSerialNumber.clone();
+      this.issuerPublicKeyReference = issuerPublicKeyReference.clone();
+      this.timestamp = timestamp;
+      this.validityEndMillis = validityEndMillis;
+    }
+  }
+}
@@ -40,7 +40,7 @@
  *
  * @since 2.0.1
  */
-abstract class Command {
+abstract class Command implements Cloneable {
 
   static final byte[] APDU_RESPONSE_9000 = new byte[] {(byte) 0x90, 0x00};
 
@@ -58,9 +58,11 @@ abstract class Command {
     STATUS_TABLE = m;
   }
 
+  private static final StatusTable DEFAULT_STATUS_TABLE = new StatusTable(STATUS_TABLE);
+
   private final CardCommandRef commandRef;
   private final CommandContextDto commandContext;
-  private final TransactionContextDto transactionContext;
+  private TransactionContextDto transactionContext; // Replaced in the copies made for parsing
   private int le;
   private transient String name; // NOSONAR
   private ApduRequestAdapter apduRequest;
@@ -143,9 +145,7 @@ final void setApduRequest(ApduRequestAdapter apduRequest) {
   final void setApduRequestInBestEffortMode(ApduRequestAdapter apduRequest) {
     setApduRequest(apduRequest);
     if (commandContext.isSecureSessionOpen()) {
-      apduRequest
-          .addSuccessfulStatusWord(SW_FILE_NOT_FOUND)
-          .addSuccessfulStatusWord(SW_RECORD_NOT_FOUND);
+      apduRequest.addBestEffortSuccessfulStatusWords();
     }
   }
 
@@ -267,6 +267,30 @@ final boolean isCryptoServiceSynchronized() {
    */
   abstract void parseResponse(ApduResponseApi apduResponse) throws CardCommandException;
 
+  /**
+   * Creates a copy of this command bound to the provided transaction context, in order to parse a
+   * response to its APDU request without building the request again.
+   *
+   * <p>The copy shares the APDU request and the parameters of this command. It is a shallow copy,
+   * so this command must not have parsed any response itself.
+   *
+   * @param transactionContext The transaction context of the copy.
+   * @return A new instance of the same class.
+   * @since 3.1.7
+   */
+  final Command copyForParsing(TransactionContextDto transactionContext) {
+    Command copy;
+    try {
+      copy = (Command) clone();
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException(e); // Not expected, the class is cloneable
+    }
+    copy.transactionContext = transactionContext;
+    copy.apduResponse = null;
+    copy.isCryptoServiceSynchronized = false;
+    return copy;
+  }
+
   /**
    * Sets the Calypso card and invoke the {@link #setApduResponseAndCheckStatus(ApduResponseApi)}
    * method.
@@ -315,15 +339,21 @@ final void updateTerminalSessionIfNeeded(byte[] apduResponse) {
         }
       } else {
         // symmetric crypto mode
-        SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManager =
-            transactionContext.getSymmetricCryptoCardTransactionManagerSpi();
-        try {
-          symmetricCryptoCardTransactionManager.updateTerminalSessionMac(apduRequest.getApdu());
-          symmetricCryptoCardTransactionManager.updateTerminalSessionMac(apduResponse);
-        } catch (SymmetricCryptoException e) {
-          throw new CryptoException(e.getMessage(), e);
-        } catch (SymmetricCryptoIOException e) {
-          throw new CryptoIOException(e.getMessage(), e);
+        TerminalSessionMacPipeline terminalSessionMacPipeline =
+            transactionContext.getTerminalSessionMacPipeline();
+        if (terminalSessionMacPipeline != null) {
+          terminalSessionMacPipeline.submit(apduRequest.getApdu(), apduResponse);
+        } else {
+          SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManager =
+              transactionContext.getSymmetricCryptoCardTransactionManagerSpi();
+          try {
+            symmetricCryptoCardTransactionManager.updateTerminalSessionMac(apduRequest.getApdu());
+            symmetricCryptoCardTransactionManager.updateTerminalSessionMac(apduResponse);
+          } catch (SymmetricCryptoException e) {
+            throw new CryptoException(e.getMessage(), e);
+          } catch (SymmetricCryptoIOException e) {
+            throw new CryptoIOException(e.getMessage(), e);
+          }
         }
       }
     }
@@ -394,7 +424,8 @@ final void setApduResponseAndCheckStatus(ApduResponseApi apduResponse)
    * Parses the response and checks the status word in "best effort" mode.
    *
    * <p>Do not throw exception for "file not found" and "record not found" errors outside a secure
-   * session.
+   * session. These expected outcomes are detected from the status word, without building any
+   * exception.
    *
    * @param apduResponse The APDU response.
    * @return "false" in case of "best effort" mode and a "file not found" or a "record not found"
@@ -407,27 +438,38 @@ final void setApduResponseAndCheckStatus(ApduResponseApi apduResponse)
   final boolean setApduResponseAndCheckStatusInBestEffortMode(ApduResponseApi apduResponse)
       throws CardCommandException {
     this.apduResponse = apduResponse;
-    try {
-      checkStatus();
-    } catch (CardDataAccessException e) {
-      if (commandContext.isSecureSessionOpen()
-          || (apduResponse.getStatusWord() != SW_FILE_NOT_FOUND
-              && apduResponse.getStatusWord() != SW_RECORD_NOT_FOUND)) {
-        throw e;
-      }
+    if (!commandContext.isSecureSessionOpen() && isNotFoundStatus()) {
       return false;
     }
+    checkStatus();
     return true;
   }
 
+  /**
+   * Indicates whether the status word is a "file not found" or a "record not found" error, as
+   * reported by a {@link CardDataAccessException} when the status is checked.
+   *
+   * @return True if the status word is 6A82h or 6A83h and is referenced as a data access error.
+   */
+  private boolean isNotFoundStatus() {
+    int statusWord = apduResponse.getStatusWord();
+    if (statusWord != SW_FILE_NOT_FOUND && statusWord != SW_RECORD_NOT_FOUND) {
+      return false;
+    }
+    StatusProperties props = getStatusWordProperties();
+    return props != null
+        && !props.isSuccessful()
+        && props.getExceptionClass() == CardDataAccessException.class;
+  }
+
   /**
    * Returns the internal status table
    *
    * @return A not null reference
    * @since 2.0.1
    */
-  Map<Integer, StatusProperties> getStatusTable() {
-    return STATUS_TABLE;
+  StatusTable getStatusTable() {
+    return DEFAULT_STATUS_TABLE;
   }
 
   /**
@@ -580,4 +622,75 @@ Class<? extends CardCommandException> getExceptionClass() {
       return exceptionClass;
     }
   }
+
+  /**
+   * This internal class provides an immutable lookup table of status word properties indexed by the
+   * primitive status word value.
+   *
+   * <p>The table uses open addressing with linear probing and is built once when the command class
+   * is initialized. The success status word (9000h) is resolved without probing.
+   *
+   * @since 3.1.7
+   */
+  static final class StatusTable {
+
+    private static final int SW_SUCCESS = 0x9000;
+
+    private final StatusProperties successProperties;
+    private final int[] statusWords;
+    private final StatusProperties[] properties;
+    private final int mask;
+
+    /**
+     * Builds a table containing the provided status word properties.
+     *
+     * @param statusTable The status word properties indexed by status word.
+     * @since 3.1.7
+     */
+    StatusTable(Map<Integer, StatusProperties> statusTable) {
+      successProperties = statusTable.get(SW_SUCCESS);
+      int capacity = 2;
+      while (capacity < statusTable.size() * 2) {
+        capacity <<= 1;
+      }
+      statusWords = new int[capacity];
+      properties = new StatusProperties[capacity];
+      mask = capacity - 1;
+      for (Map.Entry<Integer, StatusProperties> entry : statusTable.entrySet()) {
+        int index = indexOf(entry.getKey());
+        while (properties[index] != null) {
+          index = (index + 1) & mask;
+        }
+        statusWords[index] = entry.getKey();
+        properties[index] = entry.getValue();
+      }
+    }
+
+    /**
+     * Returns the properties of the provided status word.
+     *
+     * @param statusWord The status word.
+     * @return Null if the status word is not referenced.
+     * @since 3.1.7
+     */
+    StatusProperties get(int statusWord) {
+      if (statusWord == SW_SUCCESS) {
+        return successProperties;
+      }
+      int index = indexOf(statusWord);
+      StatusProperties statusProperties;
+      while ((statusProperties = properties[index]) != null) {
+        if (statusWords[index] == statusWord) {
+          return statusProperties;
+        }
+        index = (index + 1) & mask;
+      }
+      return null;
+    }
+
+    private int indexOf(int statusWord) {
+      int h = statusWord * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+    }
+  }
 }
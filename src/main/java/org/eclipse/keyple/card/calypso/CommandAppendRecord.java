@@ -30,7 +30,7 @@ final class CommandAppendRecord extends Command {
 
   private static final Logger logger = LoggerFactory.getLogger(CommandAppendRecord.class);
 
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -59,7 +59,7 @@ final class CommandAppendRecord extends Command {
         0x6986,
         new StatusProperties("Command not allowed (no current EF)", CardDataAccessException.class));
     m.put(0x6A82, new StatusProperties("File not found", CardDataAccessException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   /* Construction arguments */
@@ -152,7 +152,7 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.0.1
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 }
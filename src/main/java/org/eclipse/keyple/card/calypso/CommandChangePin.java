@@ -29,7 +29,7 @@
  */
 final class CommandChangePin extends Command {
 
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -59,7 +59,7 @@ final class CommandChangePin extends Command {
         0x6A87,
         new StatusProperties("Lc not compatible with P2", CardIllegalParameterException.class));
     m.put(0x6B00, new StatusProperties("Incorrect P1, P2", CardIllegalParameterException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   private byte[] pin;
@@ -180,7 +180,7 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.0.1
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 }
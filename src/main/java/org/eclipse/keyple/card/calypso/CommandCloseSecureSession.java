@@ -47,7 +47,7 @@ final class CommandCloseSecureSession extends Command {
 
   private static final CardCommandRef commandRef = CardCommandRef.CLOSE_SECURE_SESSION;
 
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -63,7 +63,7 @@ final class CommandCloseSecureSession extends Command {
     m.put(
         0x6985, new StatusProperties("No session was opened", CardAccessForbiddenException.class));
     m.put(0x6988, new StatusProperties("incorrect signatureLo", CardSecurityDataException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   private final boolean isAutoRatificationAsked;
@@ -210,6 +210,8 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
     } else {
       parseResponseInSymmetricMode(responseData);
     }
+    // The session is validated by the card, the card image no longer needs to be restorable
+    getTransactionContext().getCard().discardFilesBackup();
   }
 
   /**
@@ -294,7 +296,7 @@ private void parseResponseInAsymmetricMode(byte[] responseData) {
    * @since 2.0.1
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 }
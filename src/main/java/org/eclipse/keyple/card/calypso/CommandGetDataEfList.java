@@ -30,7 +30,7 @@
  */
 final class CommandGetDataEfList extends Command {
 
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
   private static final int DESCRIPTORS_OFFSET = 2;
   private static final int DESCRIPTOR_DATA_OFFSET = 2;
   private static final int DESCRIPTOR_DATA_SFI_OFFSET = 2;
@@ -46,7 +46,7 @@ final class CommandGetDataEfList extends Command {
     m.put(
         0x6B00,
         new StatusProperties("P1 or P2 value not supported", CardDataAccessException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   /**
@@ -126,7 +126,7 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.1.0
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 
@@ -31,7 +31,7 @@ final class CommandIncreaseOrDecreaseMultiple extends Command {
 
   private static final Logger logger =
       LoggerFactory.getLogger(CommandIncreaseOrDecreaseMultiple.class);
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -70,11 +70,13 @@ final class CommandIncreaseOrDecreaseMultiple extends Command {
     m.put(
         0x6B00,
         new StatusProperties("P1 or P2 value not supported", CardIllegalParameterException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   private final byte sfi;
   private final Map<Integer, Integer> counterNumberToIncDecValueMap;
+  private transient int[] counterNumbers; // NOSONAR
+  private transient int[] incDecValues; // NOSONAR
 
   /**
    * Constructor.
@@ -84,8 +86,8 @@ final class CommandIncreaseOrDecreaseMultiple extends Command {
    * @param transactionContext The global transaction context common to all commands.
    * @param commandContext The local command context specific to each command.
    * @param sfi The SFI.
-   * @param counterNumberToIncDecValueMap The map containing the counter numbers to be incremented
-   *     and their associated increment values.
+   * @param counterNumbers The numbers of the counters to be incremented/decremented.
+   * @param incDecValues The increment/decrement values, in the same order as the counter numbers.
    * @since 2.1.0
    */
   CommandIncreaseOrDecreaseMultiple(
@@ -93,7 +95,8 @@ final class CommandIncreaseOrDecreaseMultiple extends Command {
       TransactionContextDto transactionContext,
       CommandContextDto commandContext,
       byte sfi,
-      SortedMap<Integer, Integer> counterNumberToIncDecValueMap) {
+      int[] counterNumbers,
+      int[] incDecValues) {
 
     super(
         isDecreaseCommand ? CardCommandRef.DECREASE_MULTIPLE : CardCommandRef.INCREASE_MULTIPLE,
@@ -102,16 +105,19 @@ final class CommandIncreaseOrDecreaseMultiple extends Command {
         commandContext);
 
     this.sfi = sfi;
-    this.counterNumberToIncDecValueMap = counterNumberToIncDecValueMap;
+    this.counterNumbers = counterNumbers;
+    this.incDecValues = incDecValues;
+    // Serialized form of the command, kept in the APDU order.
+    counterNumberToIncDecValueMap = new LinkedHashMap<>(counterNumbers.length * 2);
+    for (int i = 0; i < counterNumbers.length; i++) {
+      counterNumberToIncDecValueMap.put(counterNumbers[i], incDecValues[i]);
+    }
     byte p1 = 0;
     byte p2 = (byte) (sfi * 8);
-    byte[] dataIn = new byte[4 * counterNumberToIncDecValueMap.size()];
-    int index = 0;
-    for (Map.Entry<Integer, Integer> entry : counterNumberToIncDecValueMap.entrySet()) {
-      dataIn[index] = entry.getKey().byteValue();
-      Integer incDecValue = entry.getValue();
-      ByteArrayUtil.copyBytes(incDecValue, dataIn, index + 1, 3);
-      index += 4;
+    byte[] dataIn = new byte[4 * counterNumbers.length];
+    for (int i = 0, index = 0; i < counterNumbers.length; i++, index += 4) {
+      dataIn[index] = (byte) counterNumbers[i];
+      ByteArrayUtil.copyBytes(incDecValues[i], dataIn, index + 1, 3);
     }
     setApduRequest(
         new ApduRequestAdapter(
@@ -125,11 +131,11 @@ final class CommandIncreaseOrDecreaseMultiple extends Command {
 
     if (logger.isDebugEnabled()) {
       StringBuilder extraInfo = new StringBuilder("sfi: " + HexUtil.toHex(sfi) + "h");
-      for (Map.Entry<Integer, Integer> entry : counterNumberToIncDecValueMap.entrySet()) {
+      for (int i = 0; i < counterNumbers.length; i++) {
         extraInfo.append(", ");
-        extraInfo.append(entry.getKey());
+        extraInfo.append(counterNumbers[i]);
         extraInfo.append(": ");
-        extraInfo.append(entry.getValue());
+        extraInfo.append(incDecValues[i]);
       }
       addSubName(extraInfo.toString());
     }
@@ -197,7 +203,7 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.1.0
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 
@@ -210,16 +216,18 @@ Map<Integer, StatusProperties> getStatusTable() {
    */
   byte[] buildAnticipatedResponse() {
     // Response = CCVVVVVV..CCVVVVVV9000
-    Map<Integer, Integer> oldCounterValues = getOldCounterValues();
-    byte[] response = new byte[2 + (counterNumberToIncDecValueMap.size() * 4)];
+    initCounterArraysIfNeeded();
+    FileDataAdapter fileData = getFileData();
+    byte[] response = new byte[2 + (counterNumbers.length * 4)];
     int index = 0;
-    for (Map.Entry<Integer, Integer> entry : counterNumberToIncDecValueMap.entrySet()) {
-      response[index] = entry.getKey().byteValue();
+    for (int i = 0; i < counterNumbers.length; i++) {
+      int oldCounterValue = fileData.getCounterValue(counterNumbers[i]);
+      response[index] = (byte) counterNumbers[i];
       int newCounterValue;
       if (getCommandRef() == CardCommandRef.DECREASE_MULTIPLE) {
-        newCounterValue = oldCounterValues.get(entry.getKey()) - entry.getValue();
+        newCounterValue = oldCounterValue - incDecValues[i];
       } else {
-        newCounterValue = oldCounterValues.get(entry.getKey()) + entry.getValue();
+        newCounterValue = oldCounterValue + incDecValues[i];
       }
       ByteArrayUtil.copyBytes(newCounterValue, response, index + 1, 3);
       index += 4;
@@ -229,17 +237,44 @@ byte[] buildAnticipatedResponse() {
   }
 
   /**
-   * Gets the value of all counters currently presents in the card image.
+   * Rebuilds the transient counter arrays from the serialized map when the command has been
+   * deserialized.
+   */
+  private void initCounterArraysIfNeeded() {
+    if (counterNumbers != null) {
+      return;
+    }
+    int[] numbers = new int[counterNumberToIncDecValueMap.size()];
+    int[] values = new int[numbers.length];
+    int i = 0;
+    for (Map.Entry<Integer, Integer> entry : counterNumberToIncDecValueMap.entrySet()) {
+      numbers[i] = entry.getKey();
+      values[i] = entry.getValue();
+      i++;
+    }
+    incDecValues = values;
+    counterNumbers = numbers;
+  }
+
+  /**
+   * Gets the data of the counters file currently present in the card image.
    *
-   * @return A not empty map.
+   * @return A not null reference.
    * @throws IllegalStateException If some expected counters have not been read beforehand.
    */
-  private Map<Integer, Integer> getOldCounterValues() {
+  private FileDataAdapter getFileData() {
     ElementaryFile ef = getTransactionContext().getCard().getFileBySfi(sfi);
     if (ef != null) {
-      Map<Integer, Integer> allCountersValue = ef.getData().getAllCountersValue();
-      if (allCountersValue.keySet().containsAll(counterNumberToIncDecValueMap.keySet())) {
-        return allCountersValue;
+      FileDataAdapter fileData = (FileDataAdapter) ef.getData();
+      boolean allCountersAvailable = true;
+      for (int counterNumber : counterNumbers) {
+        if (fileData.getCounterValue(counterNumber) == FileDataAdapter.COUNTER_NOT_SET) {
+          allCountersAvailable = false;
+          break;
+        }
+      }
+      if (allCountersAvailable) {
+        return fileData;
       }
     }
     throw new IllegalStateException(
@@ -41,7 +41,7 @@ final class CommandOpenSecureSession extends Command {
   private static final Logger logger = LoggerFactory.getLogger(CommandOpenSecureSession.class);
   private static final String PATTERN_1_BYTE_HEX = "%02Xh";
 
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -86,7 +86,7 @@ final class CommandOpenSecureSession extends Command {
         0x6200,
         new StatusProperties(
             "Successful execution, with warning (Pre-Open variant, secure session not opened)"));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   private final WriteAccessLevel writeAccessLevel;
@@ -688,7 +688,7 @@ private void parsePki(byte[] apduResponseData) {
    * @since 2.0.1
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 }
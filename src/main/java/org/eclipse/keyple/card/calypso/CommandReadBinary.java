@@ -31,7 +31,7 @@
 final class CommandReadBinary extends Command {
 
   private static final Logger logger = LoggerFactory.getLogger(CommandReadBinary.class);
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -60,13 +60,14 @@ final class CommandReadBinary extends Command {
     m.put(
         0x6B00,
         new StatusProperties("P1 value not supported", CardIllegalParameterException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   private final byte sfi;
   private final int offset;
   private final transient boolean isPreOpenMode; // NOSONAR
   private transient byte[] anticipatedDataOut; // NOSONAR
+  private final transient ContentAssembly contentAssembly; // NOSONAR
 
   /**
    * Constructor.
@@ -84,6 +85,28 @@ final class CommandReadBinary extends Command {
       byte sfi,
       int offset,
       int length) {
+    this(transactionContext, commandContext, sfi, offset, length, null);
+  }
+
+  /**
+   * Constructor of a command reading a part of a larger content, the response of which is put in
+   * the provided content assembly instead of being directly put in the card image.
+   *
+   * @param transactionContext The global transaction context common to all commands.
+   * @param commandContext The local command context specific to each command.
+   * @param sfi The sfi to select.
+   * @param offset The offset.
+   * @param length The number of bytes to read.
+   * @param contentAssembly The content assembly shared by all the parts, null if none.
+   * @since 3.1.7
+   */
+  CommandReadBinary(
+      TransactionContextDto transactionContext,
+      CommandContextDto commandContext,
+      byte sfi,
+      int offset,
+      int length,
+      ContentAssembly contentAssembly) {
 
     super(CardCommandRef.READ_BINARY, length, transactionContext, commandContext);
 
@@ -97,6 +120,7 @@ final class CommandReadBinary extends Command {
 
     this.sfi = sfi;
     this.offset = offset;
+    this.contentAssembly = contentAssembly;
 
     byte msb = (byte) (offset >> Byte.SIZE);
     byte lsb = (byte) (offset & 0xFF);
@@ -202,15 +226,30 @@ private byte[] buildAnticipatedResponse() {
   @Override
   void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
     decryptResponseAndUpdateTerminalSessionMacIfNeeded(apduResponse);
-    if (!setApduResponseAndCheckStatusInBestEffortMode(apduResponse)) {
+    boolean isSuccessful = false;
+    try {
+      isSuccessful = setApduResponseAndCheckStatusInBestEffortMode(apduResponse);
+    } finally {
+      if (!isSuccessful && contentAssembly != null) {
+        contentAssembly.addPart(getTransactionContext().getCard(), offset, null);
+      }
+    }
+    if (!isSuccessful) {
       return;
     }
-    getTransactionContext().getCard().setContent(sfi, 1, apduResponse.getDataOut(), offset);
+    if (contentAssembly != null) {
+      contentAssembly.addPart(getTransactionContext().getCard(), offset, apduResponse.getDataOut());
+    } else {
+      getTransactionContext().getCard().setContent(sfi, 1, apduResponse.getDataOut(), offset);
+    }
     if (!isCryptoServiceSynchronized()) {
       updateTerminalSessionIfNeeded();
     } else if (getCommandContext().isSecureSessionOpen()
         && isPreOpenMode
         && !Arrays.equals(apduResponse.getDataOut(), anticipatedDataOut)) {
+      if (contentAssembly != null) {
+        contentAssembly.flush(getTransactionContext().getCard());
+      }
       throw new CardSecurityContextException(
           "Data out does not match the anticipated data out", CardCommandRef.READ_BINARY);
     }
@@ -222,7 +261,87 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.1.0
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
+
+  /**
+   * Assembly of the content read by several "Read Binary" commands reading consecutive parts of the
+   * same binary file.
+   *
+   * <p>The parts are copied into a buffer sized from the total number of bytes to read, which is
+   * put in the card image once all the parts have been processed, instead of reallocating and
+   * copying the file content for each part. The content already received is also put in the card
+   * image as soon as a part fails, so that the card image is the same as if each part had been put
+   * in it individually.
+   *
+   * @since 3.1.7
+   */
+  static final class ContentAssembly {
+
+    private final byte sfi;
+    private final int offset;
+    private final byte[] buffer;
+    private int remainingParts;
+    private int start; // Start of the content not yet put in the card image, relative to offset
+    private int end; // End of the content received so far, relative to offset
+
+    /**
+     * Constructor.
+     *
+     * @param sfi The SFI of the file.
+     * @param offset The offset of the first part.
+     * @param length The total number of bytes to read.
+     * @param nbParts The number of parts.
+     * @since 3.1.7
+     */
+    ContentAssembly(byte sfi, int offset, int length, int nbParts) {
+      this.sfi = sfi;
+      this.offset = offset;
+      this.buffer = new byte[length];
+      this.remainingParts = nbParts;
+    }
+
+    /**
+     * Adds the content of a part, and puts the assembled content in the card image if it is the
+     * last part or if the part failed.
+     *
+     * @param card The card image.
+     * @param partOffset The offset of the part.
+     * @param content The content read, null if the part failed.
+     * @since 3.1.7
+     */
+    void addPart(CalypsoCardAdapter card, int partOffset, byte[] content) {
+      if (content == null) {
+        flush(card);
+      } else {
+        int position = partOffset - offset;
+        if (position != end) {
+          flush(card);
+          start = position;
+        }
+        int length = Math.min(content.length, buffer.length - position);
+        System.arraycopy(content, 0, buffer, position, length);
+        end = position + length;
+      }
+      if (--remainingParts == 0) {
+        flush(card);
+      }
+    }
+
+    /**
+     * Puts the content received and not yet put in the card image.
+     *
+     * @param card The card image.
+     * @since 3.1.7
+     */
+    void flush(CalypsoCardAdapter card) {
+      if (end > start) {
+        byte[] content =
+            start == 0 && end == buffer.length ? buffer : Arrays.copyOfRange(buffer, start, end);
+        card.setContent(sfi, 1, content, offset + start);
+      }
+      start = end;
+    }
+  }
 }
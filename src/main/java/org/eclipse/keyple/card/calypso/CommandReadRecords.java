@@ -13,6 +13,7 @@
 
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,7 +33,7 @@ final class CommandReadRecords extends Command {
 
   private static final Logger logger = LoggerFactory.getLogger(CommandReadRecords.class);
 
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -61,7 +62,7 @@ final class CommandReadRecords extends Command {
     m.put(
         0x6B00,
         new StatusProperties("P2 value not supported", CardIllegalParameterException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   /**
@@ -222,7 +223,7 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
         byte len = dataOut[index++];
         getTransactionContext()
             .getCard()
-            .setContent((byte) sfi, recordNb, Arrays.copyOfRange(dataOut, index, index + len));
+            .setContentView((byte) sfi, recordNb, ByteBuffer.wrap(dataOut, index, len));
         index = index + len;
         apduLen = apduLen - 2 - len;
       }
@@ -232,6 +233,10 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
     } else if (getCommandContext().isSecureSessionOpen()
         && isPreOpenMode
         && !Arrays.equals(dataOut, anticipatedDataOut)) {
+      RecordContentCache recordContentCache = getTransactionContext().getRecordContentCache();
+      if (recordContentCache != null) {
+        recordContentCache.invalidate(getTransactionContext().getCard(), sfi);
+      }
       throw new CardSecurityContextException(
           "Data out does not match the anticipated data out", CardCommandRef.READ_RECORDS);
     }
@@ -243,18 +248,21 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.0.1
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 
   /**
    * Builds the anticipated APDU response with the SW.
    *
+   * <p>The records not present in the card image are searched in the record content cache, if
+   * enabled.
+   *
    * @return Null if the record or some records have not been read beforehand.
    */
   private byte[] buildAnticipatedResponse() {
     ElementaryFile ef = getTransactionContext().getCard().getFileBySfi((byte) sfi);
-    if (ef == null) {
+    if (ef == null && getTransactionContext().getRecordContentCache() == null) {
       return null; // NOSONAR
     }
     return readMode == CommandReadRecords.ReadMode.ONE_RECORD
@@ -269,7 +277,7 @@ private byte[] buildAnticipatedResponse() {
    * @return Null if the record has not been read beforehand.
    */
   private byte[] buildAnticipatedResponseForOneRecordMode(ElementaryFile ef) {
-    byte[] content = ef.getData().getContent(firstRecordNumber);
+    byte[] content = getKnownRecordContent(ef, firstRecordNumber);
     if (content.length > 0 && content.length >= getLe()) {
       int length = getLe() != 0 ? getLe() : content.length;
       byte[] apdu = new byte[length + 2];
@@ -292,7 +300,7 @@ private byte[] buildAnticipatedResponseForMultipleRecordsMode(ElementaryFile ef)
     int lastRecordNumber = firstRecordNumber + nbRecords - 1;
     int index = 0;
     for (int i = firstRecordNumber; i <= lastRecordNumber; i++) {
-      byte[] content = ef.getData().getContent(i);
+      byte[] content = getKnownRecordContent(ef, i);
       if (content.length >= recordSize) {
         apdu[index++] = (byte) i; // Record number
         apdu[index++] = (byte) recordSize; // Record size
@@ -305,4 +313,29 @@ private byte[] buildAnticipatedResponseForMultipleRecordsMode(ElementaryFile ef)
     apdu[index] = (byte) 0x90; // SW 9000
     return apdu;
   }
+
+  /**
+   * Returns the known content of a record, from the card image or else from the record content
+   * cache.
+   *
+   * @param ef The EF or null if not present in the card image.
+   * @param recordNumber The record number.
+   * @return An empty array if the record is unknown.
+   */
+  private byte[] getKnownRecordContent(ElementaryFile ef, int recordNumber) {
+    if (ef != null) {
+      byte[] content = ((FileDataAdapter) ef.getData()).getRecord(recordNumber);
+      if (content != null) {
+        return content;
+      }
+    }
+    RecordContentCache recordContentCache = getTransactionContext().getRecordContentCache();
+    if (recordContentCache != null) {
+      byte[] content = recordContentCache.get(getTransactionContext().getCard(), sfi, recordNumber);
+      if (content != null) {
+        return content;
+      }
+    }
+    return new byte[0];
+  }
 }
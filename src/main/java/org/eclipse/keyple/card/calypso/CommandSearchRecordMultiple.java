@@ -13,6 +13,7 @@
 
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,7 +31,7 @@
 final class CommandSearchRecordMultiple extends Command {
 
   private static final Logger logger = LoggerFactory.getLogger(CommandSearchRecordMultiple.class);
-  private static final Map<Integer, StatusProperties> STATUS_TABLE;
+  private static final StatusTable STATUS_TABLE;
 
   static {
     Map<Integer, StatusProperties> m = new HashMap<>(Command.STATUS_TABLE);
@@ -76,7 +77,7 @@ final class CommandSearchRecordMultiple extends Command {
     m.put(
         0x6B00,
         new StatusProperties("P1 or P2 value not supported", CardIllegalParameterException.class));
-    STATUS_TABLE = m;
+    STATUS_TABLE = new StatusTable(m);
   }
 
   private final SearchCommandDataAdapter data;
@@ -211,10 +212,10 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
     if (data.isFetchFirstMatchingResult() && nbRecords > 0) {
       getTransactionContext()
           .getCard()
-          .setContent(
+          .setContentView(
               data.getSfi(),
               data.getMatchingRecordNumbers().get(0),
-              Arrays.copyOfRange(dataOut, nbRecords + 1, dataOut.length));
+              ByteBuffer.wrap(dataOut, nbRecords + 1, dataOut.length - nbRecords - 1));
     }
     updateTerminalSessionIfNeeded();
   }
@@ -225,7 +226,7 @@ void parseResponse(ApduResponseApi apduResponse) throws CardCommandException {
    * @since 2.1.0
    */
   @Override
-  Map<Integer, StatusProperties> getStatusTable() {
+  StatusTable getStatusTable() {
     return STATUS_TABLE;
   }
 }
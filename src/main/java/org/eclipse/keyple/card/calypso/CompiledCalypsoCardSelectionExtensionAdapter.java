@@ -0,0 +1,190 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.keypop.calypso.card.GetDataTag;
+import org.eclipse.keypop.calypso.card.SelectFileControl;
+import org.eclipse.keypop.calypso.card.WriteAccessLevel;
+import org.eclipse.keypop.calypso.card.card.CalypsoCardSelectionExtension;
+import org.eclipse.keypop.card.CardSelectionResponseApi;
+import org.eclipse.keypop.card.ParseException;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.card.spi.CardSelectionExtensionSpi;
+import org.eclipse.keypop.card.spi.CardSelectionRequestSpi;
+import org.eclipse.keypop.card.spi.SmartCardSpi;
+
+/**
+ * Immutable and thread-safe implementation of {@link CalypsoCardSelectionExtension}, compiled from
+ * a configured {@link CalypsoCardSelectionExtensionAdapter}.
+ *
+ * <p>The card selection request and its APDUs are built once and shared by all the readers. The
+ * responses of a card are parsed by lightweight copies of the compiled commands, which share their
+ * APDU requests and parameters.
+ *
+ * @since 3.1.7
+ */
+final class CompiledCalypsoCardSelectionExtensionAdapter
+    implements CalypsoCardSelectionExtension, CardSelectionExtensionSpi {
+
+  private static final String MSG_COMPILED =
+      "The card selection extension is compiled and can no longer be modified";
+
+  private final List<Command> commands;
+  private final CardSelectionRequestSpi cardSelectionRequest;
+
+  /**
+   * Constructor.
+   *
+   * @param commands The prepared commands, dedicated to this extension and never used to parse a
+   *     response themselves.
+   * @param cardSelectionRequest The card selection request built from the prepared commands.
+   * @since 3.1.7
+   */
+  CompiledCalypsoCardSelectionExtensionAdapter(
+      List<Command> commands, CardSelectionRequestSpi cardSelectionRequest) {
+    this.commands = Collections.unmodifiableList(new ArrayList<>(commands));
+    CardRequestSpi cardRequest = cardSelectionRequest.getCardRequest();
+    this.cardSelectionRequest =
+        new CardSelectionRequestAdapter(
+            cardRequest != null
+                ? new CardRequestAdapter(
+                    Collections.unmodifiableList(new ArrayList<>(cardRequest.getApduRequests())),
+                    false)
+                : null,
+            cardSelectionRequest.getSuccessfulSelectionStatusWords());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension acceptInvalidatedCard() {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension prepareReadRecord(byte sfi, int recordNumber) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension prepareReadBinary(byte sfi, int offset, int nbBytesToRead) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension prepareReadCounter(byte sfi, int nbCountersToRead) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension preparePreOpenSecureSession(
+      WriteAccessLevel writeAccessLevel) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension prepareGetData(GetDataTag tag) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension prepareSelectFile(short lid) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException Always.
+   * @since 3.1.7
+   */
+  @Override
+  public CalypsoCardSelectionExtension prepareSelectFile(SelectFileControl selectControl) {
+    throw new IllegalStateException(MSG_COMPILED);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The same instance is returned on each call.
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public CardSelectionRequestSpi getCardSelectionRequest() {
+    return cardSelectionRequest;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The responses are parsed by copies of the compiled commands made for each call, without
+   * building their APDU requests again, so this method may be invoked concurrently.
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public SmartCardSpi parse(CardSelectionResponseApi cardSelectionResponse) throws ParseException {
+    TransactionContextDto transactionContext = new TransactionContextDto();
+    List<Command> parsingCommands = new ArrayList<>(commands.size());
+    for (Command command : commands) {
+      parsingCommands.add(command.copyForParsing(transactionContext));
+    }
+    return CalypsoCardSelectionExtensionAdapter.parseCardSelectionResponse(
+        cardSelectionResponse, parsingCommands);
+  }
+}
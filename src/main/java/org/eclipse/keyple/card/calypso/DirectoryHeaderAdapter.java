@@ -11,9 +11,12 @@
  ************************************************************************************** */
 package org.eclipse.keyple.card.calypso;
 
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.EnumMap;
+import java.util.Map;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keypop.calypso.card.WriteAccessLevel;
 import org.eclipse.keypop.calypso.card.card.DirectoryHeader;
 
@@ -22,7 +25,7 @@
  *
  * @since 2.0.0
  */
-class DirectoryHeaderAdapter implements DirectoryHeader {
+class DirectoryHeaderAdapter implements DirectoryHeader, JsonRenderer.Renderable {
 
   private final short lid;
   private final byte[] accessConditions;
@@ -226,6 +229,92 @@ public int hashCode() {
    */
   @Override
   public String toString() {
-    return JsonUtil.toJson(this);
+    return JsonRenderer.render(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public void writeJson(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    JsonRenderer.writeHex(writer, "lid", lid);
+    JsonRenderer.writeHex(writer, "accessConditions", accessConditions);
+    JsonRenderer.writeHex(writer, "keyIndexes", keyIndexes);
+    JsonRenderer.writeHex(writer, "dfStatus", dfStatus);
+    writeKeyMap(writer, "kif", kif);
+    writeKeyMap(writer, "kvc", kvc);
+    writer.endObject();
+  }
+
+  /**
+   * Writes the directory header in the binary format of {@link CardImageCodec}.
+   *
+   * @param out The destination.
+   * @since 3.1.7
+   */
+  void writeBinary(CardImageCodec.Output out) {
+    out.putShort(lid);
+    out.putBytes(accessConditions);
+    out.putBytes(keyIndexes);
+    out.putByte(dfStatus);
+    writeKeyMap(out, kif);
+    writeKeyMap(out, kvc);
+  }
+
+  /**
+   * Reads a directory header written by {@link #writeBinary(CardImageCodec.Output)}.
+   *
+   * @param in The source buffer.
+   * @return A new instance.
+   * @since 3.1.7
+   */
+  static DirectoryHeaderAdapter readBinary(ByteBuffer in) {
+    DirectoryHeaderBuilder builder =
+        builder()
+            .lid(in.getShort())
+            .accessConditions(CardImageCodec.getBytes(in))
+            .keyIndexes(CardImageCodec.getBytes(in))
+            .dfStatus(in.get());
+    for (int i = in.get(); i > 0; i--) {
+      builder.kif(CardImageCodec.getEnum(in, WriteAccessLevel.class), in.get());
+    }
+    for (int i = in.get(); i > 0; i--) {
+      builder.kvc(CardImageCodec.getEnum(in, WriteAccessLevel.class), in.get());
+    }
+    return (DirectoryHeaderAdapter) builder.build();
+  }
+
+  /**
+   * Writes a map of key identifiers indexed by write access level in binary format.
+   *
+   * @param out The destination.
+   * @param keys The map.
+   */
+  private static void writeKeyMap(CardImageCodec.Output out, Map<WriteAccessLevel, Byte> keys) {
+    out.putByte((byte) keys.size());
+    for (Map.Entry<WriteAccessLevel, Byte> entry : keys.entrySet()) {
+      out.putEnum(entry.getKey());
+      out.putByte(entry.getValue());
+    }
+  }
+
+  /**
+   * Writes a map of key identifiers indexed by write access level.
+   *
+   * @param writer The JSON writer.
+   * @param name The name of the map.
+   * @param keys The map.
+   * @throws IOException If an I/O error occurs.
+   */
+  private static void writeKeyMap(JsonWriter writer, String name, Map<WriteAccessLevel, Byte> keys)
+      throws IOException {
+    writer.name(name).beginObject();
+    for (Map.Entry<WriteAccessLevel, Byte> entry : keys.entrySet()) {
+      JsonRenderer.writeHex(writer, entry.getKey().name(), entry.getValue());
+    }
+    writer.endObject();
   }
 }
@@ -11,6 +11,8 @@
  ************************************************************************************** */
 package org.eclipse.keyple.card.calypso;
 
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.util.*;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.eclipse.keyple.core.util.HexUtil;
@@ -43,13 +45,25 @@ private DtoAdapters() {}
    *
    * @since 2.0.0
    */
-  static final class ApduRequestAdapter implements ApduRequestSpi {
+  static final class ApduRequestAdapter implements ApduRequestSpi, JsonRenderer.Renderable {
 
     private static final int DEFAULT_SUCCESSFUL_CODE = 0x9000;
 
+    // Immutable sets shared by all the requests until a specific status word is added
+    private static final Set<Integer> DEFAULT_SUCCESSFUL_STATUS_WORDS =
+        Collections.singleton(DEFAULT_SUCCESSFUL_CODE);
+    private static final Set<Integer> BEST_EFFORT_SUCCESSFUL_STATUS_WORDS =
+        Collections.unmodifiableSet(
+            new HashSet<>(
+                Arrays.asList(
+                    DEFAULT_SUCCESSFUL_CODE,
+                    CalypsoCardConstant.SW_FILE_NOT_FOUND,
+                    CalypsoCardConstant.SW_RECORD_NOT_FOUND)));
+
     private byte[] apdu;
-    private final Set<Integer> successfulStatusWords;
+    private Set<Integer> successfulStatusWords;
     private String info;
+    private transient boolean isSuccessfulStatusWordsShared; // NOSONAR
 
     /**
      * Builds an APDU request from a raw byte buffer.
@@ -61,8 +75,8 @@ static final class ApduRequestAdapter implements ApduRequestSpi {
      */
     ApduRequestAdapter(byte[] apdu) {
       this.apdu = apdu;
-      successfulStatusWords = new HashSet<>();
-      successfulStatusWords.add(DEFAULT_SUCCESSFUL_CODE);
+      successfulStatusWords = DEFAULT_SUCCESSFUL_STATUS_WORDS;
+      isSuccessfulStatusWordsShared = true;
     }
 
     /**
@@ -75,13 +89,35 @@ static final class ApduRequestAdapter implements ApduRequestSpi {
      * @since 2.0.0
      */
     ApduRequestAdapter addSuccessfulStatusWord(int successfulStatusWord) {
+      if (isSuccessfulStatusWordsShared) {
+        successfulStatusWords = new HashSet<>(successfulStatusWords);
+        isSuccessfulStatusWordsShared = false;
+      }
       successfulStatusWords.add(successfulStatusWord);
       return this;
     }
 
+    /**
+     * Adds the status words {@code 6A82h} (file not found) and {@code 6A83h} (record not found) to
+     * the list of those that should be considered successful for the APDU.
+     *
+     * @return The object instance.
+     * @since 3.1.7
+     */
+    ApduRequestAdapter addBestEffortSuccessfulStatusWords() {
+      if (successfulStatusWords == DEFAULT_SUCCESSFUL_STATUS_WORDS) {
+        successfulStatusWords = BEST_EFFORT_SUCCESSFUL_STATUS_WORDS;
+        return this;
+      }
+      return addSuccessfulStatusWord(CalypsoCardConstant.SW_FILE_NOT_FOUND)
+          .addSuccessfulStatusWord(CalypsoCardConstant.SW_RECORD_NOT_FOUND);
+    }
+
     /**
      * {@inheritDoc}
      *
+     * <p>The returned set may be shared between several requests and must not be modified.
+     *
      * @since 2.0.0
      */
     @Override
@@ -142,7 +178,27 @@ void setApdu(byte[] apdu) {
      */
     @Override
     public String toString() {
-      return "APDU_REQUEST = " + JsonUtil.toJson(this);
+      return "APDU_REQUEST = " + JsonRenderer.render(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 3.1.7
+     */
+    @Override
+    public void writeJson(JsonWriter writer) throws IOException {
+      writer.beginObject();
+      JsonRenderer.writeHex(writer, "apdu", apdu);
+      writer.name("successfulStatusWords").beginArray();
+      for (Integer statusWord : successfulStatusWords) {
+        writer.value(HexUtil.toHex(statusWord.shortValue()));
+      }
+      writer.endArray();
+      if (info != null) {
+        writer.name("info").value(info);
+      }
+      writer.endObject();
     }
   }
 
@@ -232,6 +288,20 @@ static final class CardSelectionRequestAdapter implements CardSelectionRequestSp
       successfulSelectionStatusWords.add(SW_DEFAULT_SUCCESSFUL);
     }
 
+    /**
+     * Builds an immutable card selection request.
+     *
+     * @param cardRequest The card request.
+     * @param successfulSelectionStatusWords The status words accepted for the selection.
+     * @since 3.1.7
+     */
+    CardSelectionRequestAdapter(
+        CardRequestSpi cardRequest, Set<Integer> successfulSelectionStatusWords) {
+      this.cardRequest = cardRequest;
+      this.successfulSelectionStatusWords =
+          Collections.unmodifiableSet(new LinkedHashSet<>(successfulSelectionStatusWords));
+    }
+
     /**
      * Adds the status word to the acceptation list.
      *
@@ -916,10 +986,12 @@ boolean isEncryptionActive() {
   static final class TransactionContextDto {
 
     private CalypsoCardAdapter card;
-    private final SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi;
+    private SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi;
     private final AsymmetricCryptoCardTransactionManagerSpi
         asymmetricCryptoCardTransactionManagerSpi;
     private boolean isSecureSessionOpen;
+    private transient TerminalSessionMacPipeline terminalSessionMacPipeline; // NOSONAR
+    private transient RecordContentCache recordContentCache; // NOSONAR
 
     /**
      * Constructor for symmetric crypto operations.
@@ -987,13 +1059,66 @@ CalypsoCardAdapter getCard() {
     }
 
     /**
+     * Returns the symmetric crypto service, after completion of the pending terminal session MAC
+     * updates if the pipelined mode is enabled.
+     *
      * @return The symmetric crypto service or "null" if not set.
      * @since 2.3.2
      */
     SymmetricCryptoCardTransactionManagerSpi getSymmetricCryptoCardTransactionManagerSpi() {
+      if (terminalSessionMacPipeline != null) {
+        terminalSessionMacPipeline.drain();
+      }
       return symmetricCryptoCardTransactionManagerSpi;
     }
 
+    /**
+     * @return The terminal session MAC pipeline or "null" if the pipelined mode is not enabled.
+     * @since 3.1.7
+     */
+    TerminalSessionMacPipeline getTerminalSessionMacPipeline() {
+      return terminalSessionMacPipeline;
+    }
+
+    /**
+     * Sets the terminal session MAC pipeline.
+     *
+     * @param terminalSessionMacPipeline The pipeline or "null" to disable the pipelined mode.
+     * @since 3.1.7
+     */
+    void setTerminalSessionMacPipeline(TerminalSessionMacPipeline terminalSessionMacPipeline) {
+      this.terminalSessionMacPipeline = terminalSessionMacPipeline;
+    }
+
+    /**
+     * @return The cache of the record contents or "null" if not enabled.
+     * @since 3.1.7
+     */
+    RecordContentCache getRecordContentCache() {
+      return recordContentCache;
+    }
+
+    /**
+     * Sets the cache of the record contents used to anticipate the responses in pre-open mode.
+     *
+     * @param recordContentCache The cache or "null" to disable it.
+     * @since 3.1.7
+     */
+    void setRecordContentCache(RecordContentCache recordContentCache) {
+      this.recordContentCache = recordContentCache;
+    }
+
+    /**
+     * Sets the symmetric crypto service, when the transaction manager is bound to a new card.
+     *
+     * @param symmetricCryptoCardTransactionManagerSpi The symmetric crypto service.
+     * @since 3.1.7
+     */
+    void setSymmetricCryptoCardTransactionManagerSpi(
+        SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi) {
+      this.symmetricCryptoCardTransactionManagerSpi = symmetricCryptoCardTransactionManagerSpi;
+    }
+
     /**
      * @return The asymmetric crypto service or "null" if not set.
      * @since 3.1.0
@@ -11,7 +11,9 @@
  ************************************************************************************** */
 package org.eclipse.keyple.card.calypso;
 
-import org.eclipse.keyple.core.util.json.JsonUtil;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import org.eclipse.keypop.calypso.card.card.ElementaryFile;
 
 /**
@@ -19,7 +21,7 @@
  *
  * @since 2.0.0
  */
-class ElementaryFileAdapter implements ElementaryFile {
+class ElementaryFileAdapter implements ElementaryFile, JsonRenderer.Renderable {
 
   private final byte sfi;
   private FileHeaderAdapter header;
@@ -128,6 +130,51 @@ public int hashCode() {
    */
   @Override
   public String toString() {
-    return JsonUtil.toJson(this);
+    return JsonRenderer.render(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public void writeJson(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    JsonRenderer.writeHex(writer, "sfi", sfi);
+    JsonRenderer.writeObject(writer, "header", header);
+    JsonRenderer.writeObject(writer, "data", data);
+    writer.endObject();
+  }
+
+  /**
+   * Writes the EF in the binary format of {@link CardImageCodec}.
+   *
+   * @param out The destination.
+   * @since 3.1.7
+   */
+  void writeBinary(CardImageCodec.Output out) {
+    out.putByte(sfi);
+    out.putByte((byte) (header != null ? 1 : 0));
+    if (header != null) {
+      header.writeBinary(out);
+    }
+    data.writeBinary(out);
+  }
+
+  /**
+   * Reads an EF written by {@link #writeBinary(CardImageCodec.Output)}.
+   *
+   * @param in The source buffer.
+   * @return A new instance.
+   * @since 3.1.7
+   */
+  static ElementaryFileAdapter readBinary(ByteBuffer in) {
+    ElementaryFileAdapter ef = new ElementaryFileAdapter(in.get());
+    if (in.get() != 0) {
+      ef.header = FileHeaderAdapter.readBinary(in);
+    }
+    ef.data.readBinary(in);
+    return ef;
   }
 }
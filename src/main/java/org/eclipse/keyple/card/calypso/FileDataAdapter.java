@@ -11,10 +11,13 @@
  ************************************************************************************** */
 package org.eclipse.keyple.card.calypso;
 
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import org.eclipse.keyple.core.util.Assert;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
-import org.eclipse.keyple.core.util.json.JsonUtil;
+import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.card.FileData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,11 +27,38 @@
  *
  * @since 2.0.0
  */
-class FileDataAdapter implements FileData {
+class FileDataAdapter implements FileData, JsonRenderer.Renderable {
+
+  /**
+   * Value returned by {@link #getCounterValue(int)} for an unknown counter.
+   *
+   * @since 3.1.7
+   */
+  static final int COUNTER_NOT_SET = -1;
 
   private static final Logger logger = LoggerFactory.getLogger(FileDataAdapter.class);
 
-  private final TreeMap<Integer, byte[]> records = new TreeMap<>();
+  private static final int INITIAL_CAPACITY = 4;
+  private static final int MAX_RECORD_NUMBER = 255;
+
+  // Records store indexed by record number: record #n is at index (head + n - 1) modulo the
+  // capacity, which is a power of two. Shifting the records of a cyclic file only moves the head.
+  // Each record is either a byte array or a read-only ByteBuffer view of a card response, which is
+  // copied into a new byte array each time the record is accessed as such. Reads never modify the
+  // store, so they can be made concurrently.
+  private Object[] store = new Object[INITIAL_CAPACITY];
+  private int head;
+  private int lastRecordNumber; // Highest record number set, 0 if none
+
+  // Sorted view of the records, built on demand and dropped on each modification. Volatile so that
+  // a view built by a reading thread is safely published to the other ones.
+  private transient volatile SortedMap<Integer, byte[]> recordsView; // NOSONAR
+
+  // Undo journal: changes made since the journal was started, in order. Each entry holds the
+  // previous content of a record (null if the record did not exist) or marks a shift of the records
+  // of a cyclic file. While the journal is active, the stored arrays are replaced instead of being
+  // modified in place, so the journal can simply keep references to them.
+  private transient List<JournalEntry> recordsJournal; // NOSONAR
 
   /**
    * Constructor
@@ -46,18 +76,137 @@ class FileDataAdapter implements FileData {
   FileDataAdapter(FileData source) {
     SortedMap<Integer, byte[]> sourceContent = source.getAllRecordsContent();
     for (Map.Entry<Integer, byte[]> entry : sourceContent.entrySet()) {
-      records.put(entry.getKey(), Arrays.copyOf(entry.getValue(), entry.getValue().length));
+      putRecord(entry.getKey(), Arrays.copyOf(entry.getValue(), entry.getValue().length));
     }
   }
 
   /**
    * {@inheritDoc}
    *
+   * <p>Since 3.1.7, the returned map is an unmodifiable view of the records instead of the live
+   * store of the file: it is shared by the calls made until the next modification of the file and
+   * does not reflect the later ones.
+   *
    * @since 2.0.0
    */
   @Override
   public SortedMap<Integer, byte[]> getAllRecordsContent() {
-    return records;
+    SortedMap<Integer, byte[]> view = recordsView;
+    if (view == null) {
+      SortedMap<Integer, byte[]> records = new TreeMap<>();
+      for (int i = 1; i <= lastRecordNumber; i++) {
+        byte[] content = getRecord(i);
+        if (content != null) {
+          records.put(i, content);
+        }
+      }
+      view = Collections.unmodifiableSortedMap(records);
+      recordsView = view;
+    }
+    return view;
+  }
+
+  /**
+   * Returns the content of the provided record.
+   *
+   * <p>A record stored as a buffer view is returned as a new copy on each call.
+   *
+   * @param numRecord The record number.
+   * @return Null if the record is not set.
+   * @since 3.1.7
+   */
+  byte[] getRecord(int numRecord) {
+    Object content = getStoredRecord(numRecord);
+    if (content instanceof ByteBuffer) {
+      ByteBuffer view = ((ByteBuffer) content).duplicate();
+      byte[] bytes = new byte[view.remaining()];
+      view.get(bytes);
+      return bytes;
+    }
+    return (byte[]) content;
+  }
+
+  /**
+   * Returns a read-only view of the content of the provided record, without copying it.
+   *
+   * @param numRecord The record number.
+   * @return Null if the record is not set.
+   * @since 3.1.7
+   */
+  ByteBuffer getRecordView(int numRecord) {
+    Object content = getStoredRecord(numRecord);
+    if (content == null) {
+      return null; // NOSONAR
+    }
+    return content instanceof ByteBuffer
+        ? ((ByteBuffer) content).duplicate()
+        : ByteBuffer.wrap((byte[]) content).asReadOnlyBuffer();
+  }
+
+  /**
+   * Sets or replaces the entire content of the specified record #numRecord by a read-only view of
+   * the provided buffer, from its position to its limit.<br>
+   * The content is not copied, so the buffer must not be modified afterwards.
+   *
+   * @param numRecord the record number (should be {@code >=} 1).
+   * @param content the content (should be not empty).
+   * @since 3.1.7
+   */
+  void setContentView(int numRecord, ByteBuffer content) {
+    journalRecord(numRecord);
+    putRecord(numRecord, content.slice().asReadOnlyBuffer());
+  }
+
+  /**
+   * Returns the stored content of the provided record, byte array or buffer view.
+   *
+   * @param numRecord The record number.
+   * @return Null if the record is not set.
+   */
+  private Object getStoredRecord(int numRecord) {
+    if (numRecord < 1 || numRecord > lastRecordNumber) {
+      return null; // NOSONAR
+    }
+    return store[(head + numRecord - 1) & (store.length - 1)];
+  }
+
+  /**
+   * Sets or removes the content of the provided record.
+   *
+   * @param numRecord The record number (should be {@code >=} 1).
+   * @param content The content (byte array or buffer view), null to remove the record.
+   */
+  private void putRecord(int numRecord, Object content) {
+    recordsView = null;
+    if (content == null) {
+      if (numRecord > lastRecordNumber) {
+        return;
+      }
+      store[(head + numRecord - 1) & (store.length - 1)] = null;
+      while (lastRecordNumber > 0 && getStoredRecord(lastRecordNumber) == null) {
+        lastRecordNumber--;
+      }
+      return;
+    }
+    if (numRecord > store.length) {
+      resize(Math.max(Integer.highestOneBit(numRecord - 1) << 1, store.length));
+    }
+    store[(head + numRecord - 1) & (store.length - 1)] = content;
+    lastRecordNumber = Math.max(lastRecordNumber, numRecord);
+  }
+
+  /**
+   * Moves the records into a new store having the provided capacity, record #1 first.
+   *
+   * @param capacity The new capacity, a power of two.
+   */
+  private void resize(int capacity) {
+    Object[] newStore = new Object[capacity];
+    for (int i = 1; i <= lastRecordNumber; i++) {
+      newStore[i - 1] = getStoredRecord(i);
+    }
+    store = newStore;
+    head = 0;
   }
 
   /**
@@ -77,7 +226,7 @@ public byte[] getContent() {
    */
   @Override
   public byte[] getContent(int numRecord) {
-    byte[] content = records.get(numRecord);
+    byte[] content = getRecord(numRecord);
     if (content == null) {
       logger.warn("Record not set (#{})", numRecord);
       content = new byte[0];
@@ -97,7 +246,7 @@ public byte[] getContent(int numRecord, int dataOffset, int dataLength) {
         .greaterOrEqual(dataOffset, 0, "dataOffset")
         .greaterOrEqual(dataLength, 1, "dataLength");
 
-    byte[] content = records.get(numRecord);
+    byte[] content = getRecord(numRecord);
     if (content == null) {
       logger.warn("Record not set (#{})", numRecord);
       return new byte[0];
@@ -132,7 +281,7 @@ public Integer getContentAsCounterValue(int numCounter) {
 
     Assert.getInstance().greaterOrEqual(numCounter, 1, "numCounter");
 
-    byte[] rec1 = records.get(1);
+    byte[] rec1 = getRecord(1);
     if (rec1 == null) {
       logger.warn("Record not set (#1)");
       return null;
@@ -161,7 +310,7 @@ public Integer getContentAsCounterValue(int numCounter) {
   @Override
   public SortedMap<Integer, Integer> getAllCountersValue() {
     SortedMap<Integer, Integer> result = new TreeMap<>();
-    byte[] rec1 = records.get(1);
+    byte[] rec1 = getRecord(1);
     if (rec1 == null) {
       logger.warn("Record not set (#1)");
       return result;
@@ -173,6 +322,46 @@ public SortedMap<Integer, Integer> getAllCountersValue() {
     return result;
   }
 
+  /**
+   * Copies the values of the counters of record #1 into the provided array, without boxing them.
+   *
+   * <p>The value of counter #n is copied at index n - 1. The counters which do not fit in the array
+   * are not copied.
+   *
+   * @param values The destination array.
+   * @return The number of non-truncated counters present in record #1, 0 if the record is not set.
+   * @since 3.1.7
+   */
+  int getAllCountersValue(int[] values) {
+    byte[] rec1 = getRecord(1);
+    if (rec1 == null) {
+      return 0;
+    }
+    int nbCounters = rec1.length / 3;
+    int length = Math.min(nbCounters, values.length);
+    for (int i = 0; i < length; i++) {
+      values[i] = ByteArrayUtil.extractInt(rec1, i * 3, 3, false);
+    }
+    return nbCounters;
+  }
+
+  /**
+   * Returns the value of the provided counter without boxing it nor logging its absence.
+   *
+   * @param numCounter The counter number (should be {@code >=} 1).
+   * @return {@link #COUNTER_NOT_SET} if record #1 is not set or if the counter is absent or
+   *     truncated.
+   * @since 3.1.7
+   */
+  int getCounterValue(int numCounter) {
+    byte[] rec1 = getRecord(1);
+    int counterIndex = (numCounter - 1) * 3;
+    if (rec1 == null || numCounter < 1 || counterIndex + 3 > rec1.length) {
+      return COUNTER_NOT_SET;
+    }
+    return ByteArrayUtil.extractInt(rec1, counterIndex, 3, false);
+  }
+
   /**
    * Sets or replaces the entire content of the specified record #numRecord by the provided content.
    *
@@ -181,7 +370,8 @@ public SortedMap<Integer, Integer> getAllCountersValue() {
    * @since 2.0.0
    */
   void setContent(int numRecord, byte[] content) {
-    records.put(numRecord, content);
+    journalRecord(numRecord);
+    putRecord(numRecord, content);
   }
 
   /**
@@ -207,9 +397,10 @@ void setCounter(int numCounter, byte[] content) {
    * @since 2.0.0
    */
   void setContent(int numRecord, byte[] content, int offset) {
+    journalRecord(numRecord);
     byte[] newContent;
     int newLength = offset + content.length;
-    byte[] oldContent = records.get(numRecord);
+    byte[] oldContent = getRecord(numRecord);
     if (oldContent == null) {
       newContent = new byte[newLength];
     } else if (oldContent.length <= offset) {
@@ -219,10 +410,10 @@ void setContent(int numRecord, byte[] content, int offset) {
       newContent = new byte[newLength];
       System.arraycopy(oldContent, 0, newContent, 0, offset);
     } else {
-      newContent = oldContent;
+      newContent = recordsJournal != null ? oldContent.clone() : oldContent;
     }
     System.arraycopy(content, 0, newContent, offset, content.length);
-    records.put(numRecord, newContent);
+    putRecord(numRecord, newContent);
   }
 
   /**
@@ -242,18 +433,24 @@ void fillContent(int numRecord, byte[] content, int offset) {
       contentLeftPadded = new byte[offset + content.length];
       System.arraycopy(content, 0, contentLeftPadded, offset, content.length);
     }
-    byte[] actualContent = records.get(numRecord);
+    journalRecord(numRecord);
+    byte[] actualContent = getRecord(numRecord);
     if (actualContent == null) {
-      records.put(numRecord, contentLeftPadded);
+      putRecord(numRecord, contentLeftPadded);
     } else if (actualContent.length < contentLeftPadded.length) {
       for (int i = 0; i < actualContent.length; i++) {
         contentLeftPadded[i] |= actualContent[i];
       }
-      records.put(numRecord, contentLeftPadded);
+      putRecord(numRecord, contentLeftPadded);
     } else {
+      if (recordsJournal != null) {
+        actualContent = actualContent.clone();
+      }
       for (int i = 0; i < contentLeftPadded.length; i++) {
         actualContent[i] |= contentLeftPadded[i];
       }
+      // Also stores the content when the record was a buffer view
+      putRecord(numRecord, actualContent);
     }
   }
 
@@ -261,17 +458,95 @@ void fillContent(int numRecord, byte[] content, int offset) {
    * Adds cyclic content at record #1 by rolling previously all actual records contents (record #1
    * -> record #2, record #2 -> record #3,...).<br>
    * This is useful for cyclic files.<br>
-   * Note that records are infinitely shifted.
+   * Note that records are shifted up to record #255, the content of which is then lost.
+   *
+   * <p>The records are not moved, only the head of the store is, so the cost does not depend on
+   * the number of records. It does not either when a journal is active, the shift being journaled
+   * as a single entry, plus the record that is lost if any.
    *
    * @param content the content (should be not empty).
    * @since 2.0.0
    */
   void addCyclicContent(byte[] content) {
-    ArrayList<Integer> descendingKeys = new ArrayList<>(records.descendingKeySet());
-    for (Integer i : descendingKeys) {
-      records.put(i + 1, records.get(i));
+    recordsView = null;
+    while (lastRecordNumber >= MAX_RECORD_NUMBER) {
+      journalRecord(lastRecordNumber);
+      store[(head + lastRecordNumber - 1) & (store.length - 1)] = null;
+      lastRecordNumber--;
+    }
+    if (lastRecordNumber == store.length) {
+      resize(store.length << 1);
+    }
+    head = (head - 1) & (store.length - 1);
+    store[head] = content;
+    lastRecordNumber++;
+    if (recordsJournal != null) {
+      recordsJournal.add(new JournalEntry(JournalEntry.SHIFT, null));
+    }
+  }
+
+  /**
+   * Cancels the last call to {@link #addCyclicContent(byte[])}: removes record #1 and shifts the
+   * other records back (record #2 -> record #1,...).
+   */
+  private void removeCyclicContent() {
+    recordsView = null;
+    store[head] = null;
+    head = (head + 1) & (store.length - 1);
+    lastRecordNumber--;
+    while (lastRecordNumber > 0 && getStoredRecord(lastRecordNumber) == null) {
+      lastRecordNumber--;
+    }
+  }
+
+  /**
+   * Starts recording the changes made to the records, discarding any previous journal.
+   *
+   * @since 3.1.7
+   */
+  void startJournal() {
+    recordsJournal = new ArrayList<>();
+  }
+
+  /**
+   * Stops recording the changes made to the records and forgets them.
+   *
+   * @since 3.1.7
+   */
+  void discardJournal() {
+    recordsJournal = null;
+  }
+
+  /**
+   * Restores the records as they were when the journal was started, then stops the journal.<br>
+   * Does nothing if no journal is active.
+   *
+   * @since 3.1.7
+   */
+  void rollbackJournal() {
+    if (recordsJournal == null) {
+      return;
+    }
+    for (int i = recordsJournal.size() - 1; i >= 0; i--) {
+      JournalEntry entry = recordsJournal.get(i);
+      if (entry.numRecord == JournalEntry.SHIFT) {
+        removeCyclicContent();
+      } else {
+        putRecord(entry.numRecord, entry.content);
+      }
+    }
+    recordsJournal = null;
+  }
+
+  /**
+   * Saves the current content of the provided record into the journal if it is active.
+   *
+   * @param numRecord The record number.
+   */
+  private void journalRecord(int numRecord) {
+    if (recordsJournal != null) {
+      recordsJournal.add(new JournalEntry(numRecord, getStoredRecord(numRecord)));
     }
-    records.put(1, content);
   }
 
   /**
@@ -282,6 +557,73 @@ void addCyclicContent(byte[] content) {
    */
   @Override
   public String toString() {
-    return JsonUtil.toJson(this);
+    return JsonRenderer.render(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public void writeJson(JsonWriter writer) throws IOException {
+    writer.beginObject().name("records").beginObject();
+    for (int i = 1; i <= lastRecordNumber; i++) {
+      byte[] content = getRecord(i);
+      if (content != null) {
+        writer.name(String.valueOf(i)).value(HexUtil.toHex(content));
+      }
+    }
+    writer.endObject().endObject();
+  }
+
+  /**
+   * Writes the records in the binary format of {@link CardImageCodec}.
+   *
+   * @param out The destination.
+   * @since 3.1.7
+   */
+  void writeBinary(CardImageCodec.Output out) {
+    SortedMap<Integer, byte[]> records = getAllRecordsContent();
+    out.putShort((short) records.size());
+    for (Map.Entry<Integer, byte[]> entry : records.entrySet()) {
+      out.putShort(entry.getKey().shortValue());
+      out.putBytes(entry.getValue());
+    }
+  }
+
+  /**
+   * Reads the records written by {@link #writeBinary(CardImageCodec.Output)}.
+   *
+   * @param in The source buffer.
+   * @since 3.1.7
+   */
+  void readBinary(ByteBuffer in) {
+    for (int i = in.getShort() & 0xFFFF; i > 0; i--) {
+      int recordNumber = in.getShort() & 0xFFFF;
+      byte[] content = CardImageCodec.getBytes(in);
+      if (content == null) {
+        throw new IllegalArgumentException("Invalid card image: null record content");
+      }
+      if (recordNumber < 1) {
+        throw new IllegalArgumentException("Invalid card image: bad record number");
+      }
+      putRecord(recordNumber, content);
+    }
+  }
+
+  /** Entry of the undo journal. */
+  private static final class JournalEntry {
+
+    // Record number of the entries marking a shift of the records of a cyclic file.
+    private static final int SHIFT = 0;
+
+    private final int numRecord;
+    private final Object content;
+
+    private JournalEntry(int numRecord, Object content) {
+      this.numRecord = numRecord;
+      this.content = content;
+    }
   }
 }
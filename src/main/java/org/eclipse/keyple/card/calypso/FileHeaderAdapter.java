@@ -11,8 +11,10 @@
  ************************************************************************************** */
 package org.eclipse.keyple.card.calypso;
 
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keypop.calypso.card.card.ElementaryFile;
 import org.eclipse.keypop.calypso.card.card.FileHeader;
 
@@ -21,7 +23,7 @@
  *
  * @since 2.0.0
  */
-class FileHeaderAdapter implements FileHeader {
+class FileHeaderAdapter implements FileHeader, JsonRenderer.Renderable {
 
   private final short lid;
   private final int recordsNumber;
@@ -336,6 +338,75 @@ public int hashCode() {
    */
   @Override
   public String toString() {
-    return JsonUtil.toJson(this);
+    return JsonRenderer.render(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public void writeJson(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    JsonRenderer.writeHex(writer, "lid", lid);
+    writer.name("recordsNumber").value(recordsNumber);
+    writer.name("recordSize").value(recordSize);
+    if (type != null) {
+      writer.name("type").value(type.name());
+    }
+    JsonRenderer.writeHex(writer, "accessConditions", accessConditions);
+    JsonRenderer.writeHex(writer, "keyIndexes", keyIndexes);
+    JsonRenderer.writeHex(writer, "dfStatus", dfStatus);
+    JsonRenderer.writeHex(writer, "sharedReference", sharedReference);
+    writer.endObject();
+  }
+
+  /**
+   * Writes the file header in the binary format of {@link CardImageCodec}.
+   *
+   * @param out The destination.
+   * @since 3.1.7
+   */
+  void writeBinary(CardImageCodec.Output out) {
+    out.putShort(lid);
+    out.putInt(recordsNumber);
+    out.putInt(recordSize);
+    out.putEnum(type);
+    out.putBytes(accessConditions);
+    out.putBytes(keyIndexes);
+    out.putByte((byte) (dfStatus != null ? 1 : 0));
+    if (dfStatus != null) {
+      out.putByte(dfStatus);
+    }
+    out.putByte((byte) (sharedReference != null ? 1 : 0));
+    if (sharedReference != null) {
+      out.putShort(sharedReference);
+    }
+  }
+
+  /**
+   * Reads a file header written by {@link #writeBinary(CardImageCodec.Output)}.
+   *
+   * @param in The source buffer.
+   * @return A new instance.
+   * @since 3.1.7
+   */
+  static FileHeaderAdapter readBinary(ByteBuffer in) {
+    FileHeaderBuilder builder =
+        builder()
+            .lid(in.getShort())
+            .recordsNumber(in.getInt())
+            .recordSize(in.getInt())
+            .type(CardImageCodec.getEnum(in, ElementaryFile.Type.class))
+            .accessConditions(CardImageCodec.getBytes(in))
+            .keyIndexes(CardImageCodec.getBytes(in));
+    if (in.get() != 0) {
+      builder.dfStatus(in.get());
+    }
+    if (in.get() != 0) {
+      builder.sharedReference(in.getShort());
+    }
+    return builder.build();
   }
 }
@@ -121,6 +121,7 @@ public FreeTransactionManager processCommands(ChannelControl channelControl) {
       return this;
     }
     try {
+      startCardRequestPlan();
       List<Command> cardRequestCommands = new ArrayList<>();
       for (Command command : commands) {
         command.finalizeRequest();
@@ -132,6 +133,7 @@ public FreeTransactionManager processCommands(ChannelControl channelControl) {
       throw e;
     } finally {
       commands.clear();
+      logCardRequestPlan();
     }
     return currentInstance;
   }
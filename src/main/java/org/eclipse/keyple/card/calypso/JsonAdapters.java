@@ -13,20 +13,29 @@
 
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
-import java.lang.reflect.Type;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keypop.calypso.card.card.*;
 
 /**
  * Contains all JSON adapters used for serialization and deserialization processes.<br>
  * These adapters are required for interfaces and abstract classes.
  *
+ * <p>The adapters are streaming adapters writing directly to the JSON writer. The objects are
+ * written with the reflective adapter of their implementation class provided by the parser of
+ * {@link JsonUtil}, which caches it.
+ *
  * @since 2.2.3
  */
 final class JsonAdapters {
@@ -35,69 +44,141 @@ final class JsonAdapters {
   private static final String DATA = "data";
   private static final String UNKNOWN_TYPE_TEMPLATE = "Unknown type: %s";
 
+  /** Registry of the command classes indexed by their name, as written in the "type" field. */
+  private static final Map<String, Class<? extends Command>> COMMAND_TYPES = new HashMap<>();
+
+  static {
+    registerCommandTypes(
+        CommandAppendRecord.class,
+        CommandChangeKey.class,
+        CommandChangePin.class,
+        CommandCloseSecureSession.class,
+        CommandGenerateAsymmetricKeyPair.class,
+        CommandGetChallenge.class,
+        CommandGetDataCardPublicKey.class,
+        CommandGetDataCertificate.class,
+        CommandGetDataEfList.class,
+        CommandGetDataFci.class,
+        CommandGetDataFcp.class,
+        CommandGetDataTraceabilityInformation.class,
+        CommandIncreaseOrDecrease.class,
+        CommandIncreaseOrDecreaseMultiple.class,
+        CommandInvalidate.class,
+        CommandManageSession.class,
+        CommandOpenSecureSession.class,
+        CommandPutData.class,
+        CommandRatification.class,
+        CommandReadBinary.class,
+        CommandReadRecordMultiple.class,
+        CommandReadRecords.class,
+        CommandRehabilitate.class,
+        CommandSearchRecordMultiple.class,
+        CommandSelectFile.class,
+        CommandSvDebitOrUndebit.class,
+        CommandSvGet.class,
+        CommandSvReload.class,
+        CommandUpdateOrWriteBinary.class,
+        CommandUpdateRecord.class,
+        CommandVerifyPin.class,
+        CommandWriteRecord.class);
+  }
+
   private JsonAdapters() {}
 
   /**
-   * JSON serializer/deserializer of a {@link DirectoryHeader}.
+   * Registers the provided command classes.
    *
-   * @since 2.0.0
+   * @param commandTypes The command classes.
    */
-  static final class DirectoryHeaderJsonAdapter
-      implements JsonSerializer<DirectoryHeaderAdapter>, JsonDeserializer<DirectoryHeaderAdapter> {
+  @SafeVarargs
+  private static void registerCommandTypes(Class<? extends Command>... commandTypes) {
+    for (Class<? extends Command> commandType : commandTypes) {
+      COMMAND_TYPES.put(commandType.getName(), commandType);
+    }
+  }
+
+  /**
+   * Streaming JSON adapter of an interface, delegating to the reflective adapter of its
+   * implementation class.
+   *
+   * @param <T> The type of the implementation class.
+   * @since 3.1.7
+   */
+  private abstract static class DelegatingJsonAdapter<T> extends TypeAdapter<T> {
+
+    private final Class<T> implementationClass;
+
+    /**
+     * Constructor.
+     *
+     * @param implementationClass The implementation class.
+     */
+    private DelegatingJsonAdapter(Class<T> implementationClass) {
+      this.implementationClass = implementationClass;
+    }
 
     /**
      * {@inheritDoc}
      *
-     * @since 2.1.1
+     * @since 3.1.7
      */
     @Override
-    public JsonElement serialize(
-        DirectoryHeaderAdapter src, Type typeOfSrc, JsonSerializationContext context) {
-      return context.serialize(src);
+    public final void write(JsonWriter out, T value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      JsonUtil.getParser().getAdapter(implementationClass).write(out, value);
     }
 
     /**
      * {@inheritDoc}
      *
-     * @since 2.0.0
+     * @since 3.1.7
      */
     @Override
-    public DirectoryHeaderAdapter deserialize(
-        JsonElement json, Type typeOfT, JsonDeserializationContext context)
-        throws JsonParseException {
-      return context.deserialize(json, DirectoryHeaderAdapter.class);
+    public final T read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      return JsonUtil.getParser().getAdapter(implementationClass).read(in);
     }
   }
 
   /**
-   * JSON serializer/deserializer of a {@link ElementaryFile}.
+   * JSON serializer/deserializer of a {@link DirectoryHeader}.
    *
    * @since 2.0.0
    */
-  static final class ElementaryFileJsonAdapter
-      implements JsonSerializer<ElementaryFileAdapter>, JsonDeserializer<ElementaryFileAdapter> {
+  static final class DirectoryHeaderJsonAdapter
+      extends DelegatingJsonAdapter<DirectoryHeaderAdapter> {
 
     /**
-     * {@inheritDoc}
+     * Constructor.
      *
-     * @since 2.1.1
+     * @since 3.1.7
      */
-    @Override
-    public JsonElement serialize(
-        ElementaryFileAdapter src, Type typeOfSrc, JsonSerializationContext context) {
-      return context.serialize(src);
+    DirectoryHeaderJsonAdapter() {
+      super(DirectoryHeaderAdapter.class);
     }
+  }
+
+  /**
+   * JSON serializer/deserializer of a {@link ElementaryFile}.
+   *
+   * @since 2.0.0
+   */
+  static final class ElementaryFileJsonAdapter
+      extends DelegatingJsonAdapter<ElementaryFileAdapter> {
 
     /**
-     * {@inheritDoc}
+     * Constructor.
      *
-     * @since 2.0.0
+     * @since 3.1.7
      */
-    @Override
-    public ElementaryFileAdapter deserialize(
-        JsonElement json, Type typeOfT, JsonDeserializationContext context)
-        throws JsonParseException {
-      return context.deserialize(json, ElementaryFileAdapter.class);
+    ElementaryFileJsonAdapter() {
+      super(ElementaryFileAdapter.class);
     }
   }
 
@@ -106,30 +187,15 @@ public ElementaryFileAdapter deserialize(
    *
    * @since 2.0.0
    */
-  static final class FileHeaderJsonAdapter
-      implements JsonSerializer<FileHeaderAdapter>, JsonDeserializer<FileHeaderAdapter> {
+  static final class FileHeaderJsonAdapter extends DelegatingJsonAdapter<FileHeaderAdapter> {
 
     /**
-     * {@inheritDoc}
+     * Constructor.
      *
-     * @since 2.1.1
+     * @since 3.1.7
      */
-    @Override
-    public JsonElement serialize(
-        FileHeaderAdapter src, Type typeOfSrc, JsonSerializationContext context) {
-      return context.serialize(src);
-    }
-
-    /**
-     * {@inheritDoc}
-     *
-     * @since 2.0.0
-     */
-    @Override
-    public FileHeaderAdapter deserialize(
-        JsonElement json, Type typeOfT, JsonDeserializationContext context)
-        throws JsonParseException {
-      return context.deserialize(json, FileHeaderAdapter.class);
+    FileHeaderJsonAdapter() {
+      super(FileHeaderAdapter.class);
     }
   }
 
@@ -139,105 +205,202 @@ public FileHeaderAdapter deserialize(
    * @since 2.0.0
    */
   static final class SvLoadLogRecordJsonAdapter
-      implements JsonSerializer<SvLoadLogRecordAdapter>, JsonDeserializer<SvLoadLogRecordAdapter> {
+      extends DelegatingJsonAdapter<SvLoadLogRecordAdapter> {
 
     /**
-     * {@inheritDoc}
+     * Constructor.
      *
-     * @since 2.1.1
+     * @since 3.1.7
      */
-    @Override
-    public JsonElement serialize(
-        SvLoadLogRecordAdapter src, Type typeOfSrc, JsonSerializationContext context) {
-      return context.serialize(src);
+    SvLoadLogRecordJsonAdapter() {
+      super(SvLoadLogRecordAdapter.class);
     }
+  }
+
+  /**
+   * JSON serializer/deserializer of a {@link SvDebitLogRecord}.
+   *
+   * @since 2.0.0
+   */
+  static final class SvDebitLogRecordJsonAdapter
+      extends DelegatingJsonAdapter<SvDebitLogRecordAdapter> {
 
     /**
-     * {@inheritDoc}
+     * Constructor.
      *
-     * @since 2.0.0
+     * @since 3.1.7
      */
-    @Override
-    public SvLoadLogRecordAdapter deserialize(
-        JsonElement json, Type typeOfT, JsonDeserializationContext context)
-        throws JsonParseException {
-      return context.deserialize(json, SvLoadLogRecordAdapter.class);
+    SvDebitLogRecordJsonAdapter() {
+      super(SvDebitLogRecordAdapter.class);
     }
   }
 
   /**
-   * JSON serializer/deserializer of a {@link SvDebitLogRecord}.
+   * JSON serializer/deserializer of a {@link FileDataAdapter}.
    *
-   * @since 2.0.0
+   * <p>The records are written in the "records" field as an object whose members are the record
+   * numbers, each record content being an hexadecimal string as for the other byte arrays. Contents
+   * written as arrays of signed byte values are also accepted when reading.
+   *
+   * @since 3.1.7
    */
-  static final class SvDebitLogRecordJsonAdapter
-      implements JsonSerializer<SvDebitLogRecordAdapter>,
-          JsonDeserializer<SvDebitLogRecordAdapter> {
+  static final class FileDataJsonAdapter extends TypeAdapter<FileDataAdapter> {
+
+    private static final String RECORDS = "records";
 
     /**
      * {@inheritDoc}
      *
-     * @since 2.1.1
+     * @since 3.1.7
      */
     @Override
-    public JsonElement serialize(
-        SvDebitLogRecordAdapter src, Type typeOfSrc, JsonSerializationContext context) {
-      return context.serialize(src);
+    public void write(JsonWriter out, FileDataAdapter value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      value.writeJson(out);
     }
 
     /**
      * {@inheritDoc}
      *
-     * @since 2.0.0
+     * @since 3.1.7
      */
     @Override
-    public SvDebitLogRecordAdapter deserialize(
-        JsonElement json, Type typeOfT, JsonDeserializationContext context)
-        throws JsonParseException {
-      return context.deserialize(json, SvDebitLogRecordAdapter.class);
+    public FileDataAdapter read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      FileDataAdapter fileData = new FileDataAdapter();
+      in.beginObject();
+      while (in.hasNext()) {
+        if (!RECORDS.equals(in.nextName()) || in.peek() == JsonToken.NULL) {
+          in.skipValue();
+          continue;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+          int numRecord = Integer.parseInt(in.nextName());
+          if (numRecord < 1) {
+            throw new JsonParseException("Invalid record number: " + numRecord);
+          }
+          fileData.setContent(numRecord, readContent(in));
+        }
+        in.endObject();
+      }
+      in.endObject();
+      return fileData;
+    }
+
+    /**
+     * Reads a record content, written as an hexadecimal string or as an array of byte values.
+     *
+     * @param in The JSON reader.
+     * @return A not null array.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static byte[] readContent(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.STRING) {
+        return HexUtil.toByteArray(in.nextString());
+      }
+      byte[] content = new byte[32];
+      int length = 0;
+      in.beginArray();
+      while (in.hasNext()) {
+        if (length == content.length) {
+          content = Arrays.copyOf(content, length << 1);
+        }
+        content[length++] = (byte) in.nextInt();
+      }
+      in.endArray();
+      return Arrays.copyOf(content, length);
     }
   }
 
   /**
    * JSON serializer/deserializer of a {@link Command}.
    *
+   * <p>A command is written as an object containing the name of its class in the "type" field and
+   * its content in the "data" field.
+   *
    * @since 2.2.3
    */
-  static final class AbstractCardCommandJsonAdapter
-      implements JsonSerializer<Command>, JsonDeserializer<Command> {
+  static final class AbstractCardCommandJsonAdapter extends TypeAdapter<Command> {
 
     /**
      * {@inheritDoc}
      *
-     * @since 2.2.3
+     * @since 3.1.7
      */
     @Override
-    public JsonElement serialize(Command src, Type typeOfSrc, JsonSerializationContext context) {
-      JsonObject jsonObject = new JsonObject();
-      jsonObject.addProperty(TYPE, src.getClass().getName());
-      jsonObject.add(DATA, context.serialize(src));
-      return jsonObject;
+    @SuppressWarnings("unchecked")
+    public void write(JsonWriter out, Command value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name(TYPE).value(value.getClass().getName());
+      out.name(DATA);
+      ((TypeAdapter<Command>) JsonUtil.getParser().getAdapter(value.getClass())).write(out, value);
+      out.endObject();
     }
 
     /**
      * {@inheritDoc}
      *
-     * @since 2.2.3
+     * <p>The "data" field is usually read in streaming mode. It is only buffered as a tree if it
+     * precedes the "type" field.
+     *
+     * @since 3.1.7
      */
     @Override
-    public Command deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-        throws JsonParseException {
-      JsonObject jsonObject = json.getAsJsonObject();
-      String type = jsonObject.get(TYPE).getAsString();
-      JsonObject data = jsonObject.get(DATA).getAsJsonObject();
-      Command command;
-      try {
-        Class<?> classOfData = Class.forName(type);
-        command = context.deserialize(data, classOfData);
-      } catch (ClassNotFoundException e) {
-        throw new JsonParseException(String.format(UNKNOWN_TYPE_TEMPLATE, type));
+    public Command read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      Class<? extends Command> commandType = null;
+      Command command = null;
+      JsonElement pendingData = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (TYPE.equals(name)) {
+          commandType = getCommandType(in.nextString());
+        } else if (DATA.equals(name) && commandType != null) {
+          command = JsonUtil.getParser().getAdapter(commandType).read(in);
+        } else if (DATA.equals(name)) {
+          pendingData = JsonParser.parseReader(in);
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      if (commandType == null) {
+        throw new JsonParseException("Missing command type");
+      }
+      if (pendingData != null) {
+        command = JsonUtil.getParser().getAdapter(commandType).fromJsonTree(pendingData);
       }
       return command;
     }
+
+    /**
+     * Returns the command class having the provided name.
+     *
+     * @param type The name of the class.
+     * @return A not null class.
+     * @throws JsonParseException If the class is not a known command class.
+     */
+    private static Class<? extends Command> getCommandType(String type) {
+      Class<? extends Command> commandType = COMMAND_TYPES.get(type);
+      if (commandType == null) {
+        throw new JsonParseException(String.format(UNKNOWN_TYPE_TEMPLATE, type));
+      }
+      return commandType;
+    }
   }
 }
@@ -0,0 +1,130 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.eclipse.keyple.core.util.HexUtil;
+
+/**
+ * Renders the internal objects in JSON format for logs and exception messages, using a streaming
+ * writer instead of the reflective serialization of {@link
+ * org.eclipse.keyple.core.util.json.JsonUtil}.
+ *
+ * <p>Byte arrays and byte or short identifiers are written as hexadecimal strings, null values are
+ * omitted.
+ *
+ * @since 3.1.7
+ */
+final class JsonRenderer {
+
+  /**
+   * An object able to write itself with a JSON writer.
+   *
+   * @since 3.1.7
+   */
+  interface Renderable {
+
+    /**
+     * Writes the object as a JSON value.
+     *
+     * @param writer The JSON writer.
+     * @throws IOException If an I/O error occurs.
+     * @since 3.1.7
+     */
+    void writeJson(JsonWriter writer) throws IOException;
+  }
+
+  private JsonRenderer() {}
+
+  /**
+   * Renders the provided object in JSON format.
+   *
+   * @param renderable The object to render.
+   * @return A non-empty string.
+   * @since 3.1.7
+   */
+  static String render(Renderable renderable) {
+    StringWriter stringWriter = new StringWriter(256);
+    try {
+      JsonWriter writer = new JsonWriter(stringWriter);
+      renderable.writeJson(writer);
+      writer.flush();
+    } catch (IOException e) {
+      // Not expected with a string writer
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+    return stringWriter.toString();
+  }
+
+  /**
+   * Writes a named byte array as an hexadecimal string, if not null.
+   *
+   * @param writer The JSON writer.
+   * @param name The name.
+   * @param value The value.
+   * @throws IOException If an I/O error occurs.
+   * @since 3.1.7
+   */
+  static void writeHex(JsonWriter writer, String name, byte[] value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(HexUtil.toHex(value));
+    }
+  }
+
+  /**
+   * Writes a named byte as an hexadecimal string, if not null.
+   *
+   * @param writer The JSON writer.
+   * @param name The name.
+   * @param value The value.
+   * @throws IOException If an I/O error occurs.
+   * @since 3.1.7
+   */
+  static void writeHex(JsonWriter writer, String name, Byte value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(HexUtil.toHex(value));
+    }
+  }
+
+  /**
+   * Writes a named short as an hexadecimal string, if not null.
+   *
+   * @param writer The JSON writer.
+   * @param name The name.
+   * @param value The value.
+   * @throws IOException If an I/O error occurs.
+   * @since 3.1.7
+   */
+  static void writeHex(JsonWriter writer, String name, Short value) throws IOException {
+    if (value != null) {
+      writer.name(name).value(HexUtil.toHex(value));
+    }
+  }
+
+  /**
+   * Writes a named object, if not null.
+   *
+   * @param writer The JSON writer.
+   * @param name The name.
+   * @param value The value.
+   * @throws IOException If an I/O error occurs.
+   * @since 3.1.7
+   */
+  static void writeObject(JsonWriter writer, String name, Renderable value) throws IOException {
+    if (value != null) {
+      writer.name(name);
+      value.writeJson(writer);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keypop.calypso.card.card.ElementaryFile;
+
+/**
+ * Cache of the last known record contents of the cards, shared between transactions.
+ *
+ * <p>The records are indexed by card serial number, DF name, SFI and record number. They are
+ * evicted when their time to live has expired or when the maximum number of entries is reached,
+ * the least recently used first.
+ *
+ * <p>The cached contents are only used to anticipate the responses of the "Read Records" commands
+ * in pre-open mode. A mismatch with the actual response is still detected by the command.
+ *
+ * @since 3.1.7
+ */
+final class RecordContentCache {
+
+  private final int maxEntries;
+  private final long timeToLiveNanos;
+  private final Map<RecordKey, CachedRecord> records;
+
+  /**
+   * Constructor.
+   *
+   * @param maxEntries The maximum number of cached records.
+   * @param timeToLiveMillis The time to live of a cached record in milliseconds.
+   * @since 3.1.7
+   */
+  RecordContentCache(int maxEntries, long timeToLiveMillis) {
+    this.maxEntries = maxEntries;
+    this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    this.records =
+        new LinkedHashMap<RecordKey, CachedRecord>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<RecordKey, CachedRecord> eldest) {
+            return size() > RecordContentCache.this.maxEntries;
+          }
+        };
+  }
+
+  /**
+   * Returns the last known content of a record of the provided card.
+   *
+   * @param card The Calypso card.
+   * @param sfi The SFI of the file.
+   * @param recordNumber The record number.
+   * @return Null if the record is unknown or expired.
+   * @since 3.1.7
+   */
+  synchronized byte[] get(CalypsoCardAdapter card, int sfi, int recordNumber) {
+    RecordKey key = new RecordKey(card, sfi, recordNumber);
+    CachedRecord cachedRecord = records.get(key);
+    if (cachedRecord == null) {
+      return null; // NOSONAR
+    }
+    if (System.nanoTime() - cachedRecord.timestamp > timeToLiveNanos) {
+      records.remove(key);
+      return null; // NOSONAR
+    }
+    return cachedRecord.content;
+  }
+
+  /**
+   * Stores the content of the records of the provided files of the card image.
+   *
+   * <p>The records are copied before entering the lock of the cache, which is only held to insert
+   * them.
+   *
+   * @param card The Calypso card.
+   * @param sfis The SFIs of the files, as a bit mask in which bit n stands for SFI n (bit 0 is
+   *     ignored).
+   * @since 3.1.7
+   */
+  void putFiles(CalypsoCardAdapter card, long sfis) {
+    long timestamp = System.nanoTime();
+    Map<RecordKey, CachedRecord> updates = new LinkedHashMap<>();
+    for (long remaining = sfis & ~1L; remaining != 0; remaining &= remaining - 1) {
+      byte sfi = (byte) Long.numberOfTrailingZeros(remaining);
+      ElementaryFile ef = card.getFileBySfi(sfi);
+      if (ef == null) {
+        continue;
+      }
+      for (Map.Entry<Integer, byte[]> entry : ef.getData().getAllRecordsContent().entrySet()) {
+        updates.put(
+            new RecordKey(card, sfi, entry.getKey()),
+            new CachedRecord(entry.getValue(), timestamp));
+      }
+    }
+    if (updates.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      records.putAll(updates);
+    }
+  }
+
+  /**
+   * Removes all the cached records of a file of the provided card.
+   *
+   * @param card The Calypso card.
+   * @param sfi The SFI of the file.
+   * @since 3.1.7
+   */
+  synchronized void invalidate(CalypsoCardAdapter card, int sfi) {
+    byte[] serialNumber = card.getCalypsoSerialNumberFull();
+    byte[] dfName = card.getDfName();
+    Iterator<RecordKey> iterator = records.keySet().iterator();
+    while (iterator.hasNext()) {
+      RecordKey key = iterator.next();
+      if (key.sfi == sfi
+          && Arrays.equals(key.serialNumber, serialNumber)
+          && Arrays.equals(key.dfName, dfName)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /** Identifier of a record of a card. */
+  private static final class RecordKey {
+
+    private final byte[] serialNumber;
+    private final byte[] dfName;
+    private final int sfi;
+    private final int recordNumber;
+    private final int hashCode;
+
+    private RecordKey(CalypsoCardAdapter card, int sfi, int recordNumber) {
+      this.serialNumber = card.getCalypsoSerialNumberFull();
+      this.dfName = card.getDfName();
+      this.sfi = sfi;
+      this.recordNumber = recordNumber;
+      int h = Arrays.hashCode(serialNumber);
+      h = 31 * h + Arrays.hashCode(dfName);
+      h = 31 * h + sfi;
+      this.hashCode = 31 * h + recordNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof RecordKey)) {
+        return false;
+      }
+      RecordKey that = (RecordKey) o;
+      return sfi == that.sfi
+          && recordNumber == that.recordNumber
+          && Arrays.equals(serialNumber, that.serialNumber)
+          && Arrays.equals(dfName, that.dfName);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** Cached content of a record. */
+  private static final class CachedRecord {
+
+    private final byte[] content;
+    private final long timestamp;
+
+    private CachedRecord(byte[] content, long timestamp) {
+      this.content = content.clone();
+      this.timestamp = timestamp;
+    }
+  }
+}
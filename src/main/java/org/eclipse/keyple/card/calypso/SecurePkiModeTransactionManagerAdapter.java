@@ -14,6 +14,8 @@
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
 import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,7 +24,6 @@
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.GetDataTag;
 import org.eclipse.keypop.calypso.card.transaction.*;
-import org.eclipse.keypop.calypso.card.transaction.spi.CaCertificate;
 import org.eclipse.keypop.calypso.card.transaction.spi.CardTransactionCryptoExtension;
 import org.eclipse.keypop.calypso.crypto.asymmetric.AsymmetricCryptoException;
 import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.CertificateValidationException;
@@ -48,11 +49,13 @@
   private static final String MSG_PIN_NOT_AVAILABLE = "PIN not available for this card";
   private static final String MSG_INVALID_CARD_CERTIFICATE = "Invalid card certificate: ";
   private static final String MSG_INVALID_CA_CERTIFICATE = "Invalid CA certificate: ";
+  // Shared by all the instances so that the seeding cost is only paid once
+  private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
   private final TransactionContextDto transactionContext;
   private final AsymmetricCryptoSecuritySettingAdapter asymmetricCryptoSecuritySetting;
   private final CardTransactionCryptoExtension cryptoExtension;
-  private final SecureRandom secureRandom = new SecureRandom();
-  private final int payloadCapacity;
+  private int payloadCapacity;
 
   private ChannelControl originalChannelControl;
   private boolean isGetDataCardCertificatePrepared;
@@ -126,6 +129,22 @@ int getPayloadCapacity() {
     return payloadCapacity;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The asymmetric crypto service is not bound to a card and is kept.
+   *
+   * @since 3.1.7
+   */
+  @Override
+  void rebind(CalypsoCardAdapter card) {
+    super.rebind(card);
+    payloadCapacity = card.getPayloadCapacity();
+    originalChannelControl = null;
+    isGetDataCardCertificatePrepared = false;
+    isGetDataCaCertificatePrepared = false;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -250,6 +269,7 @@ public SecurePkiModeTransactionManager processCommands(ChannelControl channelCon
       return this;
     }
     try {
+      startCardRequestPlan();
       // In the case that the CA certificate is missing before the parsing of the response to
       // the "open secure session" command, we seamlessly trigger the execution of Get Data commands
       // to fetch it. Depending on the current status of the session, these commands might also be
@@ -266,6 +286,7 @@ public SecurePkiModeTransactionManager processCommands(ChannelControl channelCon
       throw e;
     } finally {
       commands.clear();
+      logCardRequestPlan();
     }
     return this;
   }
@@ -287,9 +308,43 @@ void parseCommandResponse(Command command, ApduResponseApi apduResponse)
     command.parseResponse(apduResponse);
   }
 
+  /**
+   * Returns the time from which a card certificate successfully checked now is no longer known to
+   * be valid.
+   *
+   * <p>The validity dates of a card certificate have a one-day resolution and are only available
+   * to the crypto service, inside the signed part of the certificate. A certificate accepted today
+   * is therefore known to be valid until the end of the current day, after which it must be checked
+   * again.
+   *
+   * @return A time in milliseconds since the epoch.
+   */
+  private static long getCardCertificateValidityEndMillis() {
+    return LocalDate.now()
+        .plusDays(1)
+        .atStartOfDay(ZoneId.systemDefault())
+        .toInstant()
+        .toEpochMilli();
+  }
+
   /** Extracts the card public key using the PKI chain of trust and place it into the card image. */
   private void checkCardCertificateAndGetCardPublicKey() {
 
+    // Use the public key of an already verified certificate if available
+    CardPublicKeyCache cardPublicKeyCache = asymmetricCryptoSecuritySetting.getCardPublicKeyCache();
+    if (cardPublicKeyCache != null) {
+      CardPublicKeySpi cardPublicKeySpi =
+          cardPublicKeyCache.get(card.getCardCertificate(), card.getApplicationSerialNumber());
+      if (cardPublicKeySpi != null) {
+        // Force the closing of the channel if originally requested
+        if (originalChannelControl == ChannelControl.CLOSE_AFTER) {
+          executeCardCommands(Collections.emptyList(), ChannelControl.CLOSE_AFTER);
+        }
+        card.setCardPublicKeySpi(cardPublicKeySpi);
+        return;
+      }
+    }
+
     // Parse the card certificate raw data
     CardCertificateSpi cardCertificateSpi = parseCardCertificate();
 
@@ -310,8 +365,9 @@ private void checkCardCertificateAndGetCardPublicKey() {
       readCaCertificate();
       // Parse the CA certificate raw data
       CaCertificateSpi caCertificateSpi = parseCaCertificate();
-      // Register the CA certificate into the store
-      asymmetricCryptoSecuritySetting.addCaCertificate((CaCertificate) caCertificateSpi);
+      // Register the CA certificate into the store, unless it has been registered concurrently
+      asymmetricCryptoSecuritySetting.addCaCertificateIfAbsent(
+          caCertificateSpi, card.getCaCertificate());
       // Retrieve the CA certificate content from the store
       caCertificateContentSpi =
           asymmetricCryptoSecuritySetting.getCaCertificate(
@@ -335,6 +391,15 @@ private void checkCardCertificateAndGetCardPublicKey() {
           "An error occurred while checking the card certificate: " + e.getMessage(), e);
     }
 
+    if (cardPublicKeyCache != null) {
+      cardPublicKeyCache.put(
+          card.getCardCertificate(),
+          cardCertificateSpi.getCardSerialNumber(),
+          cardCertificateSpi.getIssuerPublicKeyReference(),
+          cardPublicKeySpi,
+          getCardCertificateValidityEndMillis());
+    }
+
     // Save the card public key into the card image
     card.setCardPublicKeySpi(cardPublicKeySpi);
   }
@@ -417,8 +482,15 @@ public SecurePkiModeTransactionManager prepareOpenSecureSession() {
     if (card.getCardCertificate().length == 0 && !isGetDataCardCertificatePrepared) {
       prepareGetData(GetDataTag.CARD_CERTIFICATE);
     }
-    byte[] terminalChallenge = new byte[8];
-    secureRandom.nextBytes(terminalChallenge);
+    byte[] terminalChallenge;
+    TerminalChallengePool terminalChallengePool =
+        asymmetricCryptoSecuritySetting.getTerminalChallengePool();
+    if (terminalChallengePool != null) {
+      terminalChallenge = terminalChallengePool.next();
+    } else {
+      terminalChallenge = new byte[CalypsoCardConstant.PKI_TERMINAL_CHALLENGE_SIZE];
+      SECURE_RANDOM.nextBytes(terminalChallenge);
+    }
     commands.add(
         new CommandOpenSecureSession(transactionContext, getCommandContext(), terminalChallenge));
     isSecureSessionOpen = true;
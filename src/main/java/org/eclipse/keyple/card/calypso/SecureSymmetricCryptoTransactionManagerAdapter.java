@@ -14,7 +14,10 @@
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import org.eclipse.keyple.core.util.Assert;
 import org.eclipse.keypop.calypso.card.WriteAccessLevel;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
@@ -50,11 +53,24 @@
   private static final int SESSION_BUFFER_CMD_ADDITIONAL_COST = 6;
   private static final int APDU_HEADER_LENGTH = 5;
 
+  // out of session commands that an SV Get command can be anticipated over without changing their
+  // result nor its own
+  private static final Set<CardCommandRef> SV_GET_ANTICIPATION_CROSSABLE_COMMANDS =
+      EnumSet.of(
+          CardCommandRef.GET_CHALLENGE,
+          CardCommandRef.VERIFY_PIN,
+          CardCommandRef.CHANGE_PIN,
+          CardCommandRef.GET_DATA,
+          CardCommandRef.READ_RECORDS,
+          CardCommandRef.READ_RECORD_MULTIPLE,
+          CardCommandRef.SEARCH_RECORD_MULTIPLE,
+          CardCommandRef.READ_BINARY);
+
   private final SymmetricCryptoSecuritySettingAdapter symmetricCryptoSecuritySetting;
-  private final SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi;
-  private final CardTransactionCryptoExtension cryptoExtension;
+  private SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi;
+  private CardTransactionCryptoExtension cryptoExtension;
   private WriteAccessLevel writeAccessLevel;
-  private final int payloadCapacity;
+  private int payloadCapacity;
   private int modificationsCounter;
   private int nbPostponedData;
   private int svPostponedDataIndex = -1;
@@ -83,6 +99,18 @@
 
     this.symmetricCryptoSecuritySetting = symmetricCryptoSecuritySetting;
 
+    initCardCryptoService();
+
+    transactionContext = new TransactionContextDto(card, symmetricCryptoCardTransactionManagerSpi);
+    transactionContext.setRecordContentCache(symmetricCryptoSecuritySetting.getRecordContentCache());
+    modificationsCounter = card.getModificationsCounter();
+  }
+
+  /**
+   * Determines the session mode and the payload capacity for the current card and creates the
+   * associated symmetric crypto service, which is bound to the card serial number.
+   */
+  private void initCardCryptoService() {
     SymmetricCryptoCardTransactionManagerFactorySpi cryptoFactory =
         symmetricCryptoSecuritySetting.getCryptoCardTransactionManagerFactorySpi();
     // Extended mode flag
@@ -100,9 +128,60 @@
         cryptoFactory.createCardTransactionManager(
             card.getCalypsoSerialNumberFull(), isExtendedMode, getTransactionAuditData());
     cryptoExtension = (CardTransactionCryptoExtension) symmetricCryptoCardTransactionManagerSpi;
+  }
 
-    transactionContext = new TransactionContextDto(card, symmetricCryptoCardTransactionManagerSpi);
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A new symmetric crypto service is created for the new card, since it is bound to the card
+   * serial number. The pending terminal session MAC updates of the previous card are completed
+   * first.
+   *
+   * @since 3.1.7
+   */
+  @Override
+  void rebind(CalypsoCardAdapter card) {
+    super.rebind(card);
+    TerminalSessionMacPipeline terminalSessionMacPipeline =
+        transactionContext.getTerminalSessionMacPipeline();
+    if (terminalSessionMacPipeline != null) {
+      try {
+        terminalSessionMacPipeline.drain();
+      } catch (RuntimeException e) {
+        logger.warn("Failed to update terminal session MAC: {}", e.getMessage());
+      }
+    }
+    initCardCryptoService();
+    transactionContext.setSymmetricCryptoCardTransactionManagerSpi(
+        symmetricCryptoCardTransactionManagerSpi);
+    if (terminalSessionMacPipeline != null) {
+      transactionContext.setTerminalSessionMacPipeline(
+          new TerminalSessionMacPipeline(
+              symmetricCryptoCardTransactionManagerSpi,
+              terminalSessionMacPipeline.getExecutor()));
+    }
+    writeAccessLevel = null;
     modificationsCounter = card.getModificationsCounter();
+    nbPostponedData = 0;
+    svPostponedDataIndex = -1;
+    isSvGet = false;
+    svOperation = null;
+    svAction = null;
+    isSvOperationInSecureSession = false;
+  }
+
+  /**
+   * Enables the pipelined mode of the terminal session MAC updates.
+   *
+   * <p>The terminal session MAC is then updated on the provided executor with the exchanged APDUs
+   * while the next card request is in progress.
+   *
+   * @param executor The executor performing the updates.
+   * @since 3.1.7
+   */
+  final void enableTerminalSessionMacPipelining(Executor executor) {
+    transactionContext.setTerminalSessionMacPipeline(
+        new TerminalSessionMacPipeline(symmetricCryptoCardTransactionManagerSpi, executor));
   }
 
   /**
@@ -162,6 +241,15 @@ final void resetTransaction() {
     isSvOperationInSecureSession = false;
     disablePreOpenMode();
     commands.clear();
+    TerminalSessionMacPipeline terminalSessionMacPipeline =
+        transactionContext.getTerminalSessionMacPipeline();
+    if (terminalSessionMacPipeline != null) {
+      try {
+        terminalSessionMacPipeline.drain();
+      } catch (RuntimeException e) {
+        logger.warn("Failed to update terminal session MAC: {}", e.getMessage());
+      }
+    }
     if (transactionContext.isSecureSessionOpen()) {
       try {
         CommandCloseSecureSession cancelSecureSessionCommand =
@@ -286,6 +374,13 @@ final T prepareIncreaseOrDecreaseCounter(
    * post-processing of each of the previous commands in anticipation. If at least one
    * post-processing cannot be anticipated, then we execute the block of previous commands first.
    *
+   * <p>A block is only cut when the finalization of a command requires it. Before a block is
+   * transmitted, the SV Get commands prepared later out of session are anticipated into it when
+   * they are only preceded by PIN, challenge or read commands, so that the SV modifying command
+   * depending on them does not require an additional card request. The other commands keep the
+   * order in which they have been prepared. The resulting plan is available through {@link
+   * #getCardRequestPlan()} for diagnostic purposes.
+   *
    * @since 2.3.2
    */
   @Override
@@ -295,10 +390,14 @@ public final T processCommands(ChannelControl channelControl) {
       return currentInstance;
     }
     try {
+      startCardRequestPlan();
+      List<Command> pendingCommands = new ArrayList<>(commands);
       List<Command> cardRequestCommands = new ArrayList<>();
-      for (Command command : commands) {
+      for (int i = 0; i < pendingCommands.size(); i++) {
+        Command command = pendingCommands.get(i);
         if (command.isCryptoServiceRequiredToFinalizeRequest()
             && (!synchronizeCryptoServiceBeforeCardProcessing(cardRequestCommands))) {
+          anticipateSvGetCommands(cardRequestCommands, pendingCommands, i);
           executeCardCommands(cardRequestCommands, ChannelControl.KEEP_OPEN);
           cardRequestCommands.clear();
         }
@@ -307,11 +406,13 @@ public final T processCommands(ChannelControl channelControl) {
       }
       executeCardCommands(cardRequestCommands, channelControl);
       processCryptoPreparedCommands();
+      updateRecordContentCacheIfNeeded();
     } catch (RuntimeException e) {
       resetTransaction();
       throw e;
     } finally {
       commands.clear();
+      logCardRequestPlan();
       if (isExtendedMode && !card.isExtendedModeSupported()) {
         isExtendedMode = false;
       }
@@ -319,6 +420,48 @@ public final T processCommands(ChannelControl channelControl) {
     return currentInstance;
   }
 
+  /**
+   * Moves into the provided card request the SV Get commands pending from the provided index that
+   * are only preceded by commands of {@link #SV_GET_ANTICIPATION_CROSSABLE_COMMANDS}, all out of
+   * session.
+   *
+   * <p>The anticipated commands are finalized and inserted before a trailing Get Challenge command
+   * so that the card challenge is still consumed by the command that follows it.
+   *
+   * @param cardRequestCommands The finalized commands of the card request about to be transmitted.
+   * @param pendingCommands The prepared commands remaining to be processed.
+   * @param fromIndex The index of the first pending command not yet finalized.
+   */
+  private static void anticipateSvGetCommands(
+      List<Command> cardRequestCommands, List<Command> pendingCommands, int fromIndex) {
+    int insertionIndex = cardRequestCommands.size();
+    if (insertionIndex == 0
+        || cardRequestCommands.get(insertionIndex - 1).getCommandContext().isSecureSessionOpen()) {
+      return;
+    }
+    if (cardRequestCommands.get(insertionIndex - 1).getCommandRef()
+        == CardCommandRef.GET_CHALLENGE) {
+      insertionIndex--;
+    }
+    int index = fromIndex;
+    while (index < pendingCommands.size()) {
+      Command command = pendingCommands.get(index);
+      if (command.getCommandContext().isSecureSessionOpen()) {
+        return;
+      }
+      if (command.getCommandRef() == CardCommandRef.SV_GET
+          && !command.isCryptoServiceRequiredToFinalizeRequest()) {
+        pendingCommands.remove(index);
+        command.finalizeRequest();
+        cardRequestCommands.add(insertionIndex++, command);
+      } else if (SV_GET_ANTICIPATION_CROSSABLE_COMMANDS.contains(command.getCommandRef())) {
+        index++;
+      } else {
+        return;
+      }
+    }
+  }
+
   /**
    * Attempts to synchronize the crypto service before executing the finalized command on the card
    * and returns "true" on successful execution.
@@ -336,11 +479,24 @@ private boolean synchronizeCryptoServiceBeforeCardProcessing(List<Command> comma
     return true;
   }
 
+  /**
+   * Stores the records of the files read or written since the last update in the record content
+   * cache, if enabled, once the card image is consistent with the card, i.e. outside a secure
+   * session.
+   */
+  private void updateRecordContentCacheIfNeeded() {
+    RecordContentCache recordContentCache = transactionContext.getRecordContentCache();
+    if (recordContentCache != null && !isSecureSessionOpen) {
+      recordContentCache.putFiles(card, card.pollUpdatedSfis());
+    }
+  }
+
   /** Process any prepared crypto commands. */
   private void processCryptoPreparedCommands() {
     if (symmetricCryptoCardTransactionManagerSpi != null) {
       try {
-        symmetricCryptoCardTransactionManagerSpi.synchronize();
+        // Completes the pending terminal session MAC updates first, if any
+        transactionContext.getSymmetricCryptoCardTransactionManagerSpi().synchronize();
       } catch (SymmetricCryptoException e) {
         throw new CryptoException(e.getMessage(), e);
       } catch (SymmetricCryptoIOException e) {
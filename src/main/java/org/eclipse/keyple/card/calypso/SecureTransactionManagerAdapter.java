@@ -69,6 +69,21 @@ void checkNoSecureSession() {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException If a secure session is open.
+   * @since 3.1.7
+   */
+  @Override
+  void rebind(CalypsoCardAdapter card) {
+    if (isSecureSessionOpen || getTransactionContext().isSecureSessionOpen()) {
+      throw new IllegalStateException(MSG_SECURE_SESSION_OPEN);
+    }
+    super.rebind(card);
+    resetCommandContext();
+  }
+
   /**
    * Clears the info associated with the "pre-open" mode.
    *
@@ -42,6 +42,7 @@ class SymmetricCryptoSecuritySettingAdapter implements SymmetricCryptoSecuritySe
   private boolean isSvLoadAndDebitLogEnabled;
   private boolean isSvNegativeBalanceAuthorized;
   private boolean isReadOnSessionOpeningDisabled;
+  private RecordContentCache recordContentCache;
 
   private final Map<WriteAccessLevel, Map<Byte, Byte>> kifMap =
       new EnumMap<>(WriteAccessLevel.class);
@@ -294,6 +295,24 @@ boolean isReadOnSessionOpeningDisabled() {
     return isReadOnSessionOpeningDisabled;
   }
 
+  /**
+   * Sets the cache of the record contents used to anticipate the responses in pre-open mode.
+   *
+   * @param recordContentCache The cache or "null" to disable it.
+   * @since 3.1.7
+   */
+  void setRecordContentCache(RecordContentCache recordContentCache) {
+    this.recordContentCache = recordContentCache;
+  }
+
+  /**
+   * @return The cache of the record contents or "null" if not enabled.
+   * @since 3.1.7
+   */
+  RecordContentCache getRecordContentCache() {
+    return recordContentCache;
+  }
+
   /**
    * Gets the KIF value to use for the provided write access level and KVC value.
    *
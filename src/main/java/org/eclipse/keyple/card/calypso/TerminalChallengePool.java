@@ -0,0 +1,128 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of terminal challenges shared between transactions.
+ *
+ * <p>The challenges are generated in advance on the provided executor using the provided entropy
+ * source, and handed out without locking. The pool is refilled in the background as soon as half
+ * of it has been consumed. If the pool is empty, then a challenge is generated on the caller
+ * thread.
+ *
+ * @since 3.1.7
+ */
+final class TerminalChallengePool {
+
+  private static final Logger logger = LoggerFactory.getLogger(TerminalChallengePool.class);
+
+  private final int challengeLength;
+  private final int poolSize;
+  private final Consumer<byte[]> entropySource;
+  private final Executor executor;
+  private final Queue<byte[]> challenges = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger availableChallenges = new AtomicInteger();
+  private final AtomicBoolean isRefillScheduled = new AtomicBoolean();
+
+  /**
+   * Constructor.
+   *
+   * <p>The initial filling of the pool is scheduled immediately.
+   *
+   * @param challengeLength The length of the challenges in bytes.
+   * @param poolSize The number of challenges generated in advance.
+   * @param entropySource The thread-safe entropy source filling the provided arrays with random
+   *     bytes.
+   * @param executor The executor generating the challenges.
+   * @since 3.1.7
+   */
+  TerminalChallengePool(
+      int challengeLength, int poolSize, Consumer<byte[]> entropySource, Executor executor) {
+    this.challengeLength = challengeLength;
+    this.poolSize = poolSize;
+    this.entropySource = entropySource;
+    this.executor = executor;
+    scheduleRefill();
+  }
+
+  /**
+   * Returns a new challenge, never returned before.
+   *
+   * @return A non-null array.
+   * @since 3.1.7
+   */
+  byte[] next() {
+    byte[] challenge = challenges.poll();
+    if (challenge == null) {
+      scheduleRefill();
+      return generate();
+    }
+    if (availableChallenges.decrementAndGet() <= poolSize / 2) {
+      scheduleRefill();
+    }
+    return challenge;
+  }
+
+  /**
+   * @return The number of challenges currently available.
+   * @since 3.1.7
+   */
+  int getAvailableChallenges() {
+    return availableChallenges.get();
+  }
+
+  /** Schedules the refill of the pool, unless it is already scheduled. */
+  private void scheduleRefill() {
+    if (!isRefillScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::refill);
+    } catch (RejectedExecutionException e) {
+      isRefillScheduled.set(false);
+      logger.warn("Refill of the terminal challenge pool rejected: {}", e.getMessage());
+    }
+  }
+
+  /** Fills the pool up to its size. */
+  private void refill() {
+    try {
+      while (availableChallenges.get() < poolSize) {
+        challenges.add(generate());
+        availableChallenges.incrementAndGet();
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Refill of the terminal challenge pool failed: {}", e.getMessage());
+    } finally {
+      isRefillScheduled.set(false);
+    }
+  }
+
+  /**
+   * @return A new challenge from the entropy source.
+   */
+  private byte[] generate() {
+    byte[] challenge = new byte[challengeLength];
+    entropySource.accept(challenge);
+    return challenge;
+  }
+}
@@ -0,0 +1,117 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.eclipse.keypop.calypso.card.transaction.CryptoException;
+import org.eclipse.keypop.calypso.card.transaction.CryptoIOException;
+import org.eclipse.keypop.calypso.crypto.symmetric.SymmetricCryptoException;
+import org.eclipse.keypop.calypso.crypto.symmetric.SymmetricCryptoIOException;
+import org.eclipse.keypop.calypso.crypto.symmetric.spi.SymmetricCryptoCardTransactionManagerSpi;
+
+/**
+ * Pipeline of terminal session MAC updates.
+ *
+ * <p>The updates of the terminal session MAC with the exchanged APDUs are queued in order on the
+ * provided executor, so that they are performed while the next card request is in progress. Any
+ * other use of the symmetric crypto service must be preceded by a call to {@link #drain()}, which
+ * waits for all queued updates to be completed.
+ *
+ * @since 3.1.7
+ */
+final class TerminalSessionMacPipeline {
+
+  private final SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi;
+  private final Executor executor;
+  private CompletableFuture<Void> pendingUpdates = CompletableFuture.completedFuture(null);
+
+  /**
+   * Constructor.
+   *
+   * @param symmetricCryptoCardTransactionManagerSpi The symmetric crypto service SPI.
+   * @param executor The executor performing the updates.
+   * @since 3.1.7
+   */
+  TerminalSessionMacPipeline(
+      SymmetricCryptoCardTransactionManagerSpi symmetricCryptoCardTransactionManagerSpi,
+      Executor executor) {
+    this.symmetricCryptoCardTransactionManagerSpi = symmetricCryptoCardTransactionManagerSpi;
+    this.executor = executor;
+  }
+
+  /**
+   * @return The executor performing the updates.
+   * @since 3.1.7
+   */
+  Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Queues the update of the terminal session MAC with the provided APDU request and response.
+   *
+   * <p>If a previous update has failed, then the provided APDUs are ignored and the failure will be
+   * reported by the next call to {@link #drain()}.
+   *
+   * @param apduRequest The APDU request.
+   * @param apduResponse The APDU response.
+   * @since 3.1.7
+   */
+  void submit(byte[] apduRequest, byte[] apduResponse) {
+    pendingUpdates =
+        pendingUpdates.thenRunAsync(
+            () -> updateTerminalSessionMac(apduRequest, apduResponse), executor);
+  }
+
+  /**
+   * Waits for all queued updates to be completed.
+   *
+   * @throws CryptoException If an update has failed due to a crypto error.
+   * @throws CryptoIOException If an update has failed due to a communication error with the crypto
+   *     service.
+   * @since 3.1.7
+   */
+  void drain() {
+    CompletableFuture<Void> updates = pendingUpdates;
+    if (updates.isDone() && !updates.isCompletedExceptionally()) {
+      return;
+    }
+    pendingUpdates = CompletableFuture.completedFuture(null);
+    try {
+      updates.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new CryptoException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Updates the terminal session MAC.
+   *
+   * @param apduRequest The APDU request.
+   * @param apduResponse The APDU response.
+   */
+  private void updateTerminalSessionMac(byte[] apduRequest, byte[] apduResponse) {
+    try {
+      symmetricCryptoCardTransactionManagerSpi.updateTerminalSessionMac(apduRequest);
+      symmetricCryptoCardTransactionManagerSpi.updateTerminalSessionMac(apduResponse);
+    } catch (SymmetricCryptoException e) {
+      throw new CryptoException(e.getMessage(), e);
+    } catch (SymmetricCryptoIOException e) {
+      throw new CryptoIOException(e.getMessage(), e);
+    }
+  }
+}
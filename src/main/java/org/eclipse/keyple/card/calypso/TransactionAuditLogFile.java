@@ -0,0 +1,119 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only memory-mapped log file of the APDUs exchanged with the cards, usable as the sink of
+ * a {@link TransactionAuditRecorder} shared by several transaction managers.
+ *
+ * <p>Each APDU is written as its length on 4 bytes followed by its bytes. The unused end of the
+ * file is filled with zeros, so the log ends at the first zero length. When the log is reopened,
+ * the new APDUs are appended after the existing ones. The APDUs which no longer fit in the file
+ * are dropped, a warning is logged and they are counted.
+ *
+ * <p>The APDUs are written to the mapped memory, which the operating system writes back to the
+ * file asynchronously: they survive a crash of the process, but not of the system. {@link #flush()}
+ * forces them to the storage device.
+ *
+ * @since 3.1.7
+ */
+final class TransactionAuditLogFile implements Consumer<byte[]> {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransactionAuditLogFile.class);
+
+  private final MappedByteBuffer buffer;
+  private long droppedApdus;
+
+  /**
+   * Opens or creates the log file and maps it in memory.
+   *
+   * @param file The log file.
+   * @param size The size of the file in bytes.
+   * @throws IOException If the file cannot be opened or mapped.
+   * @since 3.1.7
+   */
+  TransactionAuditLogFile(Path file, int size) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      // The mapping remains valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+    // Skip the existing APDUs
+    while (buffer.remaining() >= 4) {
+      int length = buffer.getInt(buffer.position());
+      if (length <= 0 || length > buffer.remaining() - 4) {
+        break;
+      }
+      // Called through Buffer to run on Java 8 when compiled with a later JDK
+      ((Buffer) buffer).position(buffer.position() + 4 + length);
+    }
+  }
+
+  /**
+   * Appends the provided APDU to the log.
+   *
+   * @param apdu The APDU, ignored if empty.
+   * @since 3.1.7
+   */
+  @Override
+  public synchronized void accept(byte[] apdu) {
+    if (apdu.length == 0) {
+      return;
+    }
+    if (buffer.remaining() < 4 + apdu.length) {
+      if (droppedApdus++ == 0) {
+        logger.warn("Transaction audit log file full, the next APDUs are dropped");
+      }
+      return;
+    }
+    buffer.putInt(apdu.length).put(apdu);
+  }
+
+  /**
+   * Forces the APDUs written so far to the storage device.
+   *
+   * @since 3.1.7
+   */
+  synchronized void flush() {
+    buffer.force();
+  }
+
+  /**
+   * @return The number of APDUs dropped because the log file is full.
+   * @since 3.1.7
+   */
+  synchronized long getDroppedApdus() {
+    return droppedApdus;
+  }
+
+  /**
+   * @return The number of bytes written in the log file, including the previous APDUs.
+   * @since 3.1.7
+   */
+  synchronized int getLength() {
+    return buffer.position();
+  }
+}
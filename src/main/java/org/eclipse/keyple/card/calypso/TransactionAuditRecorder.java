@@ -0,0 +1,175 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import java.util.AbstractList;
+import java.util.function.Consumer;
+
+/**
+ * Bounded recorder of the APDUs exchanged with the card, exposed as the transaction audit data.
+ *
+ * <p>The last APDUs are kept in a fixed-size ring buffer, the oldest ones being overwritten once
+ * the capacity is reached. Each APDU can also be forwarded to a sink (e.g. an append-only log
+ * file), so that the complete audit trail is kept without being retained on the heap.
+ *
+ * <p>The list view always contains the retained APDUs from the oldest to the most recent. The
+ * only supported modification is {@link #add(byte[])}, which records an APDU: the same instance is
+ * kept for the whole life of the transaction manager and is shared with the symmetric crypto
+ * service, which appends its own APDUs to it (e.g. the exchanges with a SAM).
+ *
+ * <p>The symmetric crypto service may append its APDUs from another thread while the terminal
+ * session MAC updates are pipelined, so all the methods are synchronized on the recorder. As with
+ * {@link java.util.Collections#synchronizedList(java.util.List)}, an iteration must be made in a
+ * block synchronized on the recorder.
+ *
+ * @since 3.1.7
+ */
+final class TransactionAuditRecorder extends AbstractList<byte[]> {
+
+  /**
+   * Default number of retained APDUs.
+   *
+   * @since 3.1.7
+   */
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private byte[][] apdus;
+  private int start;
+  private int size;
+  private Consumer<byte[]> sink;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity The maximum number of retained APDUs.
+   * @since 3.1.7
+   */
+  TransactionAuditRecorder(int capacity) {
+    apdus = new byte[capacity][];
+  }
+
+  /**
+   * Changes the capacity and the sink of the recorder, keeping the most recent APDUs that fit in
+   * the new capacity.
+   *
+   * @param capacity The maximum number of retained APDUs (0 to retain none).
+   * @param sink The sink receiving every recorded APDU, null if none.
+   * @since 3.1.7
+   */
+  synchronized void configure(int capacity, Consumer<byte[]> sink) {
+    byte[][] newApdus = new byte[capacity][];
+    int newSize = Math.min(size, capacity);
+    for (int i = 0; i < newSize; i++) {
+      newApdus[i] = get(size - newSize + i);
+    }
+    apdus = newApdus;
+    start = 0;
+    size = newSize;
+    this.sink = sink;
+    modCount++;
+  }
+
+  /**
+   * Records an APDU, overwriting the oldest one if the capacity is reached, and forwards it to the
+   * sink if any.
+   *
+   * @param apdu The APDU.
+   * @since 3.1.7
+   */
+  synchronized void record(byte[] apdu) {
+    if (sink != null) {
+      sink.accept(apdu);
+    }
+    if (apdus.length == 0) {
+      return;
+    }
+    if (size < apdus.length) {
+      apdus[(start + size) % apdus.length] = apdu;
+      size++;
+    } else {
+      apdus[start] = apdu;
+      start = (start + 1) % apdus.length;
+    }
+    modCount++;
+  }
+
+  /**
+   * Records the provided APDU as {@link #record(byte[])} does.
+   *
+   * @param apdu The APDU.
+   * @return Always true.
+   * @since 3.1.7
+   */
+  @Override
+  public boolean add(byte[] apdu) {
+    record(apdu);
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public synchronized byte[] get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return apdus[(start + index) % apdus.length];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public synchronized Object[] toArray() {
+    return super.toArray();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public synchronized <T> T[] toArray(T[] a) {
+    return super.toArray(a);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 3.1.7
+   */
+  @Override
+  public synchronized void clear() {
+    for (int i = 0; i < size; i++) {
+      apdus[(start + i) % apdus.length] = null;
+    }
+    start = 0;
+    size = 0;
+    modCount++;
+  }
+}
@@ -14,9 +14,12 @@
 import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 import org.eclipse.keyple.core.util.Assert;
 import org.eclipse.keyple.core.util.HexUtil;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keypop.calypso.card.GetDataTag;
 import org.eclipse.keypop.calypso.card.PutDataTag;
 import org.eclipse.keypop.calypso.card.SelectFileControl;
@@ -93,11 +96,13 @@
   /* Final fields */
   T currentInstance = (T) this;
   final ProxyReaderApi cardReader;
-  final CalypsoCardAdapter card;
-  private final List<byte[]> transactionAuditData = new ArrayList<>();
+  private final TransactionAuditRecorder transactionAuditData =
+      new TransactionAuditRecorder(TransactionAuditRecorder.DEFAULT_CAPACITY);
 
   /* Dynamic fields */
+  CalypsoCardAdapter card;
   final List<Command> commands = new ArrayList<>();
+  private final List<List<String>> cardRequestPlan = new ArrayList<>();
 
   /**
    * Builds a new instance.
@@ -142,6 +147,24 @@
    */
   abstract void resetTransaction();
 
+  /**
+   * Binds the transaction manager to a new card, so that it can be reused for a new transaction on
+   * the same reader.
+   *
+   * <p>All the state of the previous transaction is cleared, while the internal lists and context
+   * objects are kept.
+   *
+   * @param card The newly selected card.
+   * @since 3.1.7
+   */
+  void rebind(CalypsoCardAdapter card) {
+    this.card = card;
+    commands.clear();
+    transactionAuditData.clear();
+    cardRequestPlan.clear();
+    getTransactionContext().setCard(card);
+  }
+
   /**
    * Closes and opens a new secure session if the three following conditions are satisfied:
    *
@@ -165,6 +188,40 @@
    */
   abstract boolean canConfigureReadOnOpenSecureSession();
 
+  /**
+   * Starts a new card request plan, to be called at the beginning of the processing of the
+   * prepared commands.
+   *
+   * @since 3.1.7
+   */
+  final void startCardRequestPlan() {
+    cardRequestPlan.clear();
+  }
+
+  /**
+   * Logs the card request plan of the current processing if the debug level is enabled.
+   *
+   * @since 3.1.7
+   */
+  final void logCardRequestPlan() {
+    if (logger.isDebugEnabled()) {
+      logger.debug(
+          "Card request plan: {} card request(s) {}", cardRequestPlan.size(), cardRequestPlan);
+    }
+  }
+
+  /**
+   * Returns the plan of the card requests transmitted during the last processing of the prepared
+   * commands, for diagnostic purposes.
+   *
+   * @return A non-null list containing for each card request the names of its commands, in the
+   *     order of transmission.
+   * @since 3.1.7
+   */
+  final List<List<String>> getCardRequestPlan() {
+    return Collections.unmodifiableList(cardRequestPlan);
+  }
+
   /**
    * Executes the provided commands.
    *
@@ -176,6 +233,7 @@ final void executeCardCommands(List<Command> commands, ChannelControl channelCon
 
     // Retrieve the list of C-APDUs
     List<ApduRequestSpi> apduRequests = getApduRequests(commands);
+    addToCardRequestPlan(commands);
 
     // Wrap the list of C-APDUs into a card request
     CardRequestSpi cardRequest = new CardRequestAdapter(apduRequests, true);
@@ -240,6 +298,19 @@ void parseCommandResponse(Command command, ApduResponseApi apduResponse)
     command.parseResponse(apduResponse);
   }
 
+  /**
+   * Adds a card request containing the provided commands to the card request plan.
+   *
+   * @param commands The commands of the card request.
+   */
+  private void addToCardRequestPlan(List<Command> commands) {
+    List<String> commandNames = new ArrayList<>(commands.size());
+    for (Command command : commands) {
+      commandNames.add(command.getName());
+    }
+    cardRequestPlan.add(commandNames);
+  }
+
   /**
    * Creates a list of {@link ApduRequestSpi} from a list of {@link Command}.
    *
@@ -248,7 +319,7 @@ void parseCommandResponse(Command command, ApduResponseApi apduResponse)
    * @since 2.2.0
    */
   private static List<ApduRequestSpi> getApduRequests(List<Command> commands) {
-    List<ApduRequestSpi> apduRequests = new ArrayList<>();
+    List<ApduRequestSpi> apduRequests = new ArrayList<>(commands != null ? commands.size() : 0);
     if (commands != null) {
       for (Command command : commands) {
         apduRequests.add(command.getApduRequest());
@@ -314,12 +385,24 @@ private void saveTransactionAuditData(CardRequestSpi cardRequest, CardResponseAp
       List<ApduRequestSpi> requests = cardRequest.getApduRequests();
       List<ApduResponseApi> responses = cardResponse.getApduResponses();
       for (int i = 0; i < responses.size(); i++) {
-        transactionAuditData.add(requests.get(i).getApdu());
-        transactionAuditData.add(responses.get(i).getApdu());
+        transactionAuditData.record(requests.get(i).getApdu());
+        transactionAuditData.record(responses.get(i).getApdu());
       }
     }
   }
 
+  /**
+   * Changes the number of APDUs retained in the transaction audit data and the sink receiving all
+   * the exchanged APDUs.
+   *
+   * @param capacity The maximum number of retained APDUs.
+   * @param sink The sink, null if none.
+   * @since 3.1.7
+   */
+  final void configureTransactionAuditData(int capacity, Consumer<byte[]> sink) {
+    transactionAuditData.configure(capacity, sink);
+  }
+
   /**
    * Returns a string representation of the transaction audit data.
    *
@@ -327,13 +410,53 @@ private void saveTransactionAuditData(CardRequestSpi cardRequest, CardResponseAp
    * @since 3.0.0
    */
   final String getTransactionAuditDataAsString() {
-    return "\nTransaction audit JSON data: {"
-        + "\"targetSmartCard\":"
-        + card.toString()
-        + ","
-        + "\"apdus\":"
-        + JsonUtil.toJson(transactionAuditData)
-        + "}";
+    String cardJson = card.toString();
+    // The symmetric crypto service may append APDUs concurrently
+    synchronized (transactionAuditData) {
+      int apdusLength = 0;
+      for (byte[] apdu : transactionAuditData) {
+        apdusLength += 2 * apdu.length + 3;
+      }
+      StringBuilder sb = new StringBuilder(64 + cardJson.length() + apdusLength);
+      sb.append("\nTransaction audit JSON data: {\"targetSmartCard\":")
+          .append(cardJson)
+          .append(",\"apdus\":[");
+      for (int i = 0; i < transactionAuditData.size(); i++) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        sb.append('"').append(HexUtil.toHex(transactionAuditData.get(i))).append('"');
+      }
+      return sb.append("]}").toString();
+    }
+  }
+
+  /**
+   * Processes all previously prepared commands on the provided executor, without blocking the
+   * calling thread.
+   *
+   * <p>The processing is the same as {@link #processCommands(ChannelControl)}: if it fails, the
+   * transaction is reset before the returned future is completed exceptionally. The transaction
+   * manager must not be used until the returned future is completed.
+   *
+   * @param channelControl Policy for managing the physical channel after executing commands to the
+   *     card.
+   * @param executor The executor running the processing (platform or virtual threads).
+   * @return A non-null future completed with the current transaction manager.
+   * @throws IllegalArgumentException If an argument is null.
+   * @since 3.1.7
+   */
+  public final CompletableFuture<T> processCommandsAsync(
+      ChannelControl channelControl, Executor executor) {
+    Assert.getInstance().notNull(channelControl, "channelControl").notNull(executor, "executor");
+    try {
+      return CompletableFuture.supplyAsync(() -> processCommands(channelControl), executor);
+    } catch (RejectedExecutionException e) {
+      resetTransaction();
+      CompletableFuture<T> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
   }
 
   /**
@@ -725,6 +848,13 @@ public final T prepareReadBinary(byte sfi, int offset, int nbBytesToRead) {
             new CommandReadBinary(getTransactionContext(), getCommandContext(), sfi, 0, 1));
       }
 
+      // When several commands are needed, their responses are assembled in a presized buffer
+      int nbParts = (nbBytesToRead + getPayloadCapacity() - 1) / getPayloadCapacity();
+      CommandReadBinary.ContentAssembly contentAssembly =
+          nbParts > 1
+              ? new CommandReadBinary.ContentAssembly(sfi, offset, nbBytesToRead, nbParts)
+              : null;
+
       int currentLength;
       int currentOffset = offset;
       int nbBytesRemainingToRead = nbBytesToRead;
@@ -733,7 +863,12 @@ public final T prepareReadBinary(byte sfi, int offset, int nbBytesToRead) {
 
         commands.add(
             new CommandReadBinary(
-                getTransactionContext(), getCommandContext(), sfi, currentOffset, currentLength));
+                getTransactionContext(),
+                getCommandContext(),
+                sfi,
+                currentOffset,
+                currentLength,
+                contentAssembly));
 
         currentOffset += currentLength;
         nbBytesRemainingToRead -= currentLength;
@@ -1146,6 +1281,55 @@ T prepareIncreaseOrDecreaseCounter(
     return currentInstance;
   }
 
+  /**
+   * Schedules the increase or decrease of several counters of a counters file, the counters and
+   * their values being provided as primitive arrays instead of a map.
+   *
+   * @param isDecreaseCommand True if is a decrease command, False if is an increase command.
+   * @param sfi SFI of the EF to select.
+   * @param counterNumbers The numbers of the counters to be incremented/decremented.
+   * @param incDecValues The increment/decrement values, in the same order as the counter numbers.
+   * @return The current instance.
+   * @throws IllegalArgumentException If one of the arguments is out of range, if the arrays do not
+   *     have the same length or if a counter number is present more than once.
+   * @since 3.1.7
+   */
+  final T prepareIncreaseOrDecreaseCounters(
+      boolean isDecreaseCommand, byte sfi, int[] counterNumbers, int[] incDecValues) {
+    try {
+      Assert.getInstance()
+          .isInRange((int) sfi, CalypsoCardConstant.SFI_MIN, CalypsoCardConstant.SFI_MAX, "sfi")
+          .notNull(counterNumbers, "counterNumbers")
+          .notNull(incDecValues, "incDecValues")
+          .isInRange(counterNumbers.length, 1, getPayloadCapacity() / 3, "counterNumbers")
+          .isEqual(incDecValues.length, counterNumbers.length, "incDecValues");
+      for (int i = 0; i < counterNumbers.length; i++) {
+        Assert.getInstance()
+            .isInRange(
+                counterNumbers[i],
+                CalypsoCardConstant.NUM_CNT_MIN,
+                getPayloadCapacity() / 3,
+                "counterNumber")
+            .isInRange(
+                incDecValues[i],
+                CalypsoCardConstant.CNT_VALUE_MIN,
+                CalypsoCardConstant.CNT_VALUE_MAX,
+                "incDecValue");
+        for (int j = 0; j < i; j++) {
+          if (counterNumbers[j] == counterNumbers[i]) {
+            throw new IllegalArgumentException(
+                "Counter number " + counterNumbers[i] + " is present more than once");
+          }
+        }
+      }
+      addIncreaseOrDecreaseCountersCommands(isDecreaseCommand, sfi, counterNumbers, incDecValues);
+    } catch (RuntimeException e) {
+      resetTransaction();
+      throw e;
+    }
+    return currentInstance;
+  }
+
   /**
    * Factorisation of prepareDecreaseMultipleCounters and prepareIncreaseMultipleCounters.
    *
@@ -1178,58 +1362,16 @@ private T prepareIncreaseOrDecreaseCounters(
                 CalypsoCardConstant.CNT_VALUE_MAX,
                 "counterNumberToIncDecValueMapValue");
       }
-      if (card.getProductType() != CalypsoCard.ProductType.PRIME_REVISION_3
-          && card.getProductType() != CalypsoCard.ProductType.PRIME_REVISION_2) {
-        for (Map.Entry<Integer, Integer> entry : counterNumberToIncDecValueMap.entrySet()) {
-          if (isDecreaseCommand) {
-            prepareDecreaseCounter(sfi, entry.getKey(), entry.getValue());
-          } else {
-            prepareIncreaseCounter(sfi, entry.getKey(), entry.getValue());
-          }
-        }
-      } else {
-        int nbCountersPerApdu = getPayloadCapacity() / 4;
-        if (counterNumberToIncDecValueMap.size() <= nbCountersPerApdu) {
-          CommandIncreaseOrDecreaseMultiple command =
-              new CommandIncreaseOrDecreaseMultiple(
-                  isDecreaseCommand,
-                  getTransactionContext(),
-                  getCommandContext(),
-                  sfi,
-                  new TreeMap<>(counterNumberToIncDecValueMap));
-          prepareNewSecureSessionIfNeeded(command);
-          commands.add(command);
-        } else {
-          // the number of counters exceeds the payload capacity, let's split into several apdu
-          // commands
-          int i = 0;
-          TreeMap<Integer, Integer> map = new TreeMap<>();
-          for (Map.Entry<Integer, Integer> entry : counterNumberToIncDecValueMap.entrySet()) {
-            i++;
-            map.put(entry.getKey(), entry.getValue());
-            if (i == nbCountersPerApdu) {
-              CommandIncreaseOrDecreaseMultiple command =
-                  new CommandIncreaseOrDecreaseMultiple(
-                      isDecreaseCommand,
-                      getTransactionContext(),
-                      getCommandContext(),
-                      sfi,
-                      new TreeMap<>(map));
-              prepareNewSecureSessionIfNeeded(command);
-              commands.add(command);
-              i = 0;
-              map.clear();
-            }
-          }
-          if (!map.isEmpty()) {
-            CommandIncreaseOrDecreaseMultiple command =
-                new CommandIncreaseOrDecreaseMultiple(
-                    isDecreaseCommand, getTransactionContext(), getCommandContext(), sfi, map);
-            prepareNewSecureSessionIfNeeded(command);
-            commands.add(command);
-          }
-        }
+      int[] counterNumbers = new int[counterNumberToIncDecValueMap.size()];
+      int[] incDecValues = new int[counterNumbers.length];
+      int i = 0;
+      for (Map.Entry<Integer, Integer> entry :
+          new TreeMap<>(counterNumberToIncDecValueMap).entrySet()) {
+        counterNumbers[i] = entry.getKey();
+        incDecValues[i] = entry.getValue();
+        i++;
       }
+      addIncreaseOrDecreaseCountersCommands(isDecreaseCommand, sfi, counterNumbers, incDecValues);
     } catch (RuntimeException e) {
       resetTransaction();
       throw e;
@@ -1237,6 +1379,46 @@ private T prepareIncreaseOrDecreaseCounters(
     return currentInstance;
   }
 
+  /**
+   * Adds the commands increasing or decreasing the provided counters, using "Increase/Decrease
+   * Multiple" commands split according to the payload capacity when the card supports them.
+   *
+   * @param isDecreaseCommand True if is a decrease command, False if is an increase command.
+   * @param sfi SFI of the EF to select.
+   * @param counterNumbers The validated counter numbers.
+   * @param incDecValues The validated increment/decrement values.
+   */
+  private void addIncreaseOrDecreaseCountersCommands(
+      boolean isDecreaseCommand, byte sfi, int[] counterNumbers, int[] incDecValues) {
+    if (card.getProductType() != CalypsoCard.ProductType.PRIME_REVISION_3
+        && card.getProductType() != CalypsoCard.ProductType.PRIME_REVISION_2) {
+      for (int i = 0; i < counterNumbers.length; i++) {
+        if (isDecreaseCommand) {
+          prepareDecreaseCounter(sfi, counterNumbers[i], incDecValues[i]);
+        } else {
+          prepareIncreaseCounter(sfi, counterNumbers[i], incDecValues[i]);
+        }
+      }
+      return;
+    }
+    // the number of counters may exceed the payload capacity, let's split into several apdu
+    // commands
+    int nbCountersPerApdu = getPayloadCapacity() / 4;
+    for (int from = 0; from < counterNumbers.length; from += nbCountersPerApdu) {
+      int to = Math.min(from + nbCountersPerApdu, counterNumbers.length);
+      CommandIncreaseOrDecreaseMultiple command =
+          new CommandIncreaseOrDecreaseMultiple(
+              isDecreaseCommand,
+              getTransactionContext(),
+              getCommandContext(),
+              sfi,
+              Arrays.copyOfRange(counterNumbers, from, to),
+              Arrays.copyOfRange(incDecValues, from, to));
+      prepareNewSecureSessionIfNeeded(command);
+      commands.add(command);
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
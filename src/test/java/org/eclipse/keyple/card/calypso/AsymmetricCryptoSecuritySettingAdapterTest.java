@@ -12,8 +12,23 @@
 package org.eclipse.keyple.card.calypso;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.transaction.InvalidCertificateException;
 import org.eclipse.keypop.calypso.card.transaction.spi.CaCertificate;
@@ -303,6 +318,41 @@ public void addCaCertificate_whenValidCertificateAlreadyRegistered_shouldThrowIS
     asymmetricCryptoSecuritySettingAdapter.addCaCertificate((CaCertificate) mockCaCert);
   }
 
+  @Test
+  public void addCaCertificateIfAbsent_whenAlreadyRegistered_shouldKeepFirstContent()
+      throws CertificateValidationException, AsymmetricCryptoException {
+    CaCertificateContentSpi mockPcaCertContent = mock(CaCertificateContentSpi.class);
+    when(mockPcaCertContent.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_1);
+    Object mockPcaCert =
+        Mockito.mock(
+            Object.class,
+            withSettings().extraInterfaces(PcaCertificate.class, PcaCertificateSpi.class));
+    when(((PcaCertificateSpi) mockPcaCert).checkCertificateAndGetContent())
+        .thenReturn(mockPcaCertContent);
+    asymmetricCryptoSecuritySettingAdapter.addPcaCertificate((PcaCertificate) mockPcaCert);
+
+    CaCertificateSpi mockCaCert1 = mock(CaCertificateSpi.class);
+    CaCertificateSpi mockCaCert2 = mock(CaCertificateSpi.class);
+    CaCertificateContentSpi mockCaCertContent1 = mock(CaCertificateContentSpi.class);
+    CaCertificateContentSpi mockCaCertContent2 = mock(CaCertificateContentSpi.class);
+    when(mockCaCert1.getIssuerPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_1);
+    when(mockCaCert2.getIssuerPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_1);
+    when(mockCaCert1.checkCertificateAndGetContent(mockPcaCertContent))
+        .thenReturn(mockCaCertContent1);
+    when(mockCaCert2.checkCertificateAndGetContent(mockPcaCertContent))
+        .thenReturn(mockCaCertContent2);
+    when(mockCaCertContent1.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+    when(mockCaCertContent2.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+
+    asymmetricCryptoSecuritySettingAdapter.addCaCertificateIfAbsent(
+        mockCaCert1, new byte[] {CA_CERTIFICATE_TYPE});
+    asymmetricCryptoSecuritySettingAdapter.addCaCertificateIfAbsent(
+        mockCaCert2, new byte[] {CA_CERTIFICATE_TYPE});
+
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isSameAs(mockCaCertContent1);
+  }
+
   @Test
   public void addCaCertificateParser_whenValidParser_shouldFillParserStore() {
     // Mocking methods of CaCertificateParserSpi
@@ -385,4 +435,253 @@ public void addCardCertificateParser_whenValidParserAlreadyRegistered_shouldThro
     asymmetricCryptoSecuritySettingAdapter.addCardCertificateParser(
         (CardCertificateParser) mockCardCertParser);
   }
+
+  private CaCertificateContentSpi registerPcaCertificate() throws Exception {
+    CaCertificateContentSpi mockPcaCertContent = mock(CaCertificateContentSpi.class);
+    when(mockPcaCertContent.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_1);
+    Object mockPcaCert =
+        Mockito.mock(
+            Object.class,
+            withSettings().extraInterfaces(PcaCertificate.class, PcaCertificateSpi.class));
+    when(((PcaCertificateSpi) mockPcaCert).checkCertificateAndGetContent())
+        .thenReturn(mockPcaCertContent);
+    asymmetricCryptoSecuritySettingAdapter.addPcaCertificate((PcaCertificate) mockPcaCert);
+    return mockPcaCertContent;
+  }
+
+  private CaCertificate mockCaCertificate(
+      byte[] issuerPublicKeyReference,
+      CaCertificateContentSpi issuerContent,
+      CaCertificateContentSpi content)
+      throws Exception {
+    Object mockCaCert =
+        Mockito.mock(
+            Object.class,
+            withSettings().extraInterfaces(CaCertificate.class, CaCertificateSpi.class));
+    when(((CaCertificateSpi) mockCaCert).getIssuerPublicKeyReference())
+        .thenReturn(issuerPublicKeyReference);
+    when(((CaCertificateSpi) mockCaCert).checkCertificateAndGetContent(issuerContent))
+        .thenReturn(content);
+    return (CaCertificate) mockCaCert;
+  }
+
+  @Test
+  public void addCaCertificates_whenChainIsProvidedInReverseOrder_shouldRegisterAll()
+      throws Exception {
+    byte[] publicKeyReference3 = HexUtil.toByteArray("2233");
+    CaCertificateContentSpi pcaContent = registerPcaCertificate();
+    CaCertificateContentSpi caContent1 = mock(CaCertificateContentSpi.class);
+    when(caContent1.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+    CaCertificateContentSpi caContent2 = mock(CaCertificateContentSpi.class);
+    when(caContent2.getPublicKeyReference()).thenReturn(publicKeyReference3);
+    CaCertificate caCert1 = mockCaCertificate(PUBLIC_KEY_REFERENCE_1, pcaContent, caContent1);
+    CaCertificate caCert2 = mockCaCertificate(PUBLIC_KEY_REFERENCE_2, caContent1, caContent2);
+
+    Map<CaCertificate, RuntimeException> failures =
+        asymmetricCryptoSecuritySettingAdapter.addCaCertificates(
+            Arrays.asList(caCert2, caCert1), Executors.newFixedThreadPool(2));
+
+    assertThat(failures).isEmpty();
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isSameAs(caContent1);
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(publicKeyReference3))
+        .isSameAs(caContent2);
+  }
+
+  @Test
+  public void addCaCertificates_whenOneCertificateIsInvalid_shouldRegisterNoneAndReportFailures()
+      throws Exception {
+    byte[] publicKeyReference3 = HexUtil.toByteArray("2233");
+    CaCertificateContentSpi pcaContent = registerPcaCertificate();
+    CaCertificateContentSpi caContent1 = mock(CaCertificateContentSpi.class);
+    when(caContent1.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+    CaCertificate caCert1 = mockCaCertificate(PUBLIC_KEY_REFERENCE_1, pcaContent, caContent1);
+    CaCertificate caCert2 = mockCaCertificate(PUBLIC_KEY_REFERENCE_1, pcaContent, null);
+    when(((CaCertificateSpi) caCert2).checkCertificateAndGetContent(pcaContent))
+        .thenThrow(CertificateValidationException.class);
+    CaCertificate caCert3 = mockCaCertificate(publicKeyReference3, null, null);
+
+    Map<CaCertificate, RuntimeException> failures =
+        asymmetricCryptoSecuritySettingAdapter.addCaCertificates(
+            Arrays.asList(caCert1, caCert2, caCert3), ForkJoinPool.commonPool());
+
+    assertThat(failures).containsOnlyKeys(caCert2, caCert3);
+    assertThat(failures.get(caCert2)).isInstanceOf(InvalidCertificateException.class);
+    assertThat(failures.get(caCert3)).isInstanceOf(IllegalStateException.class);
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isNull();
+  }
+
+  @Test
+  public void addCaCertificates_whenReferenceIsRegisteredConcurrently_shouldRegisterNone()
+      throws Exception {
+    byte[] publicKeyReference3 = HexUtil.toByteArray("2233");
+    CaCertificateContentSpi pcaContent = registerPcaCertificate();
+    CaCertificateContentSpi caContent1 = mock(CaCertificateContentSpi.class);
+    when(caContent1.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+    CaCertificateContentSpi caContent2 = mock(CaCertificateContentSpi.class);
+    when(caContent2.getPublicKeyReference()).thenReturn(publicKeyReference3);
+    CaCertificateContentSpi concurrentContent = mock(CaCertificateContentSpi.class);
+    when(concurrentContent.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+    CaCertificate caCert1 = mockCaCertificate(PUBLIC_KEY_REFERENCE_1, pcaContent, caContent1);
+    CaCertificate caCert2 = mockCaCertificate(PUBLIC_KEY_REFERENCE_2, caContent1, null);
+    CaCertificate concurrentCert =
+        mockCaCertificate(PUBLIC_KEY_REFERENCE_1, pcaContent, concurrentContent);
+    // The reference of the first certificate is registered while the second one is verified
+    when(((CaCertificateSpi) caCert2).checkCertificateAndGetContent(caContent1))
+        .thenAnswer(
+            invocation -> {
+              asymmetricCryptoSecuritySettingAdapter.addCaCertificate(concurrentCert);
+              return caContent2;
+            });
+
+    Map<CaCertificate, RuntimeException> failures =
+        asymmetricCryptoSecuritySettingAdapter.addCaCertificates(
+            Arrays.asList(caCert1, caCert2), ForkJoinPool.commonPool());
+
+    assertThat(failures).containsOnlyKeys(caCert1);
+    assertThat(failures.get(caCert1)).isInstanceOf(IllegalStateException.class);
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isSameAs(concurrentContent);
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(publicKeyReference3))
+        .isNull();
+  }
+
+  @Test
+  public void getCaCertificate_whenImportedCertificateIsLookedUpDuringItsVerification_shouldFindIt()
+      throws Exception {
+    CaCertificateContentSpi mockPcaCertContent = mock(CaCertificateContentSpi.class);
+    when(mockPcaCertContent.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_1);
+    Object mockPcaCert =
+        Mockito.mock(
+            Object.class,
+            withSettings().extraInterfaces(PcaCertificate.class, PcaCertificateSpi.class));
+    when(((PcaCertificateSpi) mockPcaCert).checkCertificateAndGetContent())
+        .thenReturn(mockPcaCertContent);
+    asymmetricCryptoSecuritySettingAdapter.addPcaCertificate((PcaCertificate) mockPcaCert);
+
+    CaCertificateSpi mockCaCert = mock(CaCertificateSpi.class);
+    CaCertificateContentSpi mockCaCertContent = mock(CaCertificateContentSpi.class);
+    when(mockCaCert.getIssuerPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_1);
+    when(mockCaCert.checkCertificateAndGetContent(mockPcaCertContent))
+        .thenReturn(mockCaCertContent);
+    when(mockCaCertContent.getPublicKeyReference()).thenReturn(PUBLIC_KEY_REFERENCE_2);
+
+    // The first verification is interleaved with a lookup made by another thread
+    AtomicInteger nbParsings = new AtomicInteger();
+    AtomicReference<CaCertificateContentSpi> concurrentResult = new AtomicReference<>();
+    Object mockCaCertParser =
+        Mockito.mock(
+            Object.class,
+            withSettings()
+                .extraInterfaces(CaCertificateParser.class, CaCertificateParserSpi.class));
+    when(((CaCertificateParserSpi) mockCaCertParser).getCertificateType())
+        .thenReturn(CA_CERTIFICATE_TYPE);
+    when(((CaCertificateParserSpi) mockCaCertParser).parseCertificate(any(byte[].class)))
+        .thenAnswer(
+            invocation -> {
+              if (nbParsings.incrementAndGet() == 1) {
+                concurrentResult.set(
+                    CompletableFuture.supplyAsync(
+                            () ->
+                                asymmetricCryptoSecuritySettingAdapter.getCaCertificate(
+                                    PUBLIC_KEY_REFERENCE_2))
+                        .get());
+              }
+              return mockCaCert;
+            });
+    asymmetricCryptoSecuritySettingAdapter.addCaCertificateParser(
+        (CaCertificateParser) mockCaCertParser);
+
+    ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    CaCertificateSnapshot.write(
+        Collections.singletonList(
+            new AbstractMap.SimpleImmutableEntry<>(
+                PUBLIC_KEY_REFERENCE_2, new byte[] {CA_CERTIFICATE_TYPE})),
+        snapshot);
+    asymmetricCryptoSecuritySettingAdapter.importCaCertificates(
+        ByteBuffer.wrap(snapshot.toByteArray()));
+
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isSameAs(mockCaCertContent);
+    assertThat(concurrentResult.get()).isSameAs(mockCaCertContent);
+
+    // The certificate is exported once
+    ByteArrayOutputStream export = new ByteArrayOutputStream();
+    asymmetricCryptoSecuritySettingAdapter.exportCaCertificates(export);
+    AtomicInteger nbEntries = new AtomicInteger();
+    CaCertificateSnapshot.read(
+        ByteBuffer.wrap(export.toByteArray()), (reference, bytes) -> nbEntries.incrementAndGet());
+    assertThat(nbEntries.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void getCaCertificate_whenImportedCertificateIsSelfIssued_shouldThrowISE()
+      throws Exception {
+    importCaCertificates(Collections.singletonMap(PUBLIC_KEY_REFERENCE_1, PUBLIC_KEY_REFERENCE_1));
+
+    assertThatThrownBy(
+            () -> asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_1))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Cycle");
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_1))
+        .isNull();
+  }
+
+  @Test
+  public void getCaCertificate_whenImportedCertificatesIssueEachOther_shouldThrowISE()
+      throws Exception {
+    Map<byte[], byte[]> issuers = new LinkedHashMap<>();
+    issuers.put(PUBLIC_KEY_REFERENCE_1, PUBLIC_KEY_REFERENCE_2);
+    issuers.put(PUBLIC_KEY_REFERENCE_2, PUBLIC_KEY_REFERENCE_1);
+    importCaCertificates(issuers);
+
+    assertThatThrownBy(
+            () -> asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Cycle");
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_1))
+        .isNull();
+    assertThat(asymmetricCryptoSecuritySettingAdapter.getCaCertificate(PUBLIC_KEY_REFERENCE_2))
+        .isNull();
+  }
+
+  /**
+   * Imports a snapshot of CA certificates whose raw form is the certificate type followed by the
+   * reference of their issuer, with a parser building them accordingly.
+   *
+   * @param issuers The issuer reference of each imported certificate reference.
+   */
+  private void importCaCertificates(Map<byte[], byte[]> issuers) throws Exception {
+    Object mockCaCertParser =
+        Mockito.mock(
+            Object.class,
+            withSettings()
+                .extraInterfaces(CaCertificateParser.class, CaCertificateParserSpi.class));
+    when(((CaCertificateParserSpi) mockCaCertParser).getCertificateType())
+        .thenReturn(CA_CERTIFICATE_TYPE);
+    when(((CaCertificateParserSpi) mockCaCertParser).parseCertificate(any(byte[].class)))
+        .thenAnswer(
+            invocation -> {
+              byte[] caCertificateBytes = invocation.getArgument(0);
+              CaCertificateSpi mockCaCert = mock(CaCertificateSpi.class);
+              when(mockCaCert.getIssuerPublicKeyReference())
+                  .thenReturn(Arrays.copyOfRange(caCertificateBytes, 1, caCertificateBytes.length));
+              return mockCaCert;
+            });
+    asymmetricCryptoSecuritySettingAdapter.addCaCertificateParser(
+        (CaCertificateParser) mockCaCertParser);
+
+    List<Map.Entry<byte[], byte[]>> certificates = new ArrayList<>();
+    for (Map.Entry<byte[], byte[]> entry : issuers.entrySet()) {
+      byte[] caCertificateBytes = new byte[1 + entry.getValue().length];
+      caCertificateBytes[0] = CA_CERTIFICATE_TYPE;
+      System.arraycopy(entry.getValue(), 0, caCertificateBytes, 1, entry.getValue().length);
+      certificates.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), caCertificateBytes));
+    }
+    ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    CaCertificateSnapshot.write(certificates, snapshot);
+    asymmetricCryptoSecuritySettingAdapter.importCaCertificates(
+        ByteBuffer.wrap(snapshot.toByteArray()));
+  }
 }
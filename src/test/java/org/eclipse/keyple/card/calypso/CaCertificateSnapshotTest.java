@@ -0,0 +1,67 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.junit.Test;
+
+public class CaCertificateSnapshotTest {
+
+  private static final String REFERENCE_1 = "0B01020304";
+  private static final String REFERENCE_2 = "0B05060708";
+  private static final String CERTIFICATE_1 = "90021122334455";
+  private static final String CERTIFICATE_2 = "900266778899";
+
+  private byte[] buildSnapshot() throws Exception {
+    List<Map.Entry<byte[], byte[]>> certificates = new ArrayList<>();
+    certificates.add(
+        new AbstractMap.SimpleImmutableEntry<>(
+            HexUtil.toByteArray(REFERENCE_1), HexUtil.toByteArray(CERTIFICATE_1)));
+    certificates.add(
+        new AbstractMap.SimpleImmutableEntry<>(
+            HexUtil.toByteArray(REFERENCE_2), HexUtil.toByteArray(CERTIFICATE_2)));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    CaCertificateSnapshot.write(certificates, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  @Test
+  public void read_whenSnapshotIsValid_shouldProvideAllCertificatesInOrder() throws Exception {
+    List<String> result = new ArrayList<>();
+    CaCertificateSnapshot.read(
+        ByteBuffer.wrap(buildSnapshot()),
+        (reference, certificate) ->
+            result.add(HexUtil.toHex(reference) + ":" + HexUtil.toHex(certificate)));
+    assertThat(result)
+        .containsExactly(REFERENCE_1 + ":" + CERTIFICATE_1, REFERENCE_2 + ":" + CERTIFICATE_2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void read_whenSnapshotIsCorrupted_shouldThrowIAE() throws Exception {
+    byte[] snapshot = buildSnapshot();
+    snapshot[12] ^= 0x01;
+    CaCertificateSnapshot.read(ByteBuffer.wrap(snapshot), (reference, certificate) -> {});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void read_whenSnapshotIsTooShort_shouldThrowIAE() {
+    CaCertificateSnapshot.read(ByteBuffer.wrap(new byte[8]), (reference, certificate) -> {});
+  }
+}
@@ -12,10 +12,12 @@
 package org.eclipse.keyple.card.calypso;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.eclipse.keyple.card.calypso.TestDtoAdapters.*;
 
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.card.ElementaryFile;
 import org.eclipse.keypop.card.ApduResponseApi;
 import org.junit.Test;
 
@@ -612,4 +614,146 @@ public void getTransactionCounter_whenNoSessionWasOpened_shouldThrowISE() throws
     calypsoCardAdapter = buildCalypsoCard((ApduResponseApi) null);
     calypsoCardAdapter.getTransactionCounter();
   }
+
+  @Test
+  public void getFileBySfiAndGetFileByLid_whenHeaderIsSet_shouldReturnSameFile() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+    calypsoCardAdapter.setFileHeader(
+        (byte) 0x07, FileHeaderAdapter.builder().lid((short) 0x2010).build());
+    calypsoCardAdapter.setFileHeader(
+        (byte) 0x08, FileHeaderAdapter.builder().lid((short) 0x2020).build());
+
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07))
+        .isSameAs(calypsoCardAdapter.getFileByLid((short) 0x2010));
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x08))
+        .isSameAs(calypsoCardAdapter.getFileByLid((short) 0x2020));
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("1122"));
+    assertThat(calypsoCardAdapter.getFiles()).hasSize(2);
+  }
+
+  @Test
+  public void getFileBySfiAndGetFileByLid_whenFileIsUnknown_shouldReturnNull() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x00)).isNull();
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x08)).isNull();
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x1F)).isNull();
+    assertThat(calypsoCardAdapter.getFileByLid((short) 0x2010)).isNull();
+  }
+
+  @Test
+  public void restoreFiles_shouldIndexRestoredFiles() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setFileHeader(
+        (byte) 0x07, FileHeaderAdapter.builder().lid((short) 0x2010).build());
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+    calypsoCardAdapter.backupFiles();
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("3344"));
+    calypsoCardAdapter.setContent((byte) 0x08, 1, HexUtil.toByteArray("5566"));
+
+    calypsoCardAdapter.restoreFiles();
+
+    assertThat(calypsoCardAdapter.getFiles()).hasSize(1);
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x08)).isNull();
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07))
+        .isSameAs(calypsoCardAdapter.getFileByLid((short) 0x2010))
+        .isSameAs(calypsoCardAdapter.getFiles().iterator().next());
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("1122"));
+  }
+
+  @Test
+  public void restoreFiles_shouldOnlyRestoreFilesModifiedSinceBackup() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+    calypsoCardAdapter.setContent((byte) 0x08, 1, HexUtil.toByteArray("3344"));
+    calypsoCardAdapter.setCounter((byte) 0x19, 1, HexUtil.toByteArray("000010"));
+    ElementaryFile untouchedFile = calypsoCardAdapter.getFileBySfi((byte) 0x07);
+    calypsoCardAdapter.backupFiles();
+    calypsoCardAdapter.setFileHeader(
+        (byte) 0x08, FileHeaderAdapter.builder().lid((short) 0x2020).build());
+    calypsoCardAdapter.addCyclicContent((byte) 0x08, HexUtil.toByteArray("5566"));
+    calypsoCardAdapter.setCounter((byte) 0x19, 1, HexUtil.toByteArray("000008"));
+
+    calypsoCardAdapter.restoreFiles();
+    calypsoCardAdapter.restoreFiles();
+
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07)).isSameAs(untouchedFile);
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x08).getHeader()).isNull();
+    assertThat(calypsoCardAdapter.getFileByLid((short) 0x2020)).isNull();
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x08).getData().getAllRecordsContent())
+        .containsExactly(entry(1, HexUtil.toByteArray("3344")));
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x19).getData().getContentAsCounterValue(1))
+        .isEqualTo(0x10);
+  }
+
+  @Test
+  public void restoreFiles_shouldRestoreStateOfLastBackup() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("11"));
+    calypsoCardAdapter.backupFiles();
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("22"));
+    calypsoCardAdapter.backupFiles();
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("33"));
+
+    calypsoCardAdapter.restoreFiles();
+
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("22"));
+  }
+
+  @Test
+  public void discardFilesBackup_shouldKeepTheCurrentContent() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("11"));
+    calypsoCardAdapter.backupFiles();
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("22"));
+    calypsoCardAdapter.setContent((byte) 0x08, 1, HexUtil.toByteArray("33"));
+
+    calypsoCardAdapter.discardFilesBackup();
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("44"));
+    calypsoCardAdapter.restoreFiles();
+
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x07).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("44"));
+    assertThat(calypsoCardAdapter.getFileBySfi((byte) 0x08).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("33"));
+  }
+
+  @Test
+  public void toString_shouldRenderCardImageWithHexValues() throws Exception {
+    calypsoCardAdapter =
+        buildCalypsoCard(
+            buildSelectApplicationResponse(
+                DF_NAME, CALYPSO_SERIAL_NUMBER, STARTUP_INFO_PRIME_REVISION_3, SW1SW2_OK));
+    calypsoCardAdapter.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+    assertThat(calypsoCardAdapter.toString())
+        .startsWith("{")
+        .endsWith("}")
+        .contains("\"dfName\":\"" + DF_NAME + "\"")
+        .contains("\"calypsoSerialNumber\":\"" + CALYPSO_SERIAL_NUMBER + "\"")
+        .contains("\"sfi\":\"07\"")
+        .contains("\"records\":{\"1\":\"1122\"}");
+  }
 }
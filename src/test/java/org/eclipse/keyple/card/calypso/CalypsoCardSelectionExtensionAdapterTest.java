@@ -14,11 +14,15 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.shouldHaveThrown;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+import java.util.List;
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.GetDataTag;
 import org.eclipse.keypop.calypso.card.SelectFileControl;
 import org.eclipse.keypop.calypso.card.WriteAccessLevel;
+import org.eclipse.keypop.card.ApduResponseApi;
 import org.eclipse.keypop.card.CardSelectionResponseApi;
 import org.eclipse.keypop.card.ParseException;
 import org.eclipse.keypop.card.spi.ApduRequestSpi;
@@ -27,6 +31,9 @@
 import org.junit.Test;
 
 public class CalypsoCardSelectionExtensionAdapterTest {
+  private static final String SELECT_APPLICATION_RESPONSE_INVALIDATED =
+      "6F238409315449432E49434131A516BF0C13C708000000001122334453070A3C20051410016283";
+
   CalypsoCardSelectionExtensionAdapter cardSelectionExtension;
 
   @Before
@@ -183,4 +190,66 @@ public void parse_whenCommandsResponsesMismatch_shouldThrowParseException() thro
     cardSelectionExtension.prepareGetData(GetDataTag.FCI_FOR_CURRENT_DF);
     cardSelectionExtension.parse(cardSelectionResponseApi);
   }
+
+  @Test
+  public void compile_shouldShareTheSameImmutableCardSelectionRequest() {
+    cardSelectionExtension.acceptInvalidatedCard();
+    cardSelectionExtension.prepareReadRecord((byte) 0x07, 1);
+    CompiledCalypsoCardSelectionExtensionAdapter compiledExtension =
+        cardSelectionExtension.compile();
+    cardSelectionExtension.prepareSelectFile((short) 0x1234);
+    CardSelectionRequestSpi cardSelectionRequest = compiledExtension.getCardSelectionRequest();
+    assertThat(compiledExtension.getCardSelectionRequest()).isSameAs(cardSelectionRequest);
+    assertThat(cardSelectionRequest.getSuccessfulSelectionStatusWords())
+        .containsExactly(0x9000, 0x6283);
+    List<ApduRequestSpi> apduRequests = cardSelectionRequest.getCardRequest().getApduRequests();
+    assertThat(apduRequests).hasSize(1);
+    assertThat(HexUtil.toHex(apduRequests.get(0).getApdu())).isEqualTo("00B2013C00");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void compile_whenCompiledExtensionIsModified_shouldThrowISE() {
+    cardSelectionExtension.compile().prepareSelectFile((short) 0x1234);
+  }
+
+  @Test(expected = ParseException.class)
+  public void compile_whenCommandsResponsesMismatch_shouldThrowParseException() throws Exception {
+    CardSelectionResponseApi cardSelectionResponseApi = mock(CardSelectionResponseApi.class);
+    cardSelectionExtension.prepareGetData(GetDataTag.FCI_FOR_CURRENT_DF);
+    cardSelectionExtension.compile().parse(cardSelectionResponseApi);
+  }
+
+  @Test
+  public void compile_whenCardIsInvalidated_shouldParseTheRecordsIntoEachCardImage()
+      throws Exception {
+    cardSelectionExtension.acceptInvalidatedCard();
+    cardSelectionExtension.prepareReadRecord((byte) 0x07, 1);
+    CompiledCalypsoCardSelectionExtensionAdapter compiledExtension =
+        cardSelectionExtension.compile();
+    CalypsoCardAdapter calypsoCard1 =
+        (CalypsoCardAdapter) compiledExtension.parse(mockCardSelectionResponse("1122"));
+    CalypsoCardAdapter calypsoCard2 =
+        (CalypsoCardAdapter) compiledExtension.parse(mockCardSelectionResponse("3344"));
+    assertThat(calypsoCard1.isDfInvalidated()).isTrue();
+    assertThat(calypsoCard1.getFileBySfi((byte) 0x07).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("1122"));
+    assertThat(calypsoCard2.getFileBySfi((byte) 0x07).getData().getContent(1))
+        .isEqualTo(HexUtil.toByteArray("3344"));
+  }
+
+  private static CardSelectionResponseApi mockCardSelectionResponse(String recordContent) {
+    CardSelectionResponseApi cardSelectionResponseApi = mock(CardSelectionResponseApi.class);
+    when(cardSelectionResponseApi.getSelectApplicationResponse())
+        .thenReturn(
+            new TestDtoAdapters.ApduResponseAdapter(
+                HexUtil.toByteArray(SELECT_APPLICATION_RESPONSE_INVALIDATED)));
+    when(cardSelectionResponseApi.getCardResponse())
+        .thenReturn(
+            new TestDtoAdapters.CardResponseAdapter(
+                Collections.<ApduResponseApi>singletonList(
+                    new TestDtoAdapters.ApduResponseAdapter(
+                        HexUtil.toByteArray(recordContent + "9000"))),
+                true));
+    return cardSelectionResponseApi;
+  }
 }
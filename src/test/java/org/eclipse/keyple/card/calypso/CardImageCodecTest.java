@@ -0,0 +1,105 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.keyple.card.calypso.TestDtoAdapters.*;
+
+import java.nio.ByteBuffer;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keypop.calypso.card.WriteAccessLevel;
+import org.eclipse.keypop.calypso.card.card.ElementaryFile;
+import org.junit.Test;
+
+public class CardImageCodecTest {
+
+  private static final String SELECT_APPLICATION_RESPONSE =
+      "6F23A516BF0C1353070A3C2005141001C70800000000123456788409315449432E494341319000";
+
+  private CalypsoCardAdapter buildCardImage() throws Exception {
+    CalypsoCardAdapter card =
+        new CalypsoCardAdapter(
+            new CardSelectionResponseAdapter(
+                new ApduResponseAdapter(HexUtil.toByteArray(SELECT_APPLICATION_RESPONSE))));
+    card.setDirectoryHeader(
+        DirectoryHeaderAdapter.builder()
+            .lid((short) 0x2000)
+            .accessConditions(HexUtil.toByteArray("10100000"))
+            .keyIndexes(HexUtil.toByteArray("01030101"))
+            .dfStatus((byte) 0x00)
+            .kif(WriteAccessLevel.DEBIT, (byte) 0x30)
+            .kvc(WriteAccessLevel.DEBIT, (byte) 0x79)
+            .build());
+    card.setFileHeader(
+        (byte) 0x07,
+        FileHeaderAdapter.builder()
+            .lid((short) 0x2010)
+            .recordsNumber(3)
+            .recordSize(29)
+            .type(ElementaryFile.Type.CYCLIC)
+            .accessConditions(HexUtil.toByteArray("1F101010"))
+            .keyIndexes(HexUtil.toByteArray("01030101"))
+            .sharedReference((short) 0x3F02)
+            .build());
+    card.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122334455"));
+    card.setContent((byte) 0x07, 2, HexUtil.toByteArray("66778899"));
+    card.setCounter((byte) 0x19, 1, HexUtil.toByteArray("000010"));
+    card.setSvData(
+        (byte) 0x55, HexUtil.toByteArray("7C00000000"), HexUtil.toByteArray("0011"), 100, 7);
+    card.setDfRatified(true);
+    card.setTransactionCounter(0x1234);
+    card.setChallenge(HexUtil.toByteArray("0102030405060708"));
+    card.setPreOpenWriteAccessLevel(WriteAccessLevel.LOAD);
+    return card;
+  }
+
+  @Test
+  public void decode_whenCardImageIsEncoded_shouldProduceTheSameCardImage() throws Exception {
+    CalypsoCardAdapter card = buildCardImage();
+
+    CalypsoCardAdapter decodedCard = CardImageCodec.decode(CardImageCodec.encode(card));
+
+    assertThat(decodedCard.toString()).isEqualTo(card.toString());
+    assertThat(decodedCard.getFileByLid((short) 0x2010).getData().getContent(2))
+        .isEqualTo(HexUtil.toByteArray("66778899"));
+    assertThat(decodedCard.getSelectApplicationResponse())
+        .isEqualTo(HexUtil.toByteArray(SELECT_APPLICATION_RESPONSE));
+  }
+
+  @Test
+  public void decode_whenSeveralCardImagesAreEncoded_shouldDecodeThemInSequence()
+      throws Exception {
+    CalypsoCardAdapter card1 = buildCardImage();
+    CalypsoCardAdapter card2 = buildCardImage();
+    card2.setContent((byte) 0x08, 1, HexUtil.toByteArray("AABB"));
+    ByteBuffer encodedCard1 = CardImageCodec.encode(card1);
+    ByteBuffer encodedCard2 = CardImageCodec.encode(card2);
+    ByteBuffer buffer = ByteBuffer.allocate(encodedCard1.remaining() + encodedCard2.remaining());
+    buffer.put(encodedCard1).put(encodedCard2).flip();
+
+    assertThat(CardImageCodec.decode(buffer).toString()).isEqualTo(card1.toString());
+    assertThat(CardImageCodec.decode(buffer).toString()).isEqualTo(card2.toString());
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_whenCardImageIsTruncated_shouldThrowIAE() throws Exception {
+    ByteBuffer encodedCard = CardImageCodec.encode(buildCardImage());
+    encodedCard.limit(encodedCard.limit() - 1);
+    CardImageCodec.decode(encodedCard);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_whenMagicNumberIsWrong_shouldThrowIAE() {
+    CardImageCodec.decode(ByteBuffer.wrap(HexUtil.toByteArray("0000000001")));
+  }
+}
@@ -0,0 +1,99 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keypop.calypso.crypto.asymmetric.certificate.spi.CardPublicKeySpi;
+import org.junit.Test;
+
+public class CardPublicKeyCacheTest {
+
+  private static final long VALID = Long.MAX_VALUE;
+
+  private final byte[] certificate1 = HexUtil.toByteArray("9011223344");
+  private final byte[] certificate2 = HexUtil.toByteArray("9055667788");
+  private final byte[] serialNumber1 = HexUtil.toByteArray("0000000011111111");
+  private final byte[] serialNumber2 = HexUtil.toByteArray("0000000022222222");
+  private final byte[] issuer1 = HexUtil.toByteArray("A1");
+  private final byte[] issuer2 = HexUtil.toByteArray("A2");
+  private final CardPublicKeySpi publicKey1 = mock(CardPublicKeySpi.class);
+  private final CardPublicKeySpi publicKey2 = mock(CardPublicKeySpi.class);
+
+  @Test
+  public void get_whenCertificateIsStored_shouldReturnPublicKeyAndCountHit() {
+    CardPublicKeyCache cache = new CardPublicKeyCache(10, 60000);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, VALID);
+    assertThat(cache.get(certificate1.clone(), serialNumber1)).isSameAs(publicKey1);
+    assertThat(cache.get(certificate2, serialNumber2)).isNull();
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_whenSerialNumberDoesNotMatch_shouldReturnNull() {
+    CardPublicKeyCache cache = new CardPublicKeyCache(10, 60000);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, VALID);
+    assertThat(cache.get(certificate1, serialNumber2)).isNull();
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_whenMaxEntriesIsReached_shouldEvictLeastRecentlyUsedKey() {
+    CardPublicKeyCache cache = new CardPublicKeyCache(1, 60000);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, VALID);
+    cache.put(certificate2, serialNumber2, issuer1, publicKey2, VALID);
+    assertThat(cache.get(certificate1, serialNumber1)).isNull();
+    assertThat(cache.get(certificate2, serialNumber2)).isSameAs(publicKey2);
+  }
+
+  @Test
+  public void get_whenTimeToLiveHasExpired_shouldReturnNull() throws Exception {
+    CardPublicKeyCache cache = new CardPublicKeyCache(10, 1);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, VALID);
+    Thread.sleep(10);
+    assertThat(cache.get(certificate1, serialNumber1)).isNull();
+  }
+
+  @Test
+  public void get_whenCertificateValidityHasEnded_shouldReturnNullAndCountMiss() {
+    CardPublicKeyCache cache = new CardPublicKeyCache(10, 60000);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, System.currentTimeMillis() - 1);
+    cache.put(certificate2, serialNumber2, issuer1, publicKey2, System.currentTimeMillis() + 60000);
+    assertThat(cache.get(certificate1, serialNumber1)).isNull();
+    assertThat(cache.get(certificate2, serialNumber2)).isSameAs(publicKey2);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void revoke_shouldRemoveOnlyTheProvidedCertificate() {
+    CardPublicKeyCache cache = new CardPublicKeyCache(10, 60000);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, VALID);
+    cache.put(certificate2, serialNumber2, issuer1, publicKey2, VALID);
+    cache.revoke(certificate1);
+    assertThat(cache.get(certificate1, serialNumber1)).isNull();
+    assertThat(cache.get(certificate2, serialNumber2)).isSameAs(publicKey2);
+  }
+
+  @Test
+  public void revokeIssuer_shouldRemoveOnlyTheCertificatesOfTheIssuer() {
+    CardPublicKeyCache cache = new CardPublicKeyCache(10, 60000);
+    cache.put(certificate1, serialNumber1, issuer1, publicKey1, VALID);
+    cache.put(certificate2, serialNumber2, issuer2, publicKey2, VALID);
+    cache.revokeIssuer(issuer1);
+    assertThat(cache.get(certificate1, serialNumber1)).isNull();
+    assertThat(cache.get(certificate2, serialNumber2)).isSameAs(publicKey2);
+  }
+}
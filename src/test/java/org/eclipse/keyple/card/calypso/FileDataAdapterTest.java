@@ -14,6 +14,7 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
 
+import java.nio.ByteBuffer;
 import java.util.SortedMap;
 import org.eclipse.keyple.core.util.HexUtil;
 import org.junit.Before;
@@ -166,6 +167,28 @@ public void getAllCountersValue_shouldReturnAllNonTruncatedCounters() {
     assertThat(counters).containsExactly(entry(1, 0x444444));
   }
 
+  @Test
+  public void getAllCountersValueIntoArray_whenRecordIsNotSet_shouldReturn0() {
+    assertThat(file.getAllCountersValue(new int[4])).isZero();
+  }
+
+  @Test
+  public void getAllCountersValueIntoArray_shouldCopyTheCountersThatFit() {
+    file.setContent(1, HexUtil.toByteArray("00000100000200000344"));
+    int[] counters = new int[2];
+    assertThat(file.getAllCountersValue(counters)).isEqualTo(3);
+    assertThat(counters).containsExactly(1, 2);
+  }
+
+  @Test
+  public void getCounterValue_whenCounterIsAbsentOrTruncated_shouldReturnCounterNotSet() {
+    assertThat(file.getCounterValue(1)).isEqualTo(FileDataAdapter.COUNTER_NOT_SET);
+    file.setContent(1, HexUtil.toByteArray("0000010002"));
+    assertThat(file.getCounterValue(1)).isEqualTo(1);
+    assertThat(file.getCounterValue(2)).isEqualTo(FileDataAdapter.COUNTER_NOT_SET);
+    assertThat(file.getCounterValue(0)).isEqualTo(FileDataAdapter.COUNTER_NOT_SET);
+  }
+
   @Test
   public void setContentP2_shouldPutAReference() {
     file.setContent(1, data1);
@@ -283,6 +306,85 @@ public void addCyclicContent_shouldShiftAllRecordsAndSetContentToRecord1() {
             entry(3, HexUtil.toByteArray("2222")));
   }
 
+  @Test
+  public void addCyclicContent_whenManyRecordsAreAdded_shouldKeepTheMostRecentFirst() {
+    file.setContent(2, data2);
+    for (int i = 1; i <= 20; i++) {
+      file.addCyclicContent(new byte[] {(byte) i});
+    }
+    SortedMap<Integer, byte[]> records = file.getAllRecordsContent();
+    assertThat(records).hasSize(21);
+    for (int i = 1; i <= 20; i++) {
+      assertThat(records.get(i)).containsExactly((byte) (21 - i));
+    }
+    assertThat(records.get(21)).isEqualTo(data2);
+  }
+
+  @Test
+  public void addCyclicContent_whenRecord255IsSet_shouldDropIt() {
+    file.setContent(1, data1);
+    file.setContent(255, data2);
+    file.addCyclicContent(data3);
+    assertThat(file.getAllRecordsContent())
+        .containsExactly(entry(1, HexUtil.toByteArray("333333")), entry(2, data1));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void getAllRecordsContent_shouldReturnAnUnmodifiableMap() {
+    file.setContent(1, data1);
+    file.getAllRecordsContent().put(2, data2);
+  }
+
+  @Test
+  public void getAllRecordsContent_whenFileIsModified_shouldReturnANewView() {
+    file.setContent(1, data1);
+    SortedMap<Integer, byte[]> records = file.getAllRecordsContent();
+    file.setContent(2, data2);
+    assertThat(records).containsOnlyKeys(1);
+    assertThat(file.getAllRecordsContent()).containsOnlyKeys(1, 2);
+  }
+
+  @Test
+  public void setContentView_shouldReferenceTheProvidedBufferWithoutCopy() {
+    byte[] response = HexUtil.toByteArray("0102AABB0201CC");
+    file.setContentView(1, ByteBuffer.wrap(response, 2, 2));
+    file.setContentView(2, ByteBuffer.wrap(response, 6, 1));
+    ByteBuffer view = file.getRecordView(1);
+    assertThat(view.isReadOnly()).isTrue();
+    assertThat(view.remaining()).isEqualTo(2);
+    response[2] = (byte) 0xDD; // only to prove that the view references the response
+    assertThat(view.get(0)).isEqualTo((byte) 0xDD);
+    assertThat(file.getContent(2)).isEqualTo(HexUtil.toByteArray("CC"));
+  }
+
+  @Test
+  public void setContentWithOffset_whenRecordIsAView_shouldNotModifyTheProvidedBuffer() {
+    byte[] response = HexUtil.toByteArray("0102AABB");
+    file.setContentView(1, ByteBuffer.wrap(response, 2, 2));
+    file.setContent(1, data1, 1);
+    assertThat(file.getContent(1)).isEqualTo(HexUtil.toByteArray("AA11"));
+    assertThat(response).isEqualTo(HexUtil.toByteArray("0102AABB"));
+  }
+
+  @Test
+  public void fillContent_whenRecordIsAView_shouldStoreTheFilledContent() {
+    byte[] response = HexUtil.toByteArray("0102AA00");
+    file.setContentView(1, ByteBuffer.wrap(response, 2, 2));
+    assertThat(file.getContent(1)).isNotSameAs(file.getContent(1));
+    file.fillContent(1, HexUtil.toByteArray("0055"), 0);
+    assertThat(file.getContent(1)).isEqualTo(HexUtil.toByteArray("AA55"));
+    assertThat(response).isEqualTo(HexUtil.toByteArray("0102AA00"));
+  }
+
+  @Test
+  public void rollbackJournal_whenRecordIsAView_shouldRestoreIt() {
+    file.setContentView(1, ByteBuffer.wrap(HexUtil.toByteArray("AABB")));
+    file.startJournal();
+    file.fillContent(1, data2, 0);
+    file.rollbackJournal();
+    assertThat(file.getContent(1)).isEqualTo(HexUtil.toByteArray("AABB"));
+  }
+
   @Test
   public void cloningConstructor_shouldReturnACopy() {
     file.setContent(1, data1);
@@ -290,4 +392,62 @@ public void cloningConstructor_shouldReturnACopy() {
     assertThat(clone).isNotSameAs(file);
     assertThat(clone.getContent(1)).isNotSameAs(file.getContent(1));
   }
+
+  @Test
+  public void rollbackJournal_shouldRestoreRecordsAsWhenJournalWasStarted() {
+    file.setContent(1, data1);
+    file.setContent(2, data4);
+    file.setContent(3, data3);
+    file.startJournal();
+    file.setContent(1, data2);
+    file.setContent(2, data2, 1);
+    file.fillContent(3, data2, 0);
+    file.setContent(4, data4);
+    file.rollbackJournal();
+    assertThat(file.getAllRecordsContent())
+        .containsExactly(
+            entry(1, HexUtil.toByteArray("11")),
+            entry(2, HexUtil.toByteArray("44444444")),
+            entry(3, HexUtil.toByteArray("333333")));
+  }
+
+  @Test
+  public void rollbackJournal_whenCyclicContentWasAdded_shouldRestoreRecords() {
+    file.setContent(1, data1);
+    file.setContent(2, data2);
+    file.startJournal();
+    file.addCyclicContent(data3);
+    file.setCounter(2, HexUtil.toByteArray("AABBCC"));
+    file.rollbackJournal();
+    assertThat(file.getAllRecordsContent())
+        .containsExactly(
+            entry(1, HexUtil.toByteArray("11")), entry(2, HexUtil.toByteArray("2222")));
+  }
+
+  @Test
+  public void rollbackJournal_whenCyclicFileIsFull_shouldRestoreTheLostRecord() {
+    for (int i = 255; i >= 1; i--) {
+      file.addCyclicContent(new byte[] {(byte) i});
+    }
+    file.startJournal();
+    file.addCyclicContent(data1);
+    file.setContent(3, data2);
+    file.addCyclicContent(data3);
+    file.rollbackJournal();
+    assertThat(file.getAllRecordsContent()).hasSize(255);
+    assertThat(file.getContent(1)).isEqualTo(new byte[] {1});
+    assertThat(file.getContent(3)).isEqualTo(new byte[] {3});
+    assertThat(file.getContent(254)).isEqualTo(new byte[] {(byte) 254});
+    assertThat(file.getContent(255)).isEqualTo(new byte[] {(byte) 255});
+  }
+
+  @Test
+  public void rollbackJournal_whenJournalIsDiscarded_shouldKeepModifications() {
+    file.setContent(1, data1);
+    file.startJournal();
+    file.setContent(1, data2);
+    file.discardJournal();
+    file.rollbackJournal();
+    assertThat(file.getContent(1)).isEqualTo(HexUtil.toByteArray("2222"));
+  }
 }
@@ -12,6 +12,7 @@
 package org.eclipse.keyple.card.calypso;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import java.util.HashMap;
@@ -25,6 +26,7 @@
 import org.eclipse.keypop.calypso.card.card.FileHeader;
 import org.eclipse.keypop.calypso.card.transaction.FreeTransactionManager;
 import org.eclipse.keypop.calypso.card.transaction.SearchCommandData;
+import org.eclipse.keypop.calypso.card.transaction.UnexpectedCommandStatusException;
 import org.eclipse.keypop.card.ChannelControl;
 import org.eclipse.keypop.card.spi.CardRequestSpi;
 import org.junit.Before;
@@ -249,6 +251,32 @@ public void prepareReadRecord_whenSfi07RecNumber1_shouldPrepareReadRecordApduWit
             argThat(new CardRequestMatcher(cardRequest)), any(ChannelControl.class));
   }
 
+  @Test
+  public void getTransactionAuditData_whenApduIsAddedByTheCryptoService_shouldRecordIt() {
+    byte[] samApdu = HexUtil.toByteArray("8084000008");
+    cardTransactionManager.getTransactionAuditData().add(samApdu);
+    assertThat(cardTransactionManager.getTransactionAuditData()).containsExactly(samApdu);
+  }
+
+  @Test
+  public void prepareReadRecord_whenRecordIsNotFound_shouldNotThrowException() throws Exception {
+    mockTransmitCardRequest(CARD_READ_REC_SFI7_REC1_CMD, "6A83");
+    cardTransactionManager.prepareReadRecord(FILE7, 1);
+    cardTransactionManager.processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+    assertThat(calypsoCard.getFileBySfi(FILE7)).isNull();
+  }
+
+  @Test
+  public void prepareReadRecord_whenAccessIsForbidden_shouldThrowUCSEWithAStacklessCause()
+      throws Exception {
+    mockTransmitCardRequest(CARD_READ_REC_SFI7_REC1_CMD, SW_6985);
+    cardTransactionManager.prepareReadRecord(FILE7, 1);
+    assertThatThrownBy(() -> cardTransactionManager.processCommands(CHANNEL_CONTROL_KEEP_OPEN))
+        .isInstanceOf(UnexpectedCommandStatusException.class)
+        .hasCauseInstanceOf(CardAccessForbiddenException.class)
+        .satisfies(e -> assertThat(e.getCause().getStackTrace()).isEmpty());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void prepareReadRecords_whenSfiIsGreaterThan30_shouldThrowIAE() {
     cardTransactionManager.prepareReadRecords((byte) 31, 1, 1, 1);
@@ -542,6 +570,32 @@ public void prepareReadBinary_whenNbBytesToReadIsLessThanPayLoad_shouldPrepareOn
         .isEqualTo(HexUtil.toByteArray("11"));
   }
 
+  @Test
+  public void prepareReadBinary_whenSeveralCommandsAreNeeded_shouldAssembleTheWholeContent()
+      throws Exception {
+
+    CardRequestSpi cardRequest =
+        mockTransmitCardRequest(
+            "00B0810002",
+            "1122" + SW_9000,
+            "00B0810202",
+            "3344" + SW_9000,
+            "00B0810401",
+            "55" + SW_9000);
+    when(calypsoCard.getPayloadCapacity()).thenReturn(2);
+    initTransactionManager();
+
+    cardTransactionManager.prepareReadBinary((byte) 1, 0, 5);
+    cardTransactionManager.processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    verify(cardReader)
+        .transmitCardRequest(
+            argThat(new CardRequestMatcher(cardRequest)), any(ChannelControl.class));
+
+    assertThat(calypsoCard.getFileBySfi((byte) 1).getData().getContent())
+        .isEqualTo(HexUtil.toByteArray("1122334455"));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void prepareReadCounter_whenSfiIsGreaterThan30_shouldThrowIAE() {
     cardTransactionManager.prepareReadCounter((byte) 31, 1);
@@ -1236,6 +1290,43 @@ public void prepareIncreaseCounters_whenParametersAreCorrect_shouldAddIncreaseMu
         .isEqualTo(0x33);
   }
 
+  @Test
+  public void prepareIncreaseCounters_whenArraysAreProvided_shouldAddIncreaseMultipleCommand()
+      throws Exception {
+    CardRequestSpi cardRequest =
+        mockTransmitCardRequest(
+            CARD_INCREASE_MULTIPLE_SFI1_C1_1_C2_2_C3_3_CMD,
+            CARD_INCREASE_MULTIPLE_SFI1_C1_11_C2_22_C3_33_RSP);
+
+    CalypsoExtensionService.getInstance()
+        .prepareIncreaseCounters(
+            cardTransactionManager, (byte) 1, new int[] {1, 2, 3}, new int[] {1, 2, 3})
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    verify(cardReader)
+        .transmitCardRequest(
+            argThat(new CardRequestMatcher(cardRequest)), any(ChannelControl.class));
+
+    int[] counters = new int[3];
+    assertThat(
+            CalypsoExtensionService.getInstance()
+                .getAllCountersValue(calypsoCard.getFileBySfi((byte) 1).getData(), counters))
+        .isEqualTo(3);
+    assertThat(counters).containsExactly(0x11, 0x22, 0x33);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void prepareIncreaseCounters_whenCounterNumberIsDuplicated_shouldThrowIAE() {
+    CalypsoExtensionService.getInstance()
+        .prepareIncreaseCounters(cardTransactionManager, FILE7, new int[] {1, 1}, new int[] {1, 2});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void prepareDecreaseCounters_whenArraysLengthsDiffer_shouldThrowIAE() {
+    CalypsoExtensionService.getInstance()
+        .prepareDecreaseCounters(cardTransactionManager, FILE7, new int[] {1, 2}, new int[] {1});
+  }
+
   @Test
   public void
       prepareIncreaseCounters_whenDataLengthIsGreaterThanPayLoad_shouldPrepareMultipleCommands()
@@ -1485,4 +1576,10 @@ public void processCommands_whenOutOfSession_shouldExchangeApduWithCardOnly() th
         .transmitCardRequest(
             argThat(new CardRequestMatcher(cardRequest)), any(ChannelControl.class));
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rebindTransactionManager_whenProductTypeIsUnknown_shouldThrowIAE() throws Exception {
+    CalypsoExtensionService.getInstance()
+        .rebindTransactionManager(cardTransactionManager, new CalypsoCardAdapter(null));
+  }
 }
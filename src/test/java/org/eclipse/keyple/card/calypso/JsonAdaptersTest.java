@@ -0,0 +1,314 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.eclipse.keyple.card.calypso.DtoAdapters.*;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.core.util.json.JsonUtil;
+import org.eclipse.keypop.calypso.card.card.ElementaryFile;
+import org.eclipse.keypop.card.ApduResponseApi;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonAdaptersTest {
+
+  private static final String COMMAND_TYPE = CommandGetDataFcp.class.getName();
+
+  private static final String SELECT_APPLICATION_RESPONSE =
+      "6F23A516BF0C1353070A3C2005141001C70800000000123456788409315449432E494341319000";
+
+  private Gson parser;
+
+  private static CalypsoCardAdapter buildCard() throws Exception {
+    ApduResponseApi selectApplicationResponse =
+        new TestDtoAdapters.ApduResponseAdapter(HexUtil.toByteArray(SELECT_APPLICATION_RESPONSE));
+    return new CalypsoCardAdapter(
+        new TestDtoAdapters.CardSelectionResponseAdapter(selectApplicationResponse));
+  }
+
+  private CommandIncreaseOrDecreaseMultiple buildIncreaseMultipleCommand() throws Exception {
+    return new CommandIncreaseOrDecreaseMultiple(
+        false,
+        new TransactionContextDto(buildCard()),
+        new CommandContextDto(false, false),
+        (byte) 0x19,
+        new int[] {3, 1},
+        new int[] {10, 20});
+  }
+
+  /**
+   * Reads a golden JSON document listing the fields written by the previous releases.
+   *
+   * @param name The name of the resource in the "json" folder.
+   * @return The JSON document.
+   */
+  private static JsonObject readGoldenJson(String name) throws IOException {
+    try (Reader reader =
+        new InputStreamReader(
+            JsonAdaptersTest.class.getResourceAsStream("/json/" + name),
+            StandardCharsets.UTF_8)) {
+      return JsonParser.parseReader(reader).getAsJsonObject();
+    }
+  }
+
+  /**
+   * Checks that the written JSON has the fields of the golden one, recursively: a written field
+   * must be known, a non-null golden field must be written, with the same kind of JSON element.
+   * The values themselves are not compared.
+   */
+  private static void assertSameFields(String path, JsonElement golden, JsonElement written) {
+    if (golden.isJsonNull()) {
+      return; // optional field
+    }
+    assertThat(written.isJsonObject()).as(path).isEqualTo(golden.isJsonObject());
+    assertThat(written.isJsonArray()).as(path).isEqualTo(golden.isJsonArray());
+    if (golden.isJsonObject()) {
+      JsonObject goldenObject = golden.getAsJsonObject();
+      JsonObject writtenObject = written.getAsJsonObject();
+      for (Map.Entry<String, JsonElement> entry : writtenObject.entrySet()) {
+        if (!entry.getValue().isJsonNull()) {
+          String fieldPath = path + "." + entry.getKey();
+          assertThat(goldenObject.has(entry.getKey())).as("Unknown field " + fieldPath).isTrue();
+          assertSameFields(fieldPath, goldenObject.get(entry.getKey()), entry.getValue());
+        }
+      }
+      for (Map.Entry<String, JsonElement> entry : goldenObject.entrySet()) {
+        JsonElement value = writtenObject.get(entry.getKey());
+        assertThat(entry.getValue().isJsonNull() || (value != null && !value.isJsonNull()))
+            .as("Missing field " + path + "." + entry.getKey())
+            .isTrue();
+      }
+    } else if (golden.isJsonArray()
+        && golden.getAsJsonArray().size() != 0
+        && written.getAsJsonArray().size() != 0) {
+      assertSameFields(
+          path + "[0]", golden.getAsJsonArray().get(0), written.getAsJsonArray().get(0));
+    }
+  }
+
+  /**
+   * Checks that a command is written with the type and the fields of the golden one.
+   *
+   * @param goldenName The name of the golden JSON document.
+   * @param command The command.
+   */
+  private void assertCommandMatchesGoldenJson(String goldenName, Command command)
+      throws IOException {
+    JsonObject golden = readGoldenJson(goldenName);
+    JsonObject written = parser.toJsonTree(command, Command.class).getAsJsonObject();
+    assertThat(written.get("type")).isEqualTo(golden.get("type"));
+    // The card image is covered by its own golden document
+    written.getAsJsonObject("data").getAsJsonObject("transactionContext").remove("card");
+    assertSameFields("data", golden.get("data"), written.get("data"));
+  }
+
+  @Before
+  public void setUp() {
+    CalypsoExtensionService.getInstance(); // registers the adapters
+    parser = JsonUtil.getParser();
+  }
+
+  @Test
+  public void write_whenCommandIsSerialized_shouldWriteItsTypeAndData() {
+    Command command =
+        new CommandGetDataFcp(new TransactionContextDto(), new CommandContextDto(false, false));
+    assertThat(parser.toJson(command, Command.class))
+        .startsWith("{\"type\":\"" + COMMAND_TYPE + "\",\"data\":{");
+  }
+
+  @Test
+  public void read_whenCommandIsSerialized_shouldRestoreACommandOfTheSameType() {
+    Command command =
+        new CommandGetDataFcp(new TransactionContextDto(), new CommandContextDto(false, false));
+    String json = parser.toJson(command, Command.class);
+    Command restoredCommand = parser.fromJson(json, Command.class);
+    assertThat(restoredCommand).isInstanceOf(CommandGetDataFcp.class);
+    assertThat(parser.toJson(restoredCommand, Command.class)).isEqualTo(json);
+  }
+
+  @Test
+  public void read_whenDataPrecedesType_shouldRestoreTheCommand() {
+    Command command =
+        new CommandGetDataFcp(new TransactionContextDto(), new CommandContextDto(false, false));
+    String data = parser.toJson(command);
+    String json = "{\"data\":" + data + ",\"type\":\"" + COMMAND_TYPE + "\"}";
+    assertThat(parser.fromJson(json, Command.class)).isInstanceOf(CommandGetDataFcp.class);
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void read_whenCommandTypeIsUnknown_shouldThrowJsonParseException() {
+    parser.fromJson("{\"type\":\"java.lang.String\",\"data\":{}}", Command.class);
+  }
+
+  @Test
+  public void read_whenElementaryFileIsSerialized_shouldRestoreTheSameFile() {
+    ElementaryFileAdapter ef = new ElementaryFileAdapter((byte) 0x07);
+    ef.getData().setContent(1, HexUtil.toByteArray("1122"));
+    String json = parser.toJson(ef, ElementaryFile.class);
+    ElementaryFile restoredEf = parser.fromJson(json, ElementaryFile.class);
+    assertThat(restoredEf).isInstanceOf(ElementaryFileAdapter.class).isEqualTo(ef);
+    assertThat(parser.toJson(restoredEf, ElementaryFile.class)).isEqualTo(json);
+  }
+
+  @Test
+  public void write_whenFileDataIsSerialized_shouldWriteRecordsAsHexStrings() {
+    FileDataAdapter fileData = new FileDataAdapter();
+    fileData.setContent(2, HexUtil.toByteArray("AA01"));
+    fileData.setContent(1, HexUtil.toByteArray("11"));
+    String json = parser.toJson(fileData);
+    assertThat(json).isEqualTo("{\"records\":{\"1\":\"11\",\"2\":\"AA01\"}}");
+    assertThat(parser.fromJson(json, FileDataAdapter.class).getAllRecordsContent())
+        .containsExactly(
+            entry(1, HexUtil.toByteArray("11")), entry(2, HexUtil.toByteArray("AA01")));
+  }
+
+  @Test
+  public void read_whenFileDataRecordsAreByteArrays_shouldRestoreTheRecords() {
+    byte[] content = new byte[40];
+    StringBuilder json = new StringBuilder("{\"records\":{\"1\":[-86,1],\"2\":[");
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+      json.append(i == 0 ? "" : ",").append(i);
+    }
+    json.append("]}}");
+    assertThat(parser.fromJson(json.toString(), FileDataAdapter.class).getAllRecordsContent())
+        .containsExactly(entry(1, HexUtil.toByteArray("AA01")), entry(2, content));
+  }
+
+  @Test
+  public void write_whenIncreaseMultipleCommandIsSerialized_shouldKeepTheCounterMapField()
+      throws Exception {
+    JsonObject data = parser.toJsonTree(buildIncreaseMultipleCommand()).getAsJsonObject();
+    Map<Integer, Integer> expectedMap = new LinkedHashMap<>();
+    expectedMap.put(3, 10);
+    expectedMap.put(1, 20);
+    assertThat(data.get("counterNumberToIncDecValueMap"))
+        .isEqualTo(
+            parser.toJsonTree(expectedMap, new TypeToken<Map<Integer, Integer>>() {}.getType()));
+    assertThat(data.has("counterNumbers")).isFalse();
+    assertThat(data.has("incDecValues")).isFalse();
+  }
+
+  @Test
+  public void read_whenIncreaseMultipleCommandHasTheCounterMapField_shouldRestoreTheCommand()
+      throws Exception {
+    JsonObject data = parser.toJsonTree(buildIncreaseMultipleCommand()).getAsJsonObject();
+    data.remove("transactionContext"); // the card image is not needed here
+    String json =
+        "{\"type\":\""
+            + CommandIncreaseOrDecreaseMultiple.class.getName()
+            + "\",\"data\":"
+            + data
+            + "}";
+    Command restoredCommand = parser.fromJson(json, Command.class);
+    assertThat(restoredCommand).isInstanceOf(CommandIncreaseOrDecreaseMultiple.class);
+    JsonObject restoredData = parser.toJsonTree(restoredCommand).getAsJsonObject();
+    assertThat(restoredData.get("counterNumberToIncDecValueMap"))
+        .isEqualTo(data.get("counterNumberToIncDecValueMap"));
+  }
+
+  @Test
+  public void write_whenCardImageIsSerialized_shouldKeepAnEmptyFilesBackup() throws Exception {
+    CalypsoCardAdapter card = buildCard();
+    card.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+    card.backupFiles();
+    card.setContent((byte) 0x07, 1, HexUtil.toByteArray("3344"));
+    JsonObject json = parser.toJsonTree(card).getAsJsonObject();
+    assertThat(json.getAsJsonArray("filesBackup")).isEmpty();
+  }
+
+  @Test
+  public void write_whenCardImageIsSerialized_shouldMatchTheGoldenJson() throws Exception {
+    CalypsoCardAdapter card = buildCard();
+    card.setContent((byte) 0x07, 1, HexUtil.toByteArray("1122"));
+    assertSameFields("card", readGoldenJson("card-image.json"), parser.toJsonTree(card));
+  }
+
+  @Test
+  public void write_whenElementaryFileIsSerialized_shouldMatchTheGoldenJson() throws Exception {
+    ElementaryFileAdapter ef = new ElementaryFileAdapter((byte) 0x07);
+    ef.setHeader(
+        FileHeaderAdapter.builder()
+            .lid((short) 0x2010)
+            .recordsNumber(3)
+            .recordSize(29)
+            .type(ElementaryFile.Type.LINEAR)
+            .accessConditions(HexUtil.toByteArray("10100000"))
+            .keyIndexes(HexUtil.toByteArray("01010000"))
+            .dfStatus((byte) 0x00)
+            .sharedReference((short) 0x3F07)
+            .build());
+    ef.getData().setContent(1, HexUtil.toByteArray("1122"));
+    ef.getData().setContent(3, HexUtil.toByteArray("AA01"));
+    assertSameFields(
+        "ef",
+        readGoldenJson("elementary-file.json"),
+        parser.toJsonTree(ef, ElementaryFile.class));
+  }
+
+  @Test
+  public void write_whenCommandsAreSerialized_shouldMatchTheGoldenJson() throws Exception {
+    assertCommandMatchesGoldenJson(
+        "command-read-records.json",
+        new CommandReadRecords(
+            new TransactionContextDto(),
+            new CommandContextDto(false, false),
+            7,
+            1,
+            CommandReadRecords.ReadMode.ONE_RECORD,
+            0,
+            0));
+    assertCommandMatchesGoldenJson(
+        "command-get-data-fcp.json",
+        new CommandGetDataFcp(new TransactionContextDto(), new CommandContextDto(false, false)));
+    assertCommandMatchesGoldenJson(
+        "command-increase-multiple.json", buildIncreaseMultipleCommand());
+  }
+
+  @Test
+  public void read_whenCommandTypeIsAnyConcreteCommand_shouldRestoreACommandOfThisType()
+      throws Exception {
+    File[] sourceFiles =
+        new File("src/main/java/" + Command.class.getPackage().getName().replace('.', '/'))
+            .listFiles((dir, name) -> name.endsWith(".java") && !name.contains("-"));
+    assertThat(sourceFiles).isNotEmpty();
+    int nbCommandTypes = 0;
+    for (File sourceFile : sourceFiles) {
+      String className =
+          Command.class.getPackage().getName() + "." + sourceFile.getName().replace(".java", "");
+      Class<?> type = Class.forName(className, false, Command.class.getClassLoader());
+      if (Command.class.isAssignableFrom(type) && !Modifier.isAbstract(type.getModifiers())) {
+        String json = "{\"type\":\"" + type.getName() + "\",\"data\":{}}";
+        assertThat(parser.fromJson(json, Command.class)).as(className).isInstanceOf(type);
+        nbCommandTypes++;
+      }
+    }
+    assertThat(nbCommandTypes).isGreaterThan(1);
+  }
+}
@@ -0,0 +1,98 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.keyple.core.util.HexUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RecordContentCacheTest {
+
+  private CalypsoCardAdapter card;
+  private final byte[] data1 = HexUtil.toByteArray("11");
+  private final byte[] data2 = HexUtil.toByteArray("2222");
+  private final byte[] data3 = HexUtil.toByteArray("333333");
+
+  @Before
+  public void setUp() throws Exception {
+    card = new CalypsoCardAdapter(null);
+    card.setContent((byte) 7, 1, data1);
+    card.setContent((byte) 7, 2, data2);
+    card.setContent((byte) 8, 1, data3);
+  }
+
+  @Test
+  public void get_whenRecordsAreStored_shouldReturnTheirContent() {
+    RecordContentCache cache = new RecordContentCache(10, 60000);
+    cache.putFiles(card, card.pollUpdatedSfis());
+    assertThat(cache.get(card, 7, 1)).isEqualTo(data1);
+    assertThat(cache.get(card, 7, 2)).isEqualTo(data2);
+    assertThat(cache.get(card, 8, 1)).isEqualTo(data3);
+    assertThat(cache.get(card, 8, 2)).isNull();
+  }
+
+  @Test
+  public void get_whenMaxEntriesIsReached_shouldEvictLeastRecentlyUsedRecords() throws Exception {
+    CalypsoCardAdapter card1 = new CalypsoCardAdapter(null);
+    card1.setContent((byte) 7, 1, data1);
+    card1.setContent((byte) 7, 2, data2);
+    CalypsoCardAdapter card2 = new CalypsoCardAdapter(null);
+    card2.setContent((byte) 8, 1, data3);
+    RecordContentCache cache = new RecordContentCache(2, 60000);
+    cache.putFiles(card1, card1.pollUpdatedSfis());
+    cache.get(card1, 7, 1);
+    cache.putFiles(card2, card2.pollUpdatedSfis());
+    assertThat(cache.get(card1, 7, 2)).isNull();
+    assertThat(cache.get(card1, 7, 1)).isEqualTo(data1);
+    assertThat(cache.get(card2, 8, 1)).isEqualTo(data3);
+  }
+
+  @Test
+  public void get_whenTimeToLiveHasExpired_shouldReturnNull() throws Exception {
+    RecordContentCache cache = new RecordContentCache(10, 1);
+    cache.putFiles(card, card.pollUpdatedSfis());
+    Thread.sleep(10);
+    assertThat(cache.get(card, 7, 1)).isNull();
+  }
+
+  @Test
+  public void invalidate_shouldRemoveOnlyTheRecordsOfTheFile() {
+    RecordContentCache cache = new RecordContentCache(10, 60000);
+    cache.putFiles(card, card.pollUpdatedSfis());
+    cache.invalidate(card, 7);
+    assertThat(cache.get(card, 7, 1)).isNull();
+    assertThat(cache.get(card, 7, 2)).isNull();
+    assertThat(cache.get(card, 8, 1)).isEqualTo(data3);
+  }
+
+  @Test
+  public void get_whenCardImageIsModifiedAfterStorage_shouldReturnTheStoredContent() {
+    RecordContentCache cache = new RecordContentCache(10, 60000);
+    cache.putFiles(card, card.pollUpdatedSfis());
+    card.setContent((byte) 7, 1, data3);
+    assertThat(cache.get(card, 7, 1)).isEqualTo(data1);
+  }
+
+  @Test
+  public void putFiles_shouldOnlyStoreTheRecordsOfTheUpdatedFiles() {
+    RecordContentCache cache = new RecordContentCache(10, 60000);
+    card.pollUpdatedSfis();
+    card.setContent((byte) 8, 2, data1);
+    cache.putFiles(card, card.pollUpdatedSfis());
+    assertThat(cache.get(card, 7, 1)).isNull();
+    assertThat(cache.get(card, 8, 1)).isEqualTo(data3);
+    assertThat(cache.get(card, 8, 2)).isEqualTo(data1);
+    assertThat(card.pollUpdatedSfis()).isZero();
+  }
+}
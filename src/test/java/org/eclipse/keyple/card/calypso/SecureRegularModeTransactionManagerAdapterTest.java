@@ -12,10 +12,12 @@
 package org.eclipse.keyple.card.calypso;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.GetDataTag;
 import org.eclipse.keypop.calypso.card.SelectFileControl;
@@ -24,12 +26,14 @@
 import org.eclipse.keypop.calypso.card.transaction.*;
 import org.eclipse.keypop.calypso.card.transaction.spi.CardTransactionCryptoExtension;
 import org.eclipse.keypop.calypso.card.transaction.spi.SymmetricCryptoCardTransactionManagerFactory;
+import org.eclipse.keypop.calypso.crypto.symmetric.SvCommandSecurityDataApi;
 import org.eclipse.keypop.calypso.crypto.symmetric.SymmetricCryptoException;
 import org.eclipse.keypop.calypso.crypto.symmetric.SymmetricCryptoIOException;
 import org.eclipse.keypop.calypso.crypto.symmetric.spi.SymmetricCryptoCardTransactionManagerFactorySpi;
 import org.eclipse.keypop.calypso.crypto.symmetric.spi.SymmetricCryptoCardTransactionManagerSpi;
 import org.eclipse.keypop.card.*;
 import org.eclipse.keypop.card.ChannelControl;
+import org.eclipse.keypop.card.spi.ApduRequestSpi;
 import org.eclipse.keypop.card.spi.CardRequestSpi;
 import org.junit.Before;
 import org.junit.Test;
@@ -1525,6 +1529,119 @@ public void prepareChangePin_whenTransmissionIsEncrypted_shouldSendApdusToTheCar
     verifyNoMoreInteractions(symmetricCryptoCardTransactionManager, cardReader);
   }
 
+  @Test
+  public void processCommands_whenFinalizationRequiresACardResponse_shouldPlanTwoCardRequests()
+      throws Exception {
+    cardSecuritySetting.setPinModificationCipheringKey(
+        PIN_CIPHERING_KEY_KIF, PIN_CIPHERING_KEY_KVC);
+    initCalypsoCardAndTransactionManager(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3_WITH_PIN);
+    mockTransmitCardRequest(CARD_GET_CHALLENGE_CMD, CARD_GET_CHALLENGE_RSP);
+    when(symmetricCryptoCardTransactionManager.cipherPinForModification(
+            HexUtil.toByteArray(CARD_CHALLENGE),
+            new byte[4],
+            NEW_PIN.getBytes(),
+            PIN_CIPHERING_KEY_KIF,
+            PIN_CIPHERING_KEY_KVC))
+        .thenReturn(HexUtil.toByteArray(CIPHER_PIN_UPDATE_OK));
+    mockTransmitCardRequest(CARD_CHANGE_PIN_CMD, CARD_CHANGE_PIN_RSP);
+
+    cardTransactionManager
+        .prepareChangePin(NEW_PIN.getBytes())
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    assertThat(
+            ((SecureRegularModeTransactionManagerAdapter) cardTransactionManager)
+                .getCardRequestPlan())
+        .containsExactly(
+            Collections.singletonList(CardCommandRef.GET_CHALLENGE.getName()),
+            Collections.singletonList(CardCommandRef.CHANGE_PIN.getName()));
+  }
+
+  @Test
+  public void processCommands_whenSvGetFollowsCipheredPin_shouldAnticipateSvGet()
+      throws Exception {
+    cardSecuritySetting.setPinVerificationCipheringKey(
+        PIN_CIPHERING_KEY_KIF, PIN_CIPHERING_KEY_KVC);
+    initCalypsoCardAndTransactionManager(
+        "6F238409315449432E49434131A516BF0C13C708000000001122334453070A3C23051410019000");
+    when(cardReader.transmitCardRequest(any(CardRequestSpi.class), any(ChannelControl.class)))
+        .thenAnswer(
+            invocation -> {
+              List<ApduResponseApi> apduResponses = new ArrayList<ApduResponseApi>();
+              for (ApduRequestSpi apduRequest :
+                  invocation.getArgument(0, CardRequestSpi.class).getApduRequests()) {
+                byte ins = apduRequest.getApdu()[1];
+                String response =
+                    ins == CardCommandRef.GET_CHALLENGE.getInstructionByte()
+                        ? CARD_GET_CHALLENGE_RSP
+                        : ins == CardCommandRef.SV_GET.getInstructionByte()
+                            ? CARD_SV_GET_RELOAD_RSP
+                            : SW_9000;
+                apduResponses.add(
+                    new TestDtoAdapters.ApduResponseAdapter(HexUtil.toByteArray(response)));
+              }
+              return new TestDtoAdapters.CardResponseAdapter(apduResponses, true);
+            });
+    when(symmetricCryptoCardTransactionManager.cipherPinForPresentation(
+            HexUtil.toByteArray(CARD_CHALLENGE),
+            PIN_OK.getBytes(),
+            PIN_CIPHERING_KEY_KIF,
+            PIN_CIPHERING_KEY_KVC))
+        .thenReturn(HexUtil.toByteArray(CIPHER_PIN_UPDATE_OK));
+    doAnswer(
+            invocation -> {
+              SvCommandSecurityDataApi svCommandSecurityData = invocation.getArgument(0);
+              svCommandSecurityData
+                  .setSerialNumber(new byte[4])
+                  .setTransactionNumber(new byte[3])
+                  .setTerminalChallenge(new byte[3])
+                  .setTerminalSvMac(new byte[5]);
+              return null;
+            })
+        .when(symmetricCryptoCardTransactionManager)
+        .computeSvCommandSecurityData(any(SvCommandSecurityDataApi.class));
+    when(symmetricCryptoCardTransactionManager.isCardSvMacValid(any(byte[].class)))
+        .thenReturn(true);
+
+    cardTransactionManager
+        .prepareVerifyPin(PIN_OK.getBytes())
+        .prepareSvGet(SvOperation.RELOAD, SvAction.DO)
+        .prepareSvReload(1)
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    List<List<String>> cardRequestPlan =
+        ((SecureRegularModeTransactionManagerAdapter) cardTransactionManager).getCardRequestPlan();
+    assertThat(cardRequestPlan).hasSize(2);
+    assertThat(cardRequestPlan.get(0)).hasSize(2);
+    assertThat(cardRequestPlan.get(0).get(0)).startsWith(CardCommandRef.SV_GET.getName());
+    assertThat(cardRequestPlan.get(0).get(1)).isEqualTo(CardCommandRef.GET_CHALLENGE.getName());
+    assertThat(cardRequestPlan.get(1)).hasSize(2);
+    assertThat(cardRequestPlan.get(1).get(0)).startsWith(CardCommandRef.VERIFY_PIN.getName());
+    assertThat(cardRequestPlan.get(1).get(1)).isEqualTo(CardCommandRef.SV_RELOAD.getName());
+    verify(cardReader, times(2))
+        .transmitCardRequest(any(CardRequestSpi.class), any(ChannelControl.class));
+    assertThat(calypsoCard.getSvBalance()).isEqualTo(HexUtil.toInt(SV_R_BALANCE) + 1);
+  }
+
+  @Test
+  public void processCommands_whenOutOfSession_shouldPlanASingleCardRequest() throws Exception {
+    mockTransmitCardRequest(
+        CARD_READ_REC_SFI7_REC1_CMD,
+        CARD_READ_REC_SFI7_REC1_RSP,
+        CARD_READ_REC_SFI8_REC1_CMD,
+        CARD_READ_REC_SFI8_REC1_RSP);
+
+    cardTransactionManager
+        .prepareReadRecord(FILE7, 1)
+        .prepareReadRecord(FILE8, 1)
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    List<List<String>> cardRequestPlan =
+        ((SecureRegularModeTransactionManagerAdapter) cardTransactionManager).getCardRequestPlan();
+    assertThat(cardRequestPlan).hasSize(1);
+    assertThat(cardRequestPlan.get(0)).hasSize(2);
+  }
+
   @Test
   public void processCommands_whenOutOfSession_shouldInteractWithCardOnly() throws Exception {
     CardRequestSpi cardRequest =
@@ -1544,6 +1661,60 @@ public void processCommands_whenOutOfSession_shouldInteractWithCardOnly() throws
     verifyInteractionsForSingleCardCommand(cardRequest);
   }
 
+  @Test
+  public void processCommandsAsync_whenOutOfSession_shouldInteractWithCardOnly() throws Exception {
+    CardRequestSpi cardRequest =
+        mockTransmitCardRequest(
+            CARD_READ_REC_SFI7_REC1_CMD,
+            CARD_READ_REC_SFI7_REC1_RSP,
+            CARD_READ_REC_SFI8_REC1_CMD,
+            CARD_READ_REC_SFI8_REC1_RSP,
+            CARD_READ_REC_SFI10_REC1_CMD,
+            CARD_READ_REC_SFI10_REC1_RSP);
+
+    cardTransactionManager.prepareReadRecord(FILE7, 1);
+    cardTransactionManager.prepareReadRecord(FILE8, 1);
+    cardTransactionManager.prepareReadRecord(FILE10, 1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      SecureRegularModeTransactionManager result =
+          CalypsoExtensionService.getInstance()
+              .processCommandsAsync(cardTransactionManager, CHANNEL_CONTROL_KEEP_OPEN, executor)
+              .get();
+      assertThat(result).isSameAs(cardTransactionManager);
+    } finally {
+      executor.shutdown();
+    }
+
+    verifyInteractionsForSingleCardCommand(cardRequest);
+  }
+
+  @Test
+  public void processCommandsAsync_whenProcessingFails_shouldCompleteExceptionally()
+      throws Exception {
+    mockTransmitCardRequest(CARD_OPEN_SECURE_SESSION_CMD, CARD_OPEN_SECURE_SESSION_RSP);
+    cardTransactionManager
+        .prepareOpenSecureSession(WriteAccessLevel.DEBIT)
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+    mockTransmitCardRequest(CARD_CLOSE_SECURE_SESSION_CMD, SW_INCORRECT_SIGNATURE);
+
+    cardTransactionManager.prepareCloseSecureSession();
+    CompletableFuture<SecureRegularModeTransactionManager> future =
+        CalypsoExtensionService.getInstance()
+            .processCommandsAsync(cardTransactionManager, CHANNEL_CONTROL_KEEP_OPEN, Runnable::run);
+
+    assertThat(future).isCompletedExceptionally();
+    assertThatThrownBy(future::join)
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(UnexpectedCommandStatusException.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void processCommandsAsync_whenExecutorIsNull_shouldThrowIAE() {
+    CalypsoExtensionService.getInstance()
+        .processCommandsAsync(cardTransactionManager, CHANNEL_CONTROL_KEEP_OPEN, null);
+  }
+
   @Test
   public void getCryptoExtension_shouldReturnANonNullReference() {
     SymmetricCryptoCardTransactionManagerMock cryptoExtension =
@@ -1613,6 +1784,89 @@ public void prepareCloseSecureSession_whenASessionIsOpen_shouldInteractWithCardA
     verifyNoMoreInteractions(symmetricCryptoCardTransactionManager, cardReader);
   }
 
+  @Test
+  public void prepareCloseSecureSession_whenSessionIsClosed_shouldDiscardTheFilesBackup()
+      throws Exception {
+    mockTransmitCardRequest(CARD_OPEN_SECURE_SESSION_CMD, CARD_OPEN_SECURE_SESSION_RSP);
+    mockTransmitCardRequest(CARD_READ_REC_SFI7_REC1_L29_CMD, CARD_READ_REC_SFI7_REC1_RSP);
+    mockTransmitCardRequest(CARD_CLOSE_SECURE_SESSION_CMD, CARD_CLOSE_SECURE_SESSION_RSP);
+
+    cardTransactionManager
+        .prepareOpenSecureSession(WriteAccessLevel.DEBIT)
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+    cardTransactionManager
+        .prepareReadRecords(FILE7, 1, 1, 29)
+        .prepareCloseSecureSession()
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    InOrder inOrder = inOrder(calypsoCard);
+    inOrder.verify(calypsoCard).backupFiles();
+    inOrder.verify(calypsoCard).discardFilesBackup();
+    verify(calypsoCard, never()).restoreFiles();
+  }
+
+  @Test
+  public void prepareCloseSecureSession_whenMacPipeliningIsEnabled_shouldUpdateMacInTheSameOrder()
+      throws Exception {
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CalypsoExtensionService.getInstance()
+        .enableTerminalSessionMacPipelining(cardTransactionManager, executor);
+
+    CardRequestSpi cardRequest =
+        mockTransmitCardRequest(CARD_OPEN_SECURE_SESSION_CMD, CARD_OPEN_SECURE_SESSION_RSP);
+
+    CardRequestSpi cardRequestRead =
+        mockTransmitCardRequest(CARD_READ_REC_SFI7_REC1_L29_CMD, CARD_READ_REC_SFI7_REC1_RSP);
+
+    CardRequestSpi cardRequestClose =
+        mockTransmitCardRequest(CARD_CLOSE_SECURE_SESSION_CMD, CARD_CLOSE_SECURE_SESSION_RSP);
+
+    cardTransactionManager
+        .prepareOpenSecureSession(WriteAccessLevel.DEBIT)
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    cardTransactionManager
+        .prepareReadRecords(FILE7, 1, 1, 29)
+        .prepareCloseSecureSession()
+        .processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    InOrder inOrder = inOrder(symmetricCryptoCardTransactionManager, cardReader);
+    inOrder.verify(symmetricCryptoCardTransactionManager).initTerminalSecureSessionContext();
+    inOrder
+        .verify(cardReader)
+        .transmitCardRequest(
+            argThat(new CardRequestMatcher(cardRequest)), any(ChannelControl.class));
+    inOrder
+        .verify(symmetricCryptoCardTransactionManager)
+        .initTerminalSessionMac(
+            HexUtil.toByteArray(CARD_OPEN_SECURE_SESSION_DATA_OUT),
+            HexUtil.toByte(KIF),
+            HexUtil.toByte(KVC));
+    inOrder.verify(symmetricCryptoCardTransactionManager).synchronize();
+    inOrder
+        .verify(cardReader)
+        .transmitCardRequest(
+            argThat(new CardRequestMatcher(cardRequestRead)), any(ChannelControl.class));
+    inOrder
+        .verify(symmetricCryptoCardTransactionManager)
+        .updateTerminalSessionMac(HexUtil.toByteArray(CARD_READ_REC_SFI7_REC1_L29_CMD));
+    inOrder
+        .verify(symmetricCryptoCardTransactionManager)
+        .updateTerminalSessionMac(HexUtil.toByteArray(CARD_READ_REC_SFI7_REC1_RSP));
+    inOrder.verify(symmetricCryptoCardTransactionManager).finalizeTerminalSessionMac();
+    inOrder
+        .verify(cardReader)
+        .transmitCardRequest(
+            argThat(new CardRequestMatcher(cardRequestClose)), any(ChannelControl.class));
+    inOrder
+        .verify(symmetricCryptoCardTransactionManager)
+        .isCardSessionMacValid(HexUtil.toByteArray(CARD_SIGNATURE));
+    inOrder.verify(symmetricCryptoCardTransactionManager).synchronize();
+    verifyNoMoreInteractions(symmetricCryptoCardTransactionManager, cardReader);
+    executor.shutdown();
+  }
+
   @Test(expected = UnexpectedCommandStatusException.class)
   public void prepareCloseSecureSession_whenCloseSessionFails_shouldThrowUCSE() throws Exception {
 
@@ -2483,4 +2737,37 @@ public void prepareChangeKey_shouldSendApdusToTheCardAndTheSAM() throws Exceptio
     inOrder.verify(symmetricCryptoCardTransactionManager).synchronize();
     verifyNoMoreInteractions(symmetricCryptoCardTransactionManager, cardReader);
   }
+
+  @Test
+  public void rebindTransactionManager_shouldClearPreviousTransactionAndUseNewCard()
+      throws Exception {
+    CalypsoCard previousCard = calypsoCard;
+    cardTransactionManager.prepareReadRecord(FILE8, 1);
+    initCalypsoCard(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3);
+    CardRequestSpi cardRequest =
+        mockTransmitCardRequest(CARD_READ_REC_SFI7_REC1_CMD, CARD_READ_REC_SFI7_REC1_RSP);
+
+    SecureRegularModeTransactionManager result =
+        CalypsoExtensionService.getInstance()
+            .rebindTransactionManager(cardTransactionManager, calypsoCard);
+    result.prepareReadRecord(FILE7, 1).processCommands(CHANNEL_CONTROL_KEEP_OPEN);
+
+    assertThat(result).isSameAs(cardTransactionManager);
+    verify(symmetricCryptoCardTransactionManagerFactory, times(2))
+        .createCardTransactionManager(
+            eq(HexUtil.toByteArray(CARD_SERIAL_NUMBER)),
+            any(Boolean.class),
+            ArgumentMatchers.<byte[]>anyList());
+    verifyInteractionsForSingleCardCommand(cardRequest);
+    assertThat(calypsoCard.getFileBySfi(FILE7)).isNotNull();
+    assertThat(previousCard.getFileBySfi(FILE7)).isNull();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rebindTransactionManager_whenSecureSessionIsOpen_shouldThrowISE() throws Exception {
+    cardTransactionManager.prepareOpenSecureSession(WriteAccessLevel.DEBIT);
+    initCalypsoCard(SELECT_APPLICATION_RESPONSE_PRIME_REVISION_3);
+    CalypsoExtensionService.getInstance()
+        .rebindTransactionManager(cardTransactionManager, calypsoCard);
+  }
 }
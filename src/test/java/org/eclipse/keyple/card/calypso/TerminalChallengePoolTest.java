@@ -0,0 +1,77 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.Test;
+
+public class TerminalChallengePoolTest {
+
+  private final AtomicInteger generatedChallenges = new AtomicInteger();
+  private final Consumer<byte[]> entropySource =
+      bytes -> bytes[0] = (byte) generatedChallenges.incrementAndGet();
+  private final List<Runnable> pendingTasks = new ArrayList<>();
+  private final Executor deferredExecutor = pendingTasks::add;
+
+  private void runPendingTasks() {
+    while (!pendingTasks.isEmpty()) {
+      pendingTasks.remove(0).run();
+    }
+  }
+
+  @Test
+  public void constructor_shouldScheduleTheFillingOfThePool() {
+    TerminalChallengePool pool = new TerminalChallengePool(8, 4, entropySource, deferredExecutor);
+    assertThat(pool.getAvailableChallenges()).isZero();
+    runPendingTasks();
+    assertThat(pool.getAvailableChallenges()).isEqualTo(4);
+    assertThat(generatedChallenges.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void next_shouldReturnDistinctChallengesOfTheExpectedLength() {
+    TerminalChallengePool pool = new TerminalChallengePool(8, 4, entropySource, deferredExecutor);
+    runPendingTasks();
+    byte[] challenge1 = pool.next();
+    byte[] challenge2 = pool.next();
+    assertThat(challenge1).hasSize(8);
+    assertThat(challenge1[0]).isEqualTo((byte) 1);
+    assertThat(challenge2[0]).isEqualTo((byte) 2);
+  }
+
+  @Test
+  public void next_whenHalfOfThePoolIsConsumed_shouldScheduleARefill() {
+    TerminalChallengePool pool = new TerminalChallengePool(8, 4, entropySource, deferredExecutor);
+    runPendingTasks();
+    pool.next();
+    assertThat(pendingTasks).isEmpty();
+    pool.next();
+    assertThat(pendingTasks).hasSize(1);
+    runPendingTasks();
+    assertThat(pool.getAvailableChallenges()).isEqualTo(4);
+  }
+
+  @Test
+  public void next_whenPoolIsEmpty_shouldGenerateChallengeOnCallerThread() {
+    TerminalChallengePool pool = new TerminalChallengePool(8, 4, entropySource, deferredExecutor);
+    byte[] challenge = pool.next();
+    assertThat(challenge).hasSize(8);
+    assertThat(generatedChallenges.get()).isEqualTo(1);
+    assertThat(pendingTasks).hasSize(1);
+  }
+}
@@ -0,0 +1,69 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TransactionAuditLogFileTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void accept_whenLogIsReopened_shouldAppendAfterExistingApdus() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("audit.log");
+    TransactionAuditLogFile log = new TransactionAuditLogFile(file, 64);
+    log.accept(HexUtil.toByteArray("00B2013C00"));
+    log.accept(HexUtil.toByteArray("11229000"));
+    assertThat(log.getLength()).isEqualTo(17);
+
+    TransactionAuditLogFile reopenedLog = new TransactionAuditLogFile(file, 64);
+    assertThat(reopenedLog.getLength()).isEqualTo(17);
+    reopenedLog.accept(HexUtil.toByteArray("9000"));
+    assertThat(reopenedLog.getLength()).isEqualTo(23);
+  }
+
+  @Test
+  public void accept_whenLogIsFull_shouldDropTheApdu() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("audit.log");
+    TransactionAuditLogFile log = new TransactionAuditLogFile(file, 10);
+    log.accept(HexUtil.toByteArray("00B2013C00"));
+    log.accept(HexUtil.toByteArray("9000"));
+    assertThat(log.getLength()).isEqualTo(9);
+    assertThat(log.getDroppedApdus()).isEqualTo(1);
+  }
+
+  @Test
+  public void getTransactionAuditLogFileDroppedApdus_shouldReturnTheDroppedApdus()
+      throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("audit.log");
+    CalypsoExtensionService service = CalypsoExtensionService.getInstance();
+    Consumer<byte[]> logFile = service.openTransactionAuditLogFile(file, 6);
+    logFile.accept(HexUtil.toByteArray("9000"));
+    logFile.accept(HexUtil.toByteArray("9000"));
+    service.flushTransactionAuditLogFile(logFile);
+    assertThat(service.getTransactionAuditLogFileDroppedApdus(logFile)).isEqualTo(1);
+    assertThat(Files.readAllBytes(file)).isEqualTo(HexUtil.toByteArray("000000029000"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void flushTransactionAuditLogFile_whenSinkIsNotALogFile_shouldThrowIAE() {
+    CalypsoExtensionService.getInstance().flushTransactionAuditLogFile(apdu -> {});
+  }
+}
@@ -0,0 +1,123 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.card.calypso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.keypop.calypso.crypto.symmetric.spi.SymmetricCryptoCardTransactionManagerSpi;
+import org.junit.Test;
+
+public class TransactionAuditRecorderTest {
+
+  private static byte[] apdu(int value) {
+    return new byte[] {(byte) value};
+  }
+
+  @Test
+  public void record_whenCapacityIsReached_shouldOverwriteTheOldestApdus() {
+    TransactionAuditRecorder recorder = new TransactionAuditRecorder(3);
+    for (int i = 1; i <= 5; i++) {
+      recorder.record(apdu(i));
+    }
+    assertThat(recorder).containsExactly(apdu(3), apdu(4), apdu(5));
+  }
+
+  @Test
+  public void record_whenSinkIsSet_shouldForwardEveryApdu() {
+    TransactionAuditRecorder recorder = new TransactionAuditRecorder(3);
+    List<byte[]> sink = new ArrayList<>();
+    recorder.configure(0, sink::add);
+    for (int i = 1; i <= 5; i++) {
+      recorder.record(apdu(i));
+    }
+    assertThat(recorder).isEmpty();
+    assertThat(sink).hasSize(5);
+  }
+
+  @Test
+  public void configure_whenCapacityIsReduced_shouldKeepTheMostRecentApdus() {
+    TransactionAuditRecorder recorder = new TransactionAuditRecorder(4);
+    for (int i = 1; i <= 6; i++) {
+      recorder.record(apdu(i));
+    }
+    recorder.configure(2, null);
+    assertThat(recorder).containsExactly(apdu(5), apdu(6));
+    recorder.record(apdu(7));
+    assertThat(recorder).containsExactly(apdu(6), apdu(7));
+  }
+
+  @Test
+  public void add_shouldRecordTheApdu() {
+    TransactionAuditRecorder recorder = new TransactionAuditRecorder(2);
+    List<byte[]> sink = new ArrayList<>();
+    recorder.configure(2, sink::add);
+    assertThat(recorder.add(apdu(1))).isTrue();
+    recorder.addAll(Arrays.asList(apdu(2), apdu(3)));
+    assertThat(recorder).containsExactly(apdu(2), apdu(3));
+    assertThat(sink).hasSize(3);
+  }
+
+  @Test
+  public void clear_shouldRemoveAllApdus() {
+    TransactionAuditRecorder recorder = new TransactionAuditRecorder(2);
+    recorder.record(apdu(1));
+    recorder.record(apdu(2));
+    recorder.record(apdu(3));
+    recorder.clear();
+    assertThat(recorder).isEmpty();
+    recorder.record(apdu(4));
+    assertThat(recorder).containsExactly(apdu(4));
+  }
+
+  @Test
+  public void record_whenCryptoServiceRecordsFromThePipeline_shouldKeepEveryApdu()
+      throws Exception {
+    int nbExchanges = 10000;
+    TransactionAuditRecorder recorder = new TransactionAuditRecorder(3 * nbExchanges);
+    SymmetricCryptoCardTransactionManagerSpi spi =
+        mock(SymmetricCryptoCardTransactionManagerSpi.class);
+    doAnswer(
+            invocation -> {
+              recorder.add(apdu(2)); // SAM APDU
+              return null;
+            })
+        .when(spi)
+        .updateTerminalSessionMac(any(byte[].class));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      TerminalSessionMacPipeline pipeline = new TerminalSessionMacPipeline(spi, executor);
+      for (int i = 0; i < nbExchanges; i++) {
+        recorder.record(apdu(1)); // card APDU
+        pipeline.submit(apdu(1), apdu(1));
+      }
+      pipeline.drain();
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(recorder).hasSize(3 * nbExchanges).doesNotContainNull();
+    synchronized (recorder) {
+      int nbCardApdus = 0;
+      for (byte[] apdu : recorder) {
+        nbCardApdus += apdu[0] == 1 ? 1 : 0;
+      }
+      assertThat(nbCardApdus).isEqualTo(nbExchanges);
+    }
+  }
+}